@@ -0,0 +1,208 @@
+package silentconvent;
+
+import java.awt.Toolkit;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.Timer;
+
+/**
+ * AnimationScheduler drives every animation in the game from one tick.
+ *
+ * Key features:
+ * - A single Swing timer ticks about once per display frame (~60 Hz) while
+ * anything is animating, and stops when nothing is
+ * - Tweens are driven by elapsed time, not by counting ticks, so a fade takes
+ * the same time even when the EDT is busy and ticks arrive late
+ * - Easing curves (see Easing) and completion callbacks
+ * - Tweens can be cancelled; starting a tween on a channel cancels whatever
+ * was running on it, so overlapping fades can't fight over the same value
+ * - Plain delays (delay()) use the same tick instead of a Timer each
+ *
+ * All methods must be called on the Event Dispatch Thread. Update and
+ * completion callbacks run on the EDT.
+ */
+public class AnimationScheduler {
+
+    /** Tick interval (one frame at 60 Hz) */
+    private static final int FRAME_MS = 16;
+
+    /**
+     * Easing curves: map linear progress (0.0 - 1.0) to eased progress.
+     */
+    public enum Easing {
+        /** Constant speed */
+        LINEAR,
+        /** Starts slow, speeds up */
+        EASE_IN,
+        /** Starts fast, slows down */
+        EASE_OUT,
+        /** Slow at both ends */
+        EASE_IN_OUT;
+
+        /**
+         * @param t Linear progress (0.0 - 1.0)
+         * @return Eased progress (0.0 - 1.0)
+         */
+        public float apply(float t) {
+            switch (this) {
+                case EASE_IN:
+                    return t * t;
+                case EASE_OUT:
+                    return t * (2f - t);
+                case EASE_IN_OUT:
+                    return t * t * (3f - 2f * t);
+                default:
+                    return t;
+            }
+        }
+    }
+
+    /**
+     * Receives a tween's value on every tick.
+     */
+    public interface Update {
+        /** @param value The current value between the tween's from and to */
+        void apply(float value);
+    }
+
+    /**
+     * A running animation. Keep the handle to cancel it.
+     */
+    public static final class Tween {
+        private final Object channel;
+        private final float from;
+        private final float to;
+        private final long durationNanos;
+        private final Easing easing;
+        private final Update update;
+        private final Runnable onComplete;
+        private final long startNanos;
+        private boolean active = true;
+
+        private Tween(Object channel, float from, float to, int durationMs, Easing easing, Update update,
+                Runnable onComplete) {
+            this.channel = channel;
+            this.from = from;
+            this.to = to;
+            this.durationNanos = Math.max(0, durationMs) * 1_000_000L;
+            this.easing = easing != null ? easing : Easing.LINEAR;
+            this.update = update;
+            this.onComplete = onComplete;
+            this.startNanos = System.nanoTime();
+        }
+
+        /**
+         * Stop the tween where it is. Its completion callback is not run.
+         */
+        public void cancel() {
+            if (!active)
+                return;
+            active = false;
+            tweens.remove(this);
+        }
+
+        /** @return True until the tween completes or is cancelled */
+        public boolean isActive() {
+            return active;
+        }
+
+        /**
+         * Advance to the given time.
+         *
+         * @return True once the tween has reached its end
+         */
+        private boolean step(long now) {
+            float t = durationNanos == 0 ? 1f : Math.min(1f, (float) (now - startNanos) / durationNanos);
+            if (update != null)
+                update.apply(from + (to - from) * easing.apply(t));
+            return t >= 1f;
+        }
+    }
+
+    /** Tweens that are running, in start order */
+    private static final List<Tween> tweens = new ArrayList<>();
+
+    /** The one tick that drives every tween (runs only while tweens exist) */
+    private static final Timer ticker = new Timer(FRAME_MS, e -> tick());
+
+    static {
+        ticker.setCoalesce(true); // drop ticks that pile up while the EDT is busy
+    }
+
+    /**
+     * Animate a value from one number to another.
+     *
+     * @param channel    What is being animated (e.g. the fade overlay); any tween
+     *                   already running on it is cancelled. Null for none.
+     * @param from       Starting value
+     * @param to         Final value
+     * @param durationMs Length of the animation in milliseconds
+     * @param easing     Easing curve (null = linear)
+     * @param update     Receives the value on every tick (may be null)
+     * @param onComplete Runs once after the final value was applied (may be null).
+     *                   A tween that is cancelled - directly or by a later tween
+     *                   on the same channel - never runs it, so effects whose
+     *                   callbacks must survive each other (e.g. a fade and a
+     *                   flash) need separate channels.
+     * @return Handle to cancel the tween
+     */
+    public static Tween animate(Object channel, float from, float to, int durationMs, Easing easing,
+            Update update, Runnable onComplete) {
+        if (channel != null)
+            cancel(channel);
+        Tween tw = new Tween(channel, from, to, durationMs, easing, update, onComplete);
+        tweens.add(tw);
+        if (!ticker.isRunning())
+            ticker.start();
+        return tw;
+    }
+
+    /**
+     * Run an action after a delay.
+     *
+     * @param delayMs Delay in milliseconds
+     * @param action  Action to run
+     * @return Handle to cancel the delay
+     */
+    public static Tween delay(int delayMs, Runnable action) {
+        return animate(null, 0f, 1f, delayMs, Easing.LINEAR, null, action);
+    }
+
+    /**
+     * Cancel whatever tween is running on a channel.
+     *
+     * @param channel The channel passed to animate()
+     */
+    public static void cancel(Object channel) {
+        for (Tween tw : new ArrayList<>(tweens))
+            if (channel.equals(tw.channel))
+                tw.cancel();
+    }
+
+    /** @return Number of tweens (including delays) that are running */
+    public static int getActiveCount() {
+        return tweens.size();
+    }
+
+    /**
+     * Advance every tween to the current time.
+     * Callbacks may start or cancel tweens; new ones begin on the next tick.
+     */
+    private static void tick() {
+        long now = System.nanoTime();
+        for (Tween tw : new ArrayList<>(tweens)) {
+            if (!tw.active)
+                continue;
+            if (tw.step(now)) {
+                tw.active = false;
+                tweens.remove(tw);
+                if (tw.onComplete != null)
+                    tw.onComplete.run();
+            }
+        }
+        // Push this frame's drawing out now rather than whenever the toolkit flushes
+        Toolkit.getDefaultToolkit().sync();
+        if (tweens.isEmpty())
+            ticker.stop();
+    }
+}
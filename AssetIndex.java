@@ -0,0 +1,316 @@
+package silentconvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * AssetIndex maps logical asset names to the assets that actually exist.
+ *
+ * Key features:
+ * - Built once at startup from the packed archive's index, or by scanning the
+ * working directory and the assets folder
+ * - Keys are normalized (Unicode NFC, '/' separators) and case-insensitive
+ * - Every asset can be found by its path, its file name, or its file name
+ * without extension, so "Agnes_Left.png", "assets/images/agnes_left.PNG" and
+ * "agnes_left" all resolve the same way
+ * - Names that match more than one asset are reported once per build
+ * - When running from loose files, watch() rebuilds the index (and drops cached
+ * images, sounds and scene scripts) whenever an asset or asset folder changes;
+ * other files in the game folder (logs, benchmark results) are ignored
+ *
+ * Lookups are plain hash probes; nothing touches the file system.
+ */
+public class AssetIndex {
+
+    /** Folder scanned recursively when there is no archive */
+    private static final String ASSETS_DIR = "assets";
+
+    /** File types the game loads */
+    private static final String[] EXTENSIONS = { ".png", ".jpg", ".jpeg", ".wav", SceneScript.EXTENSION };
+
+    /** Delay after the last change before the index is rebuilt */
+    private static final long REFRESH_DELAY_MS = 250;
+
+    /** Normalized key → matching asset names (most preferred first); replaced whole on refresh */
+    private static volatile Map<String, List<String>> index;
+
+    /** Keys that matched more than one asset in the last build */
+    private static volatile Map<String, List<String>> ambiguous = Collections.emptyMap();
+
+    /** The directory watcher thread (null until watch() is called) */
+    private static Thread watcher;
+
+    /** The working directory, as registered with the watcher */
+    private static final Path TOP = Paths.get(".");
+
+    /** Folders under assets/ registered with the watcher (to recognize deleted folders) */
+    private static final Set<Path> watchedDirs = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Scan the assets and (re)build the index.
+     * Called at startup; lookups build it on first use if nobody did.
+     */
+    public static void build() {
+        List<String> names = AssetStore.isPacked() ? AssetStore.names() : scanLoose();
+        Map<String, List<String>> map = new HashMap<>(names.size() * 4);
+        for (String name : names) {
+            String path = normalize(name);
+            String file = path.substring(path.lastIndexOf('/') + 1);
+            add(map, path, name);
+            add(map, file, name);
+            add(map, stripExtension(file), name);
+        }
+
+        // A key is ambiguous if it matches several assets
+        Map<String, List<String>> dup = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> e : map.entrySet())
+            if (e.getValue().size() > 1)
+                dup.put(e.getKey(), e.getValue());
+        for (Map.Entry<String, List<String>> e : dup.entrySet())
+            Log.warn(() -> "AssetIndex: ambiguous name '" + e.getKey() + "' matches " + e.getValue()
+                    + ", using " + e.getValue().get(0));
+
+        index = map;
+        ambiguous = dup;
+        Log.info(() -> "AssetIndex: indexed " + names.size() + " assets");
+    }
+
+    /** Add a key → asset mapping, ignoring repeats of the same asset. */
+    private static void add(Map<String, List<String>> map, String key, String name) {
+        List<String> list = map.computeIfAbsent(key, k -> new ArrayList<>(1));
+        if (!list.contains(name))
+            list.add(name);
+    }
+
+    /**
+     * List the loose assets: files directly in the working directory first (the
+     * game has always looked there first), then everything under assets/.
+     */
+    private static List<String> scanLoose() {
+        List<String> names = new ArrayList<>();
+        File[] top = new File(".").listFiles();
+        if (top != null) {
+            List<String> sorted = new ArrayList<>();
+            for (File f : top)
+                if (f.isFile() && isAsset(f.getName()))
+                    sorted.add(f.getName());
+            Collections.sort(sorted);
+            names.addAll(sorted);
+        }
+        Path root = Paths.get(ASSETS_DIR);
+        if (Files.isDirectory(root)) {
+            try (Stream<Path> s = Files.walk(root)) {
+                s.filter(Files::isRegularFile)
+                        .map(p -> p.toString().replace('\\', '/'))
+                        .filter(AssetIndex::isAsset)
+                        .sorted()
+                        .forEach(names::add);
+            } catch (IOException e) {
+                Log.warn(() -> "AssetIndex: failed to scan " + ASSETS_DIR + ": " + e.getMessage());
+            }
+        }
+        return names;
+    }
+
+    /** @return True for the file types the game loads */
+    private static boolean isAsset(String name) {
+        String n = name.toLowerCase(Locale.ROOT);
+        for (String ext : EXTENSIONS)
+            if (n.endsWith(ext))
+                return true;
+        return false;
+    }
+
+    /** Normalize a requested name: NFC, '/' separators, relative, lowercase. */
+    static String normalize(String name) {
+        String n = AssetStore.normalize(Normalizer.normalize(name, Normalizer.Form.NFC));
+        return n.toLowerCase(Locale.ROOT);
+    }
+
+    /** Remove a file extension, if there is one. */
+    private static String stripExtension(String file) {
+        int dot = file.lastIndexOf('.');
+        return dot > 0 ? file.substring(0, dot) : file;
+    }
+
+    /**
+     * Resolve a logical name to an asset.
+     * Tries the whole path, then the file name, then the file name without
+     * extension. If several assets match, one whose name has exactly the
+     * requested spelling wins; otherwise the first one scanned.
+     *
+     * @param requested Name or path as the game asks for it
+     * @return The asset name to pass to AssetStore, or null if nothing matches
+     */
+    public static String find(String requested) {
+        if (requested == null || requested.isEmpty())
+            return null;
+        Map<String, List<String>> map = index;
+        if (map == null) {
+            synchronized (AssetIndex.class) {
+                if (index == null)
+                    build();
+                map = index;
+            }
+        }
+        String path = normalize(requested);
+        String file = path.substring(path.lastIndexOf('/') + 1);
+        List<String> hits = map.get(path);
+        if (hits == null)
+            hits = map.get(file);
+        if (hits == null)
+            hits = map.get(stripExtension(file));
+        if (hits == null)
+            return null;
+        if (hits.size() > 1) {
+            String wanted = requested.replace('\\', '/');
+            for (String h : hits)
+                if (h.equals(wanted) || h.endsWith("/" + wanted))
+                    return h;
+        }
+        return hits.get(0);
+    }
+
+    /**
+     * Resolve the first of several logical names that matches an asset.
+     *
+     * @param names Names to try, in order of preference
+     * @return The asset name, or null if none match
+     */
+    public static String findFirst(String... names) {
+        for (String n : names) {
+            String hit = find(n);
+            if (hit != null)
+                return hit;
+        }
+        return null;
+    }
+
+    /**
+     * Get the names that matched more than one asset in the last build.
+     *
+     * @return Normalized key → matching asset names (preferred first)
+     */
+    public static Map<String, List<String>> getAmbiguous() {
+        return Collections.unmodifiableMap(ambiguous);
+    }
+
+    /**
+     * Watch the asset folders and rebuild the index when they change.
+     * Does nothing when assets come from a packed archive (it can't change).
+     */
+    public static synchronized void watch() {
+        if (watcher != null || AssetStore.isPacked())
+            return;
+        final WatchService ws;
+        try {
+            ws = FileSystems.getDefault().newWatchService();
+            registerAll(ws);
+        } catch (IOException e) {
+            Log.warn(() -> "AssetIndex: can't watch asset folders: " + e.getMessage());
+            return;
+        }
+        watcher = new Thread(() -> watchLoop(ws), "asset-index-watch");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /** Register the working directory and every folder under assets/. */
+    private static void registerAll(WatchService ws) throws IOException {
+        TOP.register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        Path root = Paths.get(ASSETS_DIR);
+        if (!Files.isDirectory(root))
+            return;
+        try (Stream<Path> s = Files.walk(root)) {
+            for (Path dir : (Iterable<Path>) s.filter(Files::isDirectory)::iterator) {
+                dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+                watchedDirs.add(dir);
+            }
+        }
+    }
+
+    /**
+     * Drain a key's events and tell whether any of them touched an asset.
+     * In the working directory only asset files and the assets folder count;
+     * under assets/ asset files and folders do. Overflow counts, since the
+     * events that would have told us are lost.
+     *
+     * @param key Signalled watch key (reset before returning)
+     * @return True if the index needs rebuilding
+     */
+    private static boolean assetsChanged(WatchKey key) {
+        Path dir = (Path) key.watchable();
+        boolean changed = false;
+        for (WatchEvent<?> ev : key.pollEvents()) {
+            if (ev.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+                continue;
+            }
+            Path name = (Path) ev.context();
+            String file = name.toString();
+            if (isAsset(file)) {
+                changed = true;
+            } else if (dir.equals(TOP)) {
+                changed |= file.equals(ASSETS_DIR);
+            } else {
+                Path child = dir.resolve(name);
+                changed |= Files.isDirectory(child) || watchedDirs.remove(child);
+            }
+        }
+        if (!key.reset() && !dir.equals(TOP))
+            watchedDirs.remove(dir);
+        return changed;
+    }
+
+    /**
+     * Watcher thread: wait for an asset change, let a burst of changes settle,
+     * then rebuild the index and drop everything decoded from the old files.
+     */
+    private static void watchLoop(WatchService ws) {
+        while (true) {
+            try {
+                if (!assetsChanged(ws.take()))
+                    continue;
+                // Collect the rest of the burst (e.g. an editor saving several files)
+                WatchKey more;
+                while ((more = ws.poll(REFRESH_DELAY_MS, java.util.concurrent.TimeUnit.MILLISECONDS)) != null)
+                    assetsChanged(more);
+            } catch (InterruptedException e) {
+                return;
+            }
+            Log.info(() -> "AssetIndex: asset folders changed, rebuilding index");
+            try {
+                registerAll(ws); // pick up new folders
+            } catch (IOException e) {
+                Log.warn(() -> "AssetIndex: can't watch new folders: " + e.getMessage());
+            }
+            AssetStore.forgetLooseFiles();
+            SpriteCache.clear();
+            BackgroundLoader.clear();
+            PcmCache.clear();
+            SceneScript.clear();
+            build();
+        }
+    }
+}
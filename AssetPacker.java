@@ -0,0 +1,123 @@
+package silentconvent;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * AssetPacker is a build step that packs every PNG, WAV and scene script under
+ * the assets folder into one indexed archive, which AssetStore memory-maps at runtime.
+ *
+ * Usage (from the game's working directory, see build.bat):
+ * java -cp classes silentconvent.AssetPacker [assetsDir] [output.pak]
+ *
+ * Archive layout (big-endian):
+ * - int magic ("SCPK"), int version, int entry count
+ * - index: per entry a short name length, the UTF-8 name, a long absolute data
+ * offset and an int data length
+ * - the data of every entry, back to back
+ *
+ * Entry names are paths relative to the working directory with '/' separators
+ * (e.g. "assets/images/bg_chapel.PNG"), the same names the game requests.
+ */
+public class AssetPacker {
+
+    /**
+     * Pack the assets folder.
+     *
+     * @param args Optional assets folder (default "assets") and output file
+     *             (default AssetStore.DEFAULT_ARCHIVE)
+     */
+    public static void main(String[] args) {
+        String dir = args.length > 0 ? args[0] : "assets";
+        String out = args.length > 1 ? args[1] : AssetStore.DEFAULT_ARCHIVE;
+        try {
+            int count = pack(new File(dir), new File(out));
+            System.out.println("AssetPacker: packed " + count + " assets into " + out);
+        } catch (IOException e) {
+            System.out.println("AssetPacker: failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Write an archive containing every image and audio file under a folder.
+     *
+     * @param dir Folder to pack (its path becomes the prefix of every entry name)
+     * @param out Archive file to write (replaced if it exists)
+     * @return Number of assets packed
+     * @throws IOException If a file can't be read or the archive can't be written
+     */
+    public static int pack(File dir, File out) throws IOException {
+        if (!dir.isDirectory())
+            throw new IOException("no assets folder at " + dir.getAbsolutePath());
+        List<File> files = new ArrayList<>();
+        collect(dir, files);
+        String prefix = dir.getPath().replace('\\', '/');
+        List<String> names = new ArrayList<>();
+        for (File f : files) {
+            String rel = dir.toPath().relativize(f.toPath()).toString().replace('\\', '/');
+            names.add(prefix.isEmpty() || prefix.equals(".") ? rel : prefix + "/" + rel);
+        }
+
+        // The index comes first, so its size fixes where the data starts
+        long offset = 12;
+        List<byte[]> encoded = new ArrayList<>();
+        for (String n : names) {
+            byte[] b = n.getBytes(StandardCharsets.UTF_8);
+            if (b.length > 0xffff)
+                throw new IOException("asset name too long: " + n);
+            encoded.add(b);
+            offset += 2 + b.length + 8 + 4;
+        }
+
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(out)))) {
+            dos.writeInt(AssetStore.MAGIC);
+            dos.writeInt(AssetStore.VERSION);
+            dos.writeInt(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                long len = files.get(i).length();
+                if (len > Integer.MAX_VALUE)
+                    throw new IOException("asset too large: " + names.get(i));
+                dos.writeShort(encoded.get(i).length);
+                dos.write(encoded.get(i));
+                dos.writeLong(offset);
+                dos.writeInt((int) len);
+                offset += len;
+            }
+            for (File f : files)
+                dos.write(Files.readAllBytes(f.toPath()));
+        }
+        return files.size();
+    }
+
+    /** Add every packable file under a folder, in a stable (sorted) order. */
+    private static void collect(File dir, List<File> into) {
+        File[] children = dir.listFiles();
+        if (children == null)
+            return;
+        List<File> sorted = new ArrayList<>();
+        Collections.addAll(sorted, children);
+        Collections.sort(sorted);
+        for (File f : sorted) {
+            if (f.isDirectory())
+                collect(f, into);
+            else if (isPackable(f.getName()))
+                into.add(f);
+        }
+    }
+
+    /** @return True for the image, audio and script types the game loads */
+    private static boolean isPackable(String name) {
+        String n = name.toLowerCase();
+        return n.endsWith(".png") || n.endsWith(".jpg") || n.endsWith(".jpeg") || n.endsWith(".wav")
+                || n.endsWith(SceneScript.EXTENSION);
+    }
+}
@@ -0,0 +1,135 @@
+package silentconvent;
+
+import java.awt.Dimension;
+import java.awt.GraphicsConfiguration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * AssetPrefetcher loads the next scene's assets while a transition is still
+ * fading to black.
+ *
+ * Scenes declare what they use (see Scene.getBackgrounds(), getPortraits() and
+ * getAudioTracks()). SceneManager calls prefetch() as soon as a transition
+ * begins, so by the time the scene starts most decoding has already happened:
+ * - Backgrounds are decoded and scaled by BackgroundLoader
+ * - Portraits are built (lit and dimmed, both sides) in SpriteCache
+ * - Audio is preloaded by AudioPlayer.preload()
+ *
+ * It also keeps a simple metric: every time a prefetched asset is actually
+ * used, it records whether the prefetch had already finished ("ready") or was
+ * still running ("late").
+ */
+public class AssetPrefetcher {
+
+    /** Single daemon thread that resolves files and builds sprites/audio */
+    private static final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "asset-prefetch");
+        t.setDaemon(true);
+        t.setPriority(Thread.NORM_PRIORITY - 1);
+        return t;
+    });
+
+    /** Prefetches that have been started but not yet used, keyed by asset */
+    private static final Map<String, CompletableFuture<?>> prefetched = new ConcurrentHashMap<>();
+
+    /** Number of uses where the prefetch had already finished */
+    private static int readyCount = 0;
+
+    /** Number of uses where the prefetch was still running */
+    private static int lateCount = 0;
+
+    /**
+     * Start loading everything a scene declares in the background.
+     * Must be called on the Event Dispatch Thread (it reads frame sizes).
+     *
+     * @param scene The scene that is about to be shown
+     */
+    public static void prefetch(Scene scene) {
+        if (scene == null)
+            return;
+        // Anything from an earlier prefetch that was never used is no longer relevant
+        prefetched.clear();
+
+        GameFrame frame = GameFrame.getInstance();
+        Dimension spriteSize = frame != null ? frame.getSpriteSlotSize() : new Dimension();
+        Dimension bgSize = frame != null ? frame.getBackgroundSize() : new Dimension();
+        GraphicsConfiguration gc = frame != null ? frame.getGraphicsConfiguration() : null;
+
+        for (String bg : scene.getBackgrounds()) {
+            prefetched.put("bg:" + bg, CompletableFuture
+                    .supplyAsync(() -> GameFrame.findBackgroundAsset(bg), worker)
+                    .thenCompose(asset -> asset == null ? CompletableFuture.completedFuture(null)
+                            : BackgroundLoader.load(asset, bgSize.width, bgSize.height, gc)));
+        }
+
+        for (String name : scene.getPortraits()) {
+            prefetchSprite(name + ".png", spriteSize);
+            prefetchSprite(name + "_Left.png", spriteSize);
+        }
+
+        for (String track : scene.getAudioTracks()) {
+            prefetched.put("audio:" + track, CompletableFuture.runAsync(() -> AudioPlayer.preload(track), worker));
+        }
+    }
+
+    /**
+     * Build the lit and dimmed versions of one sprite file in SpriteCache.
+     */
+    private static void prefetchSprite(String filename, Dimension size) {
+        prefetched.put("sprite:" + filename, CompletableFuture.runAsync(() -> {
+            String asset = GameFrame.findSpriteAsset(filename);
+            if (asset == null)
+                return;
+            try {
+                SpriteCache.load(asset, size.width, size.height, false);
+                SpriteCache.load(asset, size.width, size.height, true);
+            } catch (java.io.IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+        }, worker));
+    }
+
+    /**
+     * Record that an asset is being used right now.
+     * Called by GameFrame and AudioPlayer when they load an asset. If the asset
+     * was prefetched, counts whether that prefetch finished in time.
+     *
+     * @param key Asset key: "bg:", "sprite:" or "audio:" plus the name exactly as
+     *            the scene requests it
+     */
+    public static void noteUse(String key) {
+        CompletableFuture<?> f = prefetched.remove(key);
+        if (f == null)
+            return;
+        synchronized (AssetPrefetcher.class) {
+            if (f.isDone())
+                readyCount++;
+            else
+                lateCount++;
+        }
+    }
+
+    /** @return Number of prefetched assets that were ready when first used */
+    public static synchronized int getReadyCount() {
+        return readyCount;
+    }
+
+    /** @return Number of prefetched assets that were still loading when first used */
+    public static synchronized int getLateCount() {
+        return lateCount;
+    }
+
+    /**
+     * Fraction of used prefetches that finished before they were needed.
+     *
+     * @return Ratio between 0.0 and 1.0 (1.0 if nothing has been measured yet)
+     */
+    public static synchronized double getReadyRatio() {
+        int total = readyCount + lateCount;
+        return total == 0 ? 1.0 : (double) readyCount / total;
+    }
+}
@@ -0,0 +1,327 @@
+package silentconvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AssetStore serves image and audio bytes to the decoders.
+ *
+ * Key features:
+ * - Reads the packed archive written by AssetPacker (assets.pak) with a single
+ * file open and a single FileChannel.map() at startup
+ * - Names are resolved through an in-memory index, so checking whether an asset
+ * exists never touches the file system
+ * - Assets are handed out as read-only ByteBuffer slices of the mapping (no
+ * copying); openStream() wraps a slice for ImageIO and AudioSystem
+ * - Without an archive (e.g. running from the source tree) loose files are used
+ * instead, each mapped on first use
+ *
+ * Asset names are relative paths with '/' separators, exactly as the game
+ * requests them (e.g. "assets/images/bg_chapel.PNG").
+ *
+ * All methods are thread-safe.
+ */
+public class AssetStore {
+
+    /** Archive opened by default, relative to the working directory */
+    public static final String DEFAULT_ARCHIVE = "assets.pak";
+
+    /** First bytes of an archive ("SCPK") */
+    static final int MAGIC = 0x5343504B;
+
+    /** Archive format version written by AssetPacker */
+    static final int VERSION = 1;
+
+    /** The whole archive mapped into memory, or null when using loose files */
+    private static ByteBuffer archive;
+
+    /** Archive index: asset name → {offset, length} */
+    private static Map<String, long[]> index;
+
+    /** Loose files mapped so far (only used without an archive) */
+    private static final Map<String, ByteBuffer> looseFiles = new ConcurrentHashMap<>();
+
+    /** Set once open() has run (explicitly or on first use) */
+    private static boolean opened = false;
+
+    /** Written by touch() so the page reads can't be optimised away */
+    @SuppressWarnings("unused")
+    private static volatile int touchSink;
+
+    /**
+     * Open an asset archive. Called once at startup; if it isn't, the default
+     * archive is opened on first use.
+     * If the archive doesn't exist, loose files are used.
+     *
+     * @param archivePath Path to the .pak file
+     */
+    public static synchronized void open(String archivePath) {
+        opened = true;
+        archive = null;
+        index = null;
+        looseFiles.clear();
+        File f = new File(archivePath);
+        if (!f.isFile()) {
+            Log.info(() -> "AssetStore: no archive at " + f.getAbsolutePath() + ", using loose files");
+            return;
+        }
+        try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            index = readIndex(buf);
+            archive = buf;
+            Log.info(() -> "AssetStore: mapped " + index.size() + " assets from " + f.getName()
+                    + " (" + (buf.capacity() / 1024) + " KB)");
+        } catch (IOException e) {
+            index = null;
+            Log.warn(() -> "AssetStore: failed to open " + archivePath + ": " + e.getMessage()
+                    + ", using loose files");
+        }
+    }
+
+    /**
+     * Parse the archive header and index.
+     * Layout: magic, version, entry count, then per entry the UTF-8 name (short
+     * length + bytes), absolute data offset (long) and length (int).
+     */
+    private static Map<String, long[]> readIndex(ByteBuffer buf) throws IOException {
+        ByteBuffer in = buf.duplicate();
+        if (in.remaining() < 12 || in.getInt() != MAGIC)
+            throw new IOException("not an asset archive");
+        int version = in.getInt();
+        if (version != VERSION)
+            throw new IOException("unsupported archive version " + version);
+        int count = in.getInt();
+        Map<String, long[]> map = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[in.getShort() & 0xffff];
+            in.get(name);
+            long offset = in.getLong();
+            long length = in.getInt() & 0xffffffffL;
+            if (offset < 0 || offset + length > buf.capacity())
+                throw new IOException("corrupt index entry " + i);
+            map.put(new String(name, StandardCharsets.UTF_8), new long[] { offset, length });
+        }
+        return map;
+    }
+
+    /** Open the default archive if nobody opened one yet. */
+    private static synchronized void ensureOpen() {
+        if (!opened)
+            open(DEFAULT_ARCHIVE);
+    }
+
+    /**
+     * Turn a requested path into an asset name: '/' separators, relative to the
+     * working directory (older saves stored absolute paths).
+     */
+    static String normalize(String path) {
+        String name = path.replace('\\', '/');
+        if (new File(path).isAbsolute()) {
+            String cwd = Paths.get("").toAbsolutePath().toString().replace('\\', '/') + "/";
+            if (name.startsWith(cwd))
+                name = name.substring(cwd.length());
+        }
+        while (name.startsWith("./"))
+            name = name.substring(2);
+        return name;
+    }
+
+    /** @return True if assets come from a packed archive */
+    public static synchronized boolean isPacked() {
+        ensureOpen();
+        return index != null;
+    }
+
+    /**
+     * Check whether an asset exists.
+     * With an archive this is an index lookup only.
+     *
+     * @param path Asset name
+     * @return True if the asset can be read
+     */
+    public static boolean exists(String path) {
+        if (path == null)
+            return false;
+        String name = normalize(path);
+        synchronized (AssetStore.class) {
+            ensureOpen();
+            if (index != null)
+                return index.containsKey(name);
+        }
+        return looseFiles.containsKey(name) || new File(name).isFile();
+    }
+
+    /**
+     * List every asset in the archive (used by AssetIndex).
+     *
+     * @return Sorted asset names, or an empty list without an archive
+     */
+    public static synchronized java.util.List<String> names() {
+        ensureOpen();
+        if (index == null)
+            return new java.util.ArrayList<>();
+        java.util.List<String> names = new java.util.ArrayList<>(index.keySet());
+        java.util.Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * Drop the mappings of loose files so changed files are read again.
+     * Called by AssetIndex when an asset folder changes.
+     */
+    static void forgetLooseFiles() {
+        looseFiles.clear();
+    }
+
+    /**
+     * Get an asset's size in bytes.
+     *
+     * @param path Asset name
+     * @return Size in bytes, or -1 if the asset doesn't exist
+     */
+    public static long size(String path) {
+        try {
+            ByteBuffer b = get(path);
+            return b == null ? -1 : b.remaining();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Get an asset's bytes as a read-only buffer.
+     * The buffer is a view of the mapped archive (or mapped loose file); each call
+     * returns an independent slice, so callers may move its position freely.
+     *
+     * @param path Asset name
+     * @return The asset's bytes, or null if it doesn't exist
+     * @throws IOException If a loose file exists but can't be mapped
+     */
+    public static ByteBuffer get(String path) throws IOException {
+        if (path == null)
+            return null;
+        String name = normalize(path);
+        synchronized (AssetStore.class) {
+            ensureOpen();
+            if (index != null) {
+                long[] e = index.get(name);
+                if (e == null)
+                    return null;
+                ByteBuffer b = archive.duplicate();
+                b.position((int) e[0]).limit((int) (e[0] + e[1]));
+                return b.slice().asReadOnlyBuffer();
+            }
+        }
+        ByteBuffer loose = looseFiles.get(name);
+        if (loose == null) {
+            Path p = Paths.get(name);
+            if (!p.toFile().isFile())
+                return null;
+            try (FileChannel ch = FileChannel.open(p, StandardOpenOption.READ)) {
+                loose = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            }
+            looseFiles.putIfAbsent(name, loose);
+        }
+        return loose.duplicate().asReadOnlyBuffer();
+    }
+
+    /**
+     * Open an asset as a stream (for ImageIO and AudioSystem).
+     * The stream supports mark/reset, which AudioSystem needs to detect formats.
+     *
+     * @param path Asset name
+     * @return A stream over the asset's bytes
+     * @throws IOException If the asset doesn't exist or can't be read
+     */
+    public static InputStream openStream(String path) throws IOException {
+        ByteBuffer b = get(path);
+        if (b == null)
+            throw new java.io.FileNotFoundException("Asset not found: " + path);
+        return new BufferStream(b);
+    }
+
+    /**
+     * Touch every page of an asset so it is in memory before it is needed.
+     *
+     * @param path Asset name
+     */
+    public static void touch(String path) {
+        try {
+            ByteBuffer b = get(path);
+            if (b == null)
+                return;
+            int sum = 0;
+            for (int i = 0; i < b.limit(); i += 4096)
+                sum += b.get(i);
+            touchSink = sum; // keeps the reads from being optimised away
+        } catch (IOException e) {
+            Log.warn(() -> "AssetStore: failed to touch " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * InputStream over a ByteBuffer, with mark/reset.
+     */
+    private static final class BufferStream extends InputStream {
+        private final ByteBuffer buf;
+
+        BufferStream(ByteBuffer buf) {
+            this.buf = buf;
+            buf.mark(); // reset() without mark() goes back to the start
+        }
+
+        @Override
+        public int read() {
+            return buf.hasRemaining() ? buf.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0)
+                return 0;
+            if (!buf.hasRemaining())
+                return -1;
+            int n = Math.min(len, buf.remaining());
+            buf.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int k = (int) Math.max(0, Math.min(n, buf.remaining()));
+            buf.position(buf.position() + k);
+            return k;
+        }
+
+        @Override
+        public int available() {
+            return buf.remaining();
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int readLimit) {
+            buf.mark();
+        }
+
+        @Override
+        public synchronized void reset() {
+            buf.reset();
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package silentconvent;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.DataLine;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * AudioMixer mixes every sound in the game into a single output line.
+ *
+ * Key features:
+ * - One SourceDataLine and one audio thread for all sounds (opening a hardware
+ * line per sound is slow and fails on some Linux ALSA setups)
+ * - Named buses (music, ambience, sfx, ui) so music, ambience and effects can
+ * play at the same time
+ * - Each bus has its own gain and voice limit; when a bus is full its oldest
+ * voice is stopped
+ * - A master gain applied after the buses are summed
+ * - Voice and master gain changes are ramped per sample on the mixer thread
+ * (see GainEnvelope), so fades and crossfades are smooth
+ *
+ * Sounds are added as MixerVoice objects (see StreamingTrack). AudioPlayer is
+ * the usual entry point; this class only does the mixing.
+ */
+public class AudioMixer {
+
+    /**
+     * Named groups of voices that share a gain and a voice limit.
+     */
+    public enum Bus {
+        /** Background music */
+        MUSIC(2),
+        /** Looping room tone / ambience */
+        AMBIENCE(2),
+        /** Story sound effects (glitches etc.) */
+        SFX(8),
+        /** Interface clicks and feedback */
+        UI(4);
+
+        /** Voice limit used until setVoiceLimit() changes it */
+        private final int defaultVoiceLimit;
+
+        Bus(int defaultVoiceLimit) {
+            this.defaultVoiceLimit = defaultVoiceLimit;
+        }
+    }
+
+    /** Format of the output line; every voice is converted to this */
+    public static final AudioFormat FORMAT = new AudioFormat(44100f, 16, 2, true, false);
+
+    /** Frames mixed per period (10 ms) */
+    private static final int PERIOD_FRAMES = 441;
+
+    /** Size of the output line's buffer in periods (~60 ms of latency) */
+    private static final int LINE_BUFFER_PERIODS = 6;
+
+    /** Active voices per bus (the mixer thread iterates, other threads add/remove) */
+    private static final EnumMap<Bus, List<MixerVoice>> voices = new EnumMap<>(Bus.class);
+
+    /** Linear gain per bus (0.0 - 1.0) as float bits, set by any thread and read by the mixer thread */
+    private static final AtomicIntegerArray busGain = new AtomicIntegerArray(Bus.values().length);
+
+    /** Maximum number of voices per bus */
+    private static final int[] voiceLimit = new int[Bus.values().length];
+
+    static {
+        for (Bus b : Bus.values()) {
+            voices.put(b, new CopyOnWriteArrayList<>());
+            busGain.set(b.ordinal(), Float.floatToIntBits(1.0f));
+            voiceLimit[b.ordinal()] = b.defaultVoiceLimit;
+        }
+    }
+
+    /** Gain applied to the final mix, with any master fade in progress */
+    private static final GainEnvelope masterGain = new GainEnvelope(1.0f);
+
+    /** Length of the ramp used by setMasterGain() so volume changes don't click */
+    private static final int DECLICK_MS = 10;
+
+    /** The output line (opened lazily by the first play) */
+    private static SourceDataLine line;
+
+    /** The audio thread */
+    private static Thread thread;
+
+    /** Set if no output line could be opened, so we don't retry on every sound */
+    private static boolean unavailable = false;
+
+    /**
+     * Start playing a voice on a bus.
+     * If the bus is already at its voice limit, its oldest voices are stopped.
+     * Stopped voices stay in the bus until the mixer thread removes and closes
+     * them, since it may be reading from them right now.
+     *
+     * @param bus   The bus to play on
+     * @param voice The voice to play
+     * @return True if the voice was added, false if no audio output is available
+     */
+    public static synchronized boolean play(Bus bus, MixerVoice voice) {
+        if (!ensureRunning()) {
+            voice.close();
+            return false;
+        }
+        List<MixerVoice> list = voices.get(bus);
+        // Stop the oldest voices until there is room for the new one
+        int live = 0;
+        for (MixerVoice v : list)
+            if (!v.isFinished())
+                live++;
+        int limit = Math.max(1, voiceLimit[bus.ordinal()]);
+        for (MixerVoice v : list) {
+            if (live < limit)
+                break;
+            if (!v.isFinished()) {
+                v.stop();
+                live--;
+            }
+        }
+        list.add(voice);
+        AudioMixer.class.notifyAll(); // wake the audio thread if it was idle
+        return true;
+    }
+
+    /**
+     * Stop every voice on a bus.
+     *
+     * @param bus The bus to silence
+     */
+    public static void stopBus(Bus bus) {
+        for (MixerVoice v : voices.get(bus))
+            v.stop();
+    }
+
+    /**
+     * Set a bus's gain.
+     *
+     * @param bus    The bus
+     * @param linear Gain (0.0 = silent, 1.0 = full volume)
+     */
+    public static void setBusGain(Bus bus, float linear) {
+        busGain.set(bus.ordinal(), Float.floatToIntBits(Math.max(0f, Math.min(1f, linear))));
+    }
+
+    /** @return The bus's linear gain (0.0 - 1.0) */
+    public static float getBusGain(Bus bus) {
+        return Float.intBitsToFloat(busGain.get(bus.ordinal()));
+    }
+
+    /**
+     * Set how many voices a bus may play at once.
+     *
+     * @param bus   The bus
+     * @param limit Maximum number of voices (at least 1)
+     */
+    public static synchronized void setVoiceLimit(Bus bus, int limit) {
+        voiceLimit[bus.ordinal()] = Math.max(1, limit);
+    }
+
+    /**
+     * Set the gain applied to the final mix.
+     * The change is smoothed over a few milliseconds so it doesn't click.
+     *
+     * @param linear Gain (0.0 = silent, 1.0 = full volume)
+     */
+    public static void setMasterGain(float linear) {
+        masterGain.rampTo(linear, msToFrames(DECLICK_MS), false);
+    }
+
+    /**
+     * Fade the final mix to a new gain.
+     * A new call replaces a fade that is still running, starting from wherever
+     * that fade had got to.
+     *
+     * @param linear Target gain (0.0 - 1.0)
+     * @param ms     Fade length in milliseconds
+     */
+    public static void fadeMasterTo(float linear, int ms) {
+        masterGain.rampTo(linear, msToFrames(ms), false);
+    }
+
+    /** @return The master gain, or the gain a running fade is heading for */
+    public static float getMasterGain() {
+        return masterGain.getTarget();
+    }
+
+    /**
+     * Convert a duration to a number of output frames.
+     *
+     * @param ms Duration in milliseconds
+     * @return Number of frames at the output sample rate (never negative)
+     */
+    static int msToFrames(int ms) {
+        return (int) Math.max(0L, (long) ms * (long) FORMAT.getSampleRate() / 1000L);
+    }
+
+    /**
+     * Open the output line and start the audio thread if that hasn't happened yet.
+     *
+     * @return True if audio output is available
+     */
+    private static boolean ensureRunning() {
+        if (thread != null)
+            return true;
+        if (unavailable)
+            return false;
+        try {
+            line = (SourceDataLine) AudioSystem.getLine(new DataLine.Info(SourceDataLine.class, FORMAT));
+            line.open(FORMAT, PERIOD_FRAMES * FORMAT.getFrameSize() * LINE_BUFFER_PERIODS);
+            line.start();
+        } catch (Exception e) {
+            unavailable = true;
+            Log.warn(() -> "AudioMixer: no audio output available: " + e.getMessage());
+            return false;
+        }
+        thread = new Thread(AudioMixer::run, "audio-mixer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+        return true;
+    }
+
+    /**
+     * Audio thread: mix one period from every voice and write it to the line.
+     * line.write() blocks while the line's buffer is full, which paces the loop.
+     * Voice and master gains are stepped once per frame.
+     */
+    private static void run() {
+        int samples = PERIOD_FRAMES * FORMAT.getChannels();
+        float[] mix = new float[samples];
+        float[] tmp = new float[samples];
+        byte[] out = new byte[PERIOD_FRAMES * FORMAT.getFrameSize()];
+        while (true) {
+            try {
+                waitForVoices();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            java.util.Arrays.fill(mix, 0f);
+            for (Bus bus : Bus.values()) {
+                float bg = Float.intBitsToFloat(busGain.get(bus.ordinal()));
+                List<MixerVoice> list = voices.get(bus);
+                for (MixerVoice v : list) {
+                    int produced = 0;
+                    if (!v.isFinished()) {
+                        try {
+                            produced = v.read(tmp, PERIOD_FRAMES);
+                        } catch (Exception e) {
+                            Log.warn(() -> "AudioMixer: voice failed: " + e.getMessage());
+                        }
+                    }
+                    GainEnvelope env = v.envelope();
+                    env.beginPeriod();
+                    for (int f = 0, i = 0; f < produced; f++, i += 2) {
+                        float g = env.next() * bg;
+                        mix[i] += tmp[i] * g;
+                        mix[i + 1] += tmp[i + 1] * g;
+                    }
+                    if (produced < PERIOD_FRAMES || v.isFinished()) {
+                        v.markFinished();
+                        list.remove(v);
+                        v.close();
+                    }
+                }
+            }
+
+            masterGain.beginPeriod();
+            for (int i = 0, b = 0; i < samples; i += 2, b += 4) {
+                float master = masterGain.next();
+                writeSample(out, b, mix[i] * master);
+                writeSample(out, b + 2, mix[i + 1] * master);
+            }
+            line.write(out, 0, out.length);
+        }
+    }
+
+    /** Clamp a sample to -1.0..1.0 and store it as 16-bit little-endian. */
+    private static void writeSample(byte[] out, int b, float f) {
+        if (f > 1f)
+            f = 1f;
+        else if (f < -1f)
+            f = -1f;
+        int s = (int) (f * 32767f);
+        out[b] = (byte) s;
+        out[b + 1] = (byte) (s >> 8);
+    }
+
+    /** Block the audio thread while no bus has any voices. */
+    private static synchronized void waitForVoices() throws InterruptedException {
+        while (isIdle())
+            AudioMixer.class.wait();
+    }
+
+    /** @return True if no bus has any voices */
+    private static boolean isIdle() {
+        for (List<MixerVoice> list : voices.values())
+            if (!list.isEmpty())
+                return false;
+        return true;
+    }
+
+    /**
+     * Convert 16-bit little-endian signed samples to floats (-1.0 to 1.0).
+     *
+     * @param in    Raw bytes in FORMAT
+     * @param out   Destination buffer
+     * @param count Number of samples (not frames) to convert
+     */
+    static void toFloats(byte[] in, float[] out, int count) {
+        for (int i = 0, b = 0; i < count; i++, b += 2)
+            out[i] = (short) ((in[b] & 0xff) | (in[b + 1] << 8)) / 32768f;
+    }
+}
@@ -2,31 +2,44 @@ package silentconvent;
 
 import java.io.File;
 
-import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
-import javax.sound.sampled.FloatControl;
 
 /**
  * AudioPlayer handles all sound and music playback in the game.
  * It manages:
- * - Playing background music (looped)
- * - Playing sound effects (One timed)
- * - Master volume control
+ * - Playing background music and ambience (looped, one "current track")
+ * - Playing sound effects and UI sounds (one-shot, on top of the track)
+ * - Master volume control, with timed fades (fadeTo)
  * - Per-track volume multipliers (for relative loudness)
- * - Preventing audio interruptions (reuses clips if same track is playing)
+ * - Crossfading from one track to another (crossfadeTo)
+ * - Preventing audio interruptions (reuses the track if it is already playing)
  * 
- * Volume is linear (0.0 - 1.0),and convertedtoDecibels
+ * All sounds are mixed by AudioMixer into a single output line, so an effect
+ * no longer interrupts the music. Each sound plays on a bus chosen from its
+ * file name (see busFor). Names are resolved through AssetIndex and audio is
+ * read through AssetStore: tracks are streamed from the mapped asset; short
+ * effects are decoded once and then replayed from PcmCache.
+ * 
+ * Volume is linear (0.0 - 1.0). Every volume change is ramped per sample on
+ * the mixer thread (AudioMixer for the master gain, each voice such as a
+ * StreamingTrack for its own), so fades can be timed to match
+ * GameCanvas.fadeIn/fadeOut.
  */
 public class AudioPlayer {
 
-    /** The currently playing audio clip */
-    private static Clip clip;
+    /** The voice playing the current track (music or ambience) */
+    private static MixerVoice trackVoice;
+
+    /** Fade used when a track is stopped or replaced without a crossfade */
+    private static final int STOP_FADE_MS = 15;
+
+    /** One-shot effects up to this size are decoded into PcmCache */
+    private static final long MAX_CACHED_EFFECT_BYTES = 1024 * 1024;
 
     /** Path of the currently playing audio file */
     private static String currentPath = null;
 
-    /** Whether the current clip should loop continuously */
+    /** Whether the current track should loop continuously */
     private static boolean currentLoop = false;
 
     /** Local multiplier applied to current track (0.0 - 1.0) */
@@ -52,141 +65,66 @@ public class AudioPlayer {
         if (linear > 1f)
             linear = 1f;
         masterVolume = linear;
-        System.out.println("AudioPlayer: volume set to " + (int) (linear * 100) + "%");
+        Log.debug(() -> "AudioPlayer: volume set to " + (int) (masterVolume * 100) + "%");
 
-        // Apply the new volume to the currently playing clip (if one exists)
-        applyVolumeToClip(clip);
+        // The mixer applies master volume to everything that is playing
+        AudioMixer.setMasterGain(masterVolume);
     }
 
     /**
-     * Get the current master volume.
+     * Fade the master volume to a new level.
+     * The fade runs on the mixer thread, sample by sample, so it lines up with a
+     * screen fade of the same length.
      * 
-     * @return Volume level (0.0 - 1.0)
+     * @param linear Target volume (0.0 = silent, 1.0 = full volume)
+     * @param ms     Fade length in milliseconds
      */
-    public static float getVolume() {
-        return masterVolume;
+    public static void fadeTo(float linear, int ms) {
+        masterVolume = Math.max(0f, Math.min(1f, linear));
+        AudioMixer.fadeMasterTo(masterVolume, ms);
     }
 
     /**
-     * Apply the master volume to the given audio clip.
-     * Converts linear volume (0.0-1.0) to decibels for Java's audio system.
+     * Get the current master volume.
      * 
-     * @param c The audio clip to adjust (if null, does nothing)
+     * @return Volume level (0.0 - 1.0)
      */
-    private static void applyVolumeToClip(Clip c) {
-        if (c == null)
-            return;
-        try {
-            // Get the master gain (volume) control from the audio clip
-            FloatControl gainControl = (FloatControl) c.getControl(FloatControl.Type.MASTER_GAIN);
-
-            // Convert linear 0.0-1.0 to decibels using formula: dB = 20 * log10(volume)
-            // Use a minimum value of 0.0001 to avoid log(0) which would be -infinity
-            float dB = (float) (20.0 * Math.log10(masterVolume <= 0.0001 ? 0.0001 : masterVolume));
-
-            // Clamp to the control's min/max range
-            if (dB < gainControl.getMinimum())
-                dB = gainControl.getMinimum();
-            if (dB > gainControl.getMaximum())
-                dB = gainControl.getMaximum();
-
-            // Apply the calculated volume
-            gainControl.setValue(dB);
-        } catch (IllegalArgumentException iae) {
-            // Some audio systems don't support volume control - ignore silently
-            System.out.println("AudioPlayer: volume control not supported for this clip.");
-        } catch (Exception e) {
-            System.out.println("AudioPlayer: failed to apply volume: " + e.getMessage());
-        }
+    public static float getVolume() {
+        return masterVolume;
     }
 
     /**
-     * Apply a specific volume value to a clip (independent of master volume).
-     * Used for local multiplier calculations.
+     * Pick the mixer bus for a file.
+     * - Names containing "ambience" → AMBIENCE
+     * - Names starting with "ui_" → UI
+     * - Other looping audio → MUSIC
+     * - Other one-shot audio → SFX
      * 
-     * @param c      The audio clip to adjust
-     * @param linear Volume level (0.0 - 1.0)
+     * @param path Path to the audio file
+     * @param loop True if the sound loops
+     * @return The bus to play the sound on
      */
-    private static void applyVolumeToClipWithValue(Clip c, float linear) {
-        if (c == null)
-            return;
-        try {
-            FloatControl gainControl = (FloatControl) c.getControl(FloatControl.Type.MASTER_GAIN);
-            // Clamp to valid range
-            float v = Math.max(0.0001f, Math.min(1f, linear));
-            // Convert to decibels
-            float dB = (float) (20.0 * Math.log10(v));
-            // Clamp to control's range
-            if (dB < gainControl.getMinimum())
-                dB = gainControl.getMinimum();
-            if (dB > gainControl.getMaximum())
-                dB = gainControl.getMaximum();
-            gainControl.setValue(dB);
-        } catch (IllegalArgumentException iae) {
-            System.out.println("AudioPlayer: volume control not supported for this clip (value set)");
-        } catch (Exception e) {
-            System.out.println("AudioPlayer: failed to apply explicit volume: " + e.getMessage());
-        }
+    public static AudioMixer.Bus busFor(String path, boolean loop) {
+        String name = new File(path).getName().toLowerCase();
+        if (name.contains("ambience"))
+            return AudioMixer.Bus.AMBIENCE;
+        if (name.startsWith("ui_"))
+            return AudioMixer.Bus.UI;
+        return loop ? AudioMixer.Bus.MUSIC : AudioMixer.Bus.SFX;
     }
 
     /**
      * Play an audio file with optional looping.
      * Uses the master volume for playback.
      * 
-     * If the same audio is already playing, reuses the clip to avoid
+     * If the same audio is already playing, reuses the track to avoid
      * interruptions/gaps.
      * 
      * @param path Path to the audio file
      * @param loop True to loop continuously, false for one-shot
      */
     public static void play(String path, boolean loop) {
-        // If we're already playing the same path, avoid stopping and reopening the clip
-        // which can cause audible gaps or stuttering
-        if (path != null && path.equals(currentPath) && clip != null && clip.isRunning()) {
-            currentLoop = loop;
-            if (loop)
-                clip.loop(Clip.LOOP_CONTINUOUSLY);
-            applyVolumeToClip(clip);
-            System.out.println("AudioPlayer: already playing " + path + ", reusing clip.");
-            return;
-        }
-
-        // Save track info (used for save/load)
-        currentPath = path;
-        currentLoop = loop;
-        currentLocalMultiplier = 1.0f; // Default multiplier
-
-        // Stop any previous clip
-        stop();
-
-        try {
-            File audioFile = new File(path);
-            System.out.println("Attempting to play audio: " + audioFile.getAbsolutePath());
-
-            // Check if file exists
-            if (!audioFile.exists()) {
-                System.out.println("Audio file NOT FOUND: " + audioFile.getAbsolutePath());
-                return;
-            }
-
-            // Load the audio file
-            AudioInputStream audio = AudioSystem.getAudioInputStream(audioFile);
-            clip = AudioSystem.getClip();
-            clip.open(audio);
-
-            // Apply master volume before starting playback
-            applyVolumeToClip(clip);
-
-            // Start playback (looped or once)
-            if (loop)
-                clip.loop(Clip.LOOP_CONTINUOUSLY); // Loop forever
-            clip.start();
-            System.out.println(
-                    "Playing audio: " + audioFile.getName() + " at " + (int) (masterVolume * 100) + "% volume");
-        } catch (Exception e) {
-            System.out.println("Audio error: " + e.getMessage());
-            e.printStackTrace();
-        }
+        play(path, loop, 1.0f);
     }
 
     /**
@@ -206,79 +144,226 @@ public class AudioPlayer {
      *                        volume
      */
     public static void play(String path, boolean loop, float localMultiplier) {
-        // If we're already playing the same path, reuse the clip to avoid interruptions
-        if (path != null && path.equals(currentPath) && clip != null && clip.isRunning()) {
+        if (path == null)
+            return;
+        play(path, loop, localMultiplier, busFor(path, loop));
+    }
+
+    /**
+     * Play an audio file on a specific mixer bus.
+     * 
+     * Music and ambience replace the current track (the one saved with the
+     * game). Sound effects and UI sounds play on top of it and don't change it.
+     * 
+     * @param path            Path to the audio file
+     * @param loop            True to loop continuously, false for one-shot
+     * @param localMultiplier Local multiplier (0.0 - 1.0) applied on top of master
+     *                        volume
+     * @param bus             The mixer bus to play on
+     */
+    public static void play(String path, boolean loop, float localMultiplier, AudioMixer.Bus bus) {
+        start(path, loop, localMultiplier, bus, 0, 0);
+    }
+
+    /**
+     * Play a track from a position part way into it (used when a saved game is
+     * loaded, see getCurrentTrackFrame). The track always restarts at that
+     * position, even if it is already playing.
+     * 
+     * @param path            Path to the audio file
+     * @param loop            True to loop continuously, false for one-shot
+     * @param localMultiplier Local multiplier (0.0 - 1.0) applied on top of master
+     *                        volume
+     * @param startFrame      Frame to start at (as returned by
+     *                        getCurrentTrackFrame)
+     */
+    public static void playFrom(String path, boolean loop, float localMultiplier, long startFrame) {
+        if (path == null)
+            return;
+        AudioMixer.Bus bus = busFor(path, loop);
+        if (path.equals(currentPath))
+            releaseTrack(STOP_FADE_MS);
+        start(path, loop, localMultiplier, bus, 0, startFrame);
+    }
+
+    /**
+     * Crossfade from the current track to another looping track.
+     * The old track fades out while the new one fades in, both over the same
+     * time. Passing null just fades the current track out.
+     * 
+     * @param path Path to the new track, or null for silence
+     * @param ms   Crossfade length in milliseconds
+     */
+    public static void crossfadeTo(String path, int ms) {
+        crossfadeTo(path, ms, 1.0f);
+    }
+
+    /**
+     * Crossfade from the current track to another looping track at a given local
+     * volume.
+     * 
+     * @param path            Path to the new track, or null for silence
+     * @param ms              Crossfade length in milliseconds
+     * @param localMultiplier Local multiplier (0.0 - 1.0) the new track fades in
+     *                        to
+     */
+    public static void crossfadeTo(String path, int ms, float localMultiplier) {
+        if (path == null) {
+            releaseTrack(ms);
+            return;
+        }
+        start(path, true, localMultiplier, busFor(path, true), ms, 0);
+    }
+
+    /**
+     * Start a sound. Tracks replace the current track, fading it out over fadeMs
+     * while the new one fades in; with fadeMs 0 the swap only gets a short
+     * de-click fade. Streamed sounds start at startFrame.
+     */
+    private static void start(String path, boolean loop, float localMultiplier, AudioMixer.Bus bus,
+            int fadeMs, long startFrame) {
+        float local = Math.max(0f, Math.min(1f, localMultiplier));
+        boolean isTrack = bus == AudioMixer.Bus.MUSIC || bus == AudioMixer.Bus.AMBIENCE;
+
+        // If we're already playing the same track, just update its volume
+        if (isTrack && path.equals(currentPath) && trackVoice != null && !trackVoice.isFinished()) {
             currentLoop = loop;
-            currentLocalMultiplier = Math.max(0f, Math.min(1f, localMultiplier));
-            // Calculate effective volume: master * local
-            float effective = Math.max(0f, Math.min(1f, masterVolume * currentLocalMultiplier));
-            applyVolumeToClipWithValue(clip, effective);
-            if (loop)
-                clip.loop(Clip.LOOP_CONTINUOUSLY);
-            System.out.println("AudioPlayer: already playing " + path + ", reusing clip.");
+            currentLocalMultiplier = local;
+            trackVoice.rampTo(local, Math.max(fadeMs, STOP_FADE_MS));
+            Log.debug(() -> "AudioPlayer: already playing " + path + ", reusing track.");
             return;
         }
 
-        // Record current track info (used for save/load)
-        currentPath = path;
-        currentLoop = loop;
-        currentLocalMultiplier = Math.max(0f, Math.min(1f, localMultiplier));
+        // Resolve the name once; the asset name is also the PcmCache key
+        String asset = AssetIndex.find(path);
+
+        // Effects played before come straight from memory: no file I/O at all
+        if (!isTrack && !loop && asset != null) {
+            short[] pcm = PcmCache.get(asset);
+            if (pcm != null) {
+                AssetPrefetcher.noteUse("audio:" + path);
+                SampleVoice voice = new SampleVoice(pcm);
+                voice.setGain(local);
+                AudioMixer.play(bus, voice);
+                return;
+            }
+        }
 
-        // Stop any previous clip
-        stop();
+        if (isTrack) {
+            // Fade out the previous track (this also resets the track info)
+            releaseTrack(fadeMs);
+        }
 
         try {
-            File audioFile = new File(path);
-            System.out.println("Attempting to play audio (with local multiplier): " + audioFile.getAbsolutePath()
-                    + " multiplier=" + localMultiplier);
+            Log.debug(() -> "Attempting to play audio: " + path
+                    + " multiplier=" + localMultiplier + " bus=" + bus);
 
-            // Check if file exists
-            if (!audioFile.exists()) {
-                System.out.println("Audio file NOT FOUND: " + audioFile.getAbsolutePath());
+            // Check if the asset exists
+            long size = asset != null ? AssetStore.size(asset) : -1;
+            if (size < 0) {
+                Log.warn(() -> "Audio not found: " + path);
                 return;
             }
 
-            // Load the audio file
-            AudioInputStream audio = AudioSystem.getAudioInputStream(audioFile);
-            clip = AudioSystem.getClip();
-            clip.open(audio);
-
-            // Apply effective volume (master * localMultiplier)
-            float effective = Math.max(0f, Math.min(1f, masterVolume * currentLocalMultiplier));
-            applyVolumeToClipWithValue(clip, effective);
-
-            // Start playback (looped or once)
-            if (loop)
-                clip.loop(Clip.LOOP_CONTINUOUSLY);
-            clip.start();
-            System.out.println("Playing audio: " + audioFile.getName() + " at " + (int) (effective * 100)
-                    + "% effective volume (master " + (int) (masterVolume * 100) + "%)");
+            MixerVoice voice;
+            if (!isTrack && !loop && size <= MAX_CACHED_EFFECT_BYTES) {
+                // Short effect: decode it once so later plays skip decoding
+                AssetPrefetcher.noteUse("audio:" + path);
+                voice = new SampleVoice(PcmCache.load(asset));
+            } else {
+                voice = openVoice(path, asset, loop, startFrame);
+            }
+            if (fadeMs > 0)
+                voice.rampFromTo(0f, local, fadeMs);
+            else
+                voice.setGain(local);
+            if (isTrack) {
+                // Record current track info (used for save/load)
+                trackVoice = voice;
+                currentPath = path;
+                currentLoop = loop;
+                currentLocalMultiplier = local;
+            }
+            if (AudioMixer.play(bus, voice)) {
+                Log.debug(() -> "Playing audio: " + new File(path).getName() + " at "
+                        + (int) (masterVolume * local * 100) + "% effective volume (master "
+                        + (int) (masterVolume * 100) + "%)");
+            }
         } catch (Exception e) {
-            System.out.println("Audio error: " + e.getMessage());
-            e.printStackTrace();
+            Log.error(() -> "Audio error: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Stop the currently playing audio.
-     * Closes the audio clip and resets track information.
+     * Bring an audio asset into memory so the next play() of it doesn't wait on
+     * the disk. Short effects are decoded straight into PcmCache; for tracks the
+     * mapped pages are touched so the first reads don't fault.
+     * Safe to call from any thread (AssetPrefetcher calls it from a worker
+     * thread during scene transitions).
+     * 
+     * @param path Path to the audio file
      */
-    public static void stop() {
+    public static void preload(String path) {
+        if (path == null)
+            return;
         try {
-            if (clip != null && clip.isOpen()) {
-                clip.stop();
-                clip.close();
-            }
+            String asset = AssetIndex.find(path);
+            long size = asset != null ? AssetStore.size(asset) : -1;
+            if (size < 0)
+                return;
+            AudioMixer.Bus bus = busFor(path, false);
+            boolean effect = bus == AudioMixer.Bus.SFX || bus == AudioMixer.Bus.UI;
+            if (effect && size <= MAX_CACHED_EFFECT_BYTES)
+                PcmCache.load(asset);
+            else
+                AssetStore.touch(asset);
         } catch (Exception e) {
-            e.printStackTrace();
-        } finally {
-            // Reset track info
-            currentPath = null;
-            currentLoop = false;
-            currentLocalMultiplier = 1.0f;
+            Log.warn(() -> "AudioPlayer: failed to preload " + path + ": " + e.getMessage());
         }
     }
 
+    /**
+     * Open an audio asset as a streaming mixer voice without starting it.
+     * Every pass (including loops) reads a fresh view of the mapped asset.
+     * 
+     * @param path       Name the track was requested with
+     * @param asset      Asset name the request resolved to (see AssetIndex)
+     * @param loop       True if the track should loop
+     * @param startFrame Frame to start at (0 for the beginning)
+     * @return A voice ready to pass to AudioMixer.play()
+     */
+    private static MixerVoice openVoice(String path, String asset, boolean loop, long startFrame)
+            throws Exception {
+        AssetPrefetcher.noteUse("audio:" + path);
+        return new StreamingTrack(() -> AudioSystem.getAudioInputStream(AssetStore.openStream(asset)), loop,
+                startFrame);
+    }
+
+    /**
+     * Stop the current track (music or ambience) and reset track information.
+     * The track gets a very short fade so it doesn't click.
+     * Sound effects already playing are left to finish.
+     */
+    public static void stop() {
+        releaseTrack(STOP_FADE_MS);
+    }
+
+    /**
+     * Fade the current track out and forget it (it is no longer the track saved
+     * with the game).
+     * 
+     * @param ms Fade length in milliseconds (at least STOP_FADE_MS)
+     */
+    private static void releaseTrack(int ms) {
+        if (trackVoice != null)
+            trackVoice.fadeOutAndStop(Math.max(ms, STOP_FADE_MS));
+        trackVoice = null;
+        // Reset track info
+        currentPath = null;
+        currentLoop = false;
+        currentLocalMultiplier = 1.0f;
+    }
+
     /**
      * Get the path of the currently playing audio track.
      * Used for save/load functionality.
@@ -308,4 +393,16 @@ public class AudioPlayer {
     public static float getCurrentLocalMultiplier() {
         return currentLocalMultiplier;
     }
+
+    /**
+     * Get how far into its file the current track is.
+     * Used for save/load functionality (see playFrom).
+     * 
+     * @return Position in frames of the mixer's format, or 0 if nothing is
+     *         streaming
+     */
+    public static long getCurrentTrackFrame() {
+        MixerVoice voice = trackVoice;
+        return voice instanceof StreamingTrack ? ((StreamingTrack) voice).getFramePosition() : 0;
+    }
 }
@@ -0,0 +1,359 @@
+package silentconvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * AutosaveJournal keeps the game's progress on disk while it is played, so a
+ * crash or a killed process loses at most the last few milliseconds.
+ *
+ * Key features:
+ * - A checkpoint (a full snapshot, as in a save file) is written whenever a
+ * scene starts or a save is loaded; after it, every Next press and every
+ * change to the scene's own state (a choice answered) appends a record of a
+ * few bytes
+ * - Records name no scene: every scene change writes a checkpoint, so records
+ * always belong to the scene of the checkpoint before them
+ * - The game only hands records over; they are written on a daemon journal
+ * thread, so the EDT never waits on the disk
+ * - Group commit: records handed over within COMMIT_DELAY_MS of each other go
+ * out in one write with one sync
+ * - The file is preallocated, so appending never grows it and only needs a
+ * data sync (FileChannel.force(false))
+ * - When the spare space runs out, or after COMPACT_RECORDS records, the
+ * journal compacts itself: the records are folded into a new checkpoint and
+ * the file is rewritten crash-safe (SaveWriter.writeFile)
+ * - recover() replays the records onto the last checkpoint; a torn last record
+ * fails its CRC and is ignored
+ *
+ * File layout (big-endian): int magic "SCJL", short version, then records.
+ * Each record is a byte type, an int payload length, the payload and an int
+ * CRC32 of type, length and payload; type 0 marks the unused preallocated
+ * space. Record types:
+ * - CHECKPOINT: a save in SaveCodec's format (always the first record)
+ * - LINE: int index the scene is on
+ * - SCENE_STATE: the scene's state (Scene.saveState)
+ * - MEMORY_BROKEN: no payload
+ */
+public class AutosaveJournal {
+
+    /** Journal file name inside the saves folder */
+    static final String FILE_NAME = "autosave.journal";
+
+    /** First bytes of a journal ("SCJL") */
+    private static final int MAGIC = 0x53434A4C;
+
+    /** Journal format version */
+    private static final int VERSION = 1;
+
+    /** Size of the header: magic and version */
+    private static final int HEADER_SIZE = 6;
+
+    /** Bytes a record adds to its payload: type, length and CRC */
+    private static final int RECORD_OVERHEAD = 1 + 4 + 4;
+
+    // ===== RECORD TYPES (never reuse a number) =====
+    private static final byte TYPE_END = 0;
+    private static final byte TYPE_CHECKPOINT = 1;
+    private static final byte TYPE_LINE = 2;
+    private static final byte TYPE_SCENE_STATE = 3;
+    private static final byte TYPE_MEMORY_BROKEN = 4;
+
+    /** How long a record waits for others to share its write */
+    private static final long COMMIT_DELAY_MS = 10;
+
+    /** Space preallocated after the checkpoint for records */
+    private static final int SPARE_BYTES = 64 * 1024;
+
+    /** Records after which the journal is compacted */
+    private static final int COMPACT_RECORDS = 1024;
+
+    /** How long exit waits for records still queued */
+    private static final long EXIT_WAIT_MS = 1000;
+
+    /** The journal thread (daemon so it never keeps the JVM alive) */
+    private static final ScheduledExecutorService journal = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "autosave-journal");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // ===== HANDED OVER BY THE GAME (guarded by the class lock) =====
+
+    /** Checkpoint waiting to be written (replaces everything before it), or null */
+    private static SaveData pendingCheckpoint;
+
+    /** Journal file of the pending checkpoint */
+    private static File pendingFile;
+
+    /** Records waiting to be written */
+    private static final List<byte[]> pendingRecords = new ArrayList<>();
+
+    /** Set while a flush is scheduled on the journal thread */
+    private static boolean flushQueued = false;
+
+    // ===== JOURNAL THREAD ONLY =====
+
+    /** The open journal (null until the first checkpoint, or after an error) */
+    private static FileChannel channel;
+
+    /** The journal file */
+    private static File file;
+
+    /** Where the next record goes */
+    private static long writePos;
+
+    /** The state the journal describes (checkpoint with the records replayed) */
+    private static SaveData folded;
+
+    /** Records written since the last checkpoint */
+    private static int recordCount;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(AutosaveJournal::awaitFlush, "autosave-journal-exit"));
+    }
+
+    /**
+     * Start the journal over from a full snapshot (records not written yet are
+     * dropped: the snapshot already covers them).
+     *
+     * @param dir The saves folder
+     * @param sd  The snapshot (handed over: must not be changed afterwards)
+     */
+    public static synchronized void checkpoint(File dir, SaveData sd) {
+        pendingCheckpoint = sd;
+        pendingFile = new File(dir, FILE_NAME);
+        pendingRecords.clear();
+        scheduleFlush();
+    }
+
+    /**
+     * Record that the scene moved to a line.
+     *
+     * @param index The scene's index
+     */
+    public static void line(int index) {
+        append(record(TYPE_LINE, ByteBuffer.allocate(4).putInt(index).array()));
+    }
+
+    /**
+     * Record a change to the scene's own state (e.g. a choice was answered).
+     *
+     * @param state The scene's state (see Scene.saveState), or null
+     */
+    public static void sceneState(byte[] state) {
+        append(record(TYPE_SCENE_STATE, state != null ? state : new byte[0]));
+    }
+
+    /** Record that the memory broke (see SaveManager.breakMemory). */
+    public static void memoryBroken() {
+        append(record(TYPE_MEMORY_BROKEN, new byte[0]));
+    }
+
+    /**
+     * Read the journal and replay its records onto its checkpoint.
+     *
+     * @param dir The saves folder
+     * @return The state the journal ends in, or null if there is no usable
+     *         journal
+     */
+    public static SaveData recover(File dir) {
+        File f = new File(dir, FILE_NAME);
+        if (!f.exists())
+            return null;
+        try {
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(f.toPath()));
+            if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC)
+                throw new IOException("not an autosave journal");
+            int version = in.getShort() & 0xFFFF;
+            if (version != VERSION)
+                throw new IOException("unsupported journal version " + version);
+
+            SaveData sd = null;
+            while (in.remaining() >= RECORD_OVERHEAD) {
+                int start = in.position();
+                byte type = in.get();
+                if (type == TYPE_END)
+                    break;
+                int len = in.getInt();
+                if (len < 0 || len > in.remaining() - 4)
+                    break; // torn record
+                CRC32 crc = new CRC32();
+                crc.update(in.array(), start, 1 + 4 + len);
+                if (in.getInt(start + 1 + 4 + len) != (int) crc.getValue())
+                    break; // torn record
+                ByteBuffer payload = ByteBuffer.wrap(in.array(), start + 1 + 4, len).slice();
+                in.position(start + 1 + 4 + len + 4);
+                if (type == TYPE_CHECKPOINT)
+                    sd = SaveCodec.decode(payload);
+                else if (sd != null)
+                    apply(sd, type, payload);
+            }
+            return sd;
+        } catch (IOException | BufferUnderflowException e) {
+            Log.warn(() -> "Ignoring autosave journal: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** Hand a record to the journal thread. */
+    private static synchronized void append(byte[] record) {
+        pendingRecords.add(record);
+        scheduleFlush();
+    }
+
+    /** Write what was handed over shortly, together with anything that follows. */
+    private static void scheduleFlush() {
+        if (flushQueued)
+            return;
+        flushQueued = true;
+        journal.schedule(AutosaveJournal::flush, COMMIT_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /** Write everything handed over (runs on the journal thread). */
+    private static void flush() {
+        SaveData cp;
+        File target;
+        List<byte[]> records;
+        synchronized (AutosaveJournal.class) {
+            flushQueued = false;
+            cp = pendingCheckpoint;
+            target = pendingFile;
+            pendingCheckpoint = null;
+            records = new ArrayList<>(pendingRecords);
+            pendingRecords.clear();
+        }
+        try {
+            if (cp != null) {
+                rewrite(target, cp, records);
+                return;
+            }
+            if (channel == null || records.isEmpty())
+                return;
+
+            int bytes = 0;
+            for (byte[] r : records) {
+                apply(folded, r[0], ByteBuffer.wrap(r, 1 + 4, r.length - RECORD_OVERHEAD));
+                bytes += r.length;
+            }
+            if (writePos + bytes > channel.size() || recordCount + records.size() > COMPACT_RECORDS) {
+                // Compact: the folded state becomes the new checkpoint
+                rewrite(file, folded, new ArrayList<>());
+                return;
+            }
+            ByteBuffer buf = ByteBuffer.allocate(bytes);
+            for (byte[] r : records)
+                buf.put(r);
+            buf.flip();
+            while (buf.hasRemaining())
+                writePos += channel.write(buf, writePos);
+            channel.force(false);
+            recordCount += records.size();
+        } catch (IOException e) {
+            Log.warn(() -> "Autosave journal write failed: " + e.getMessage());
+            closeChannel(); // the next checkpoint starts a fresh journal
+        }
+    }
+
+    /**
+     * Replace the journal with a checkpoint followed by records, preallocated
+     * with spare space, and reopen it for appending.
+     */
+    private static void rewrite(File target, SaveData checkpoint, List<byte[]> records) throws IOException {
+        ByteBuffer snapshot = SaveCodec.encode(checkpoint);
+        byte[] cpRecord = record(TYPE_CHECKPOINT, snapshot.array());
+        int used = HEADER_SIZE + cpRecord.length;
+        for (byte[] r : records)
+            used += r.length;
+
+        ByteBuffer buf = ByteBuffer.allocate(used + SPARE_BYTES); // the spare space stays zero (TYPE_END)
+        buf.putInt(MAGIC);
+        buf.putShort((short) VERSION);
+        buf.put(cpRecord);
+        for (byte[] r : records)
+            buf.put(r);
+        buf.clear();
+
+        closeChannel();
+        File dir = target.getAbsoluteFile().getParentFile();
+        if (!dir.exists())
+            dir.mkdirs();
+        SaveWriter.writeFile(buf, target);
+        channel = FileChannel.open(target.toPath(), StandardOpenOption.WRITE);
+        file = target;
+        writePos = used;
+        recordCount = records.size();
+
+        folded = checkpoint;
+        for (byte[] r : records)
+            apply(folded, r[0], ByteBuffer.wrap(r, 1 + 4, r.length - RECORD_OVERHEAD));
+    }
+
+    /**
+     * Replay one record onto a snapshot.
+     * The screen around the line (background, fade, centered text) isn't
+     * journaled: the scene's own cues put the background back when it
+     * resumes, on a plain screen.
+     */
+    private static void apply(SaveData sd, byte type, ByteBuffer payload) {
+        switch (type) {
+            case TYPE_LINE:
+                sd.index = payload.getInt();
+                break;
+            case TYPE_SCENE_STATE:
+                sd.sceneState = new byte[payload.remaining()];
+                payload.get(sd.sceneState);
+                break;
+            case TYPE_MEMORY_BROKEN:
+                sd.memoryBroken = true;
+                break;
+            default:
+                // A record from a later version this one doesn't know; skip it
+                return;
+        }
+        sd.backgroundPath = null;
+        sd.fadeAlpha = 0f;
+        sd.centeredText = null;
+        sd.finalScript = null;
+    }
+
+    /** Encode a record: type, payload length, payload, CRC32. */
+    private static byte[] record(byte type, byte[] payload) {
+        ByteBuffer buf = ByteBuffer.allocate(RECORD_OVERHEAD + payload.length);
+        buf.put(type).putInt(payload.length).put(payload);
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 0, buf.position());
+        buf.putInt((int) crc.getValue());
+        return buf.array();
+    }
+
+    private static void closeChannel() {
+        if (channel == null)
+            return;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+        channel = null;
+    }
+
+    /** Write records still queued (bounded wait); used at exit. */
+    private static void awaitFlush() {
+        try {
+            journal.submit(AutosaveJournal::flush).get(EXIT_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            Log.warn(() -> "Autosave journal still being written at exit: " + e.getMessage());
+        }
+    }
+}
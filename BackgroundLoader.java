@@ -0,0 +1,167 @@
+package silentconvent;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+
+/**
+ * BackgroundLoader decodes and scales background images off the Event Dispatch
+ * Thread.
+ *
+ * Key features:
+ * - PNG decoding runs on a small pool of daemon worker threads
+ * - Images are scaled once, eagerly, into an image that matches the screen's
+ * GraphicsConfiguration (so painting is a plain blit, no re-rasterizing)
+ * - The last few scaled backgrounds are kept so revisiting a room is instant
+ * - Loads of the same asset/size that are already running are shared
+ * - Hit/miss counters show how often a background was ready when shown
+ *
+ * The caller is responsible for swapping the finished image in on the EDT.
+ */
+public class BackgroundLoader {
+
+    /** Number of scaled backgrounds kept in memory (each ~3.5 MB at 1280x720) */
+    private static final int MAX_CACHED = 6;
+
+    /** Worker threads used for decoding (daemon so they never keep the JVM alive) */
+    private static final ExecutorService workers = Executors.newFixedThreadPool(2, new java.util.concurrent.ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "background-loader-" + count.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        }
+    });
+
+    /** Finished, scaled backgrounds in access order (least recently used first) */
+    private static final LinkedHashMap<String, BufferedImage> ready = new LinkedHashMap<String, BufferedImage>(8,
+            0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BufferedImage> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+
+    /** Lookup statistics (only getIfReady counts, so prefetching doesn't skew them) */
+    private static long hits = 0;
+    private static long misses = 0;
+
+    /** Loads that are still running, so duplicate requests share the same work */
+    private static final Map<String, CompletableFuture<BufferedImage>> pending = new java.util.HashMap<>();
+
+    /**
+     * Get an already scaled background if it is in memory.
+     *
+     * @param asset Asset name of the background image (see AssetStore)
+     * @param w     Target width (0 = image's own width)
+     * @param h     Target height (0 = image's own height)
+     * @return The ready image, or null if it still needs to be loaded
+     */
+    public static synchronized BufferedImage getIfReady(String asset, int w, int h) {
+        BufferedImage img = ready.get(keyOf(asset, w, h));
+        if (img != null)
+            hits++;
+        else
+            misses++;
+        return img;
+    }
+
+    /**
+     * Decode and scale a background on a worker thread.
+     * The returned future completes on the worker thread - use
+     * SwingUtilities.invokeLater to touch Swing components from its callbacks.
+     *
+     * @param asset Asset name of the background image (see AssetStore)
+     * @param w     Target width (0 = image's own width)
+     * @param h     Target height (0 = image's own height)
+     * @param gc    Screen configuration to match (null = plain RGB image)
+     * @return A future completing with the scaled image
+     */
+    public static synchronized CompletableFuture<BufferedImage> load(String asset, int w, int h,
+            GraphicsConfiguration gc) {
+        String key = keyOf(asset, w, h);
+        BufferedImage done = ready.get(key);
+        if (done != null)
+            return CompletableFuture.completedFuture(done);
+        CompletableFuture<BufferedImage> running = pending.get(key);
+        if (running != null)
+            return running;
+
+        CompletableFuture<BufferedImage> future = CompletableFuture.supplyAsync(() -> {
+            try {
+                return decodeAndScale(asset, w, h, gc);
+            } catch (IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+        }, workers);
+        pending.put(key, future);
+        future.whenComplete((img, err) -> {
+            synchronized (BackgroundLoader.class) {
+                pending.remove(key);
+                if (img != null)
+                    ready.put(key, img);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Forget every finished background (e.g. after assets changed on disk).
+     * Loads that are still running are left to finish.
+     */
+    public static synchronized void clear() {
+        ready.clear();
+    }
+
+    /** @return Number of backgrounds that were ready when they were shown */
+    public static synchronized long getHits() {
+        return hits;
+    }
+
+    /** @return Number of backgrounds that had to be loaded when they were shown */
+    public static synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Read the image and draw it scaled into a screen-compatible opaque image.
+     */
+    private static BufferedImage decodeAndScale(String asset, int w, int h, GraphicsConfiguration gc)
+            throws IOException {
+        long start = System.nanoTime();
+        BufferedImage src;
+        try (java.io.InputStream in = AssetStore.openStream(asset)) {
+            src = ImageIO.read(in);
+        }
+        if (src == null)
+            throw new IOException("Unsupported image format: " + asset);
+        int tw = w > 0 ? w : src.getWidth();
+        int th = h > 0 ? h : src.getHeight();
+
+        // An image in the screen's native format can be blitted without conversion
+        BufferedImage dst = (gc != null) ? gc.createCompatibleImage(tw, th, Transparency.OPAQUE)
+                : new BufferedImage(tw, th, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = dst.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2.drawImage(src, 0, 0, tw, th, null);
+        g2.dispose();
+        Metrics.ASSET_LOAD.set(asset, System.nanoTime() - start);
+        return dst;
+    }
+
+    /** Cache key: asset name plus target size. */
+    private static String keyOf(String asset, int w, int h) {
+        return asset + '@' + Math.max(0, w) + 'x' + Math.max(0, h);
+    }
+}
@@ -0,0 +1,234 @@
+package silentconvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * BranchExplorer plays every path through the story's choices, several at a
+ * time, without a window.
+ *
+ * Key features:
+ * - Each path is a full headless playthrough (HeadlessPresenter) in its own
+ * session (SceneManager.isolated), so paths running at once never share
+ * scene state
+ * - Paths are found as they are played: a run records the options offered at
+ * every choice, and each option it didn't take becomes a new path, started as
+ * soon as the run ends
+ * - Reports, per path, the choices made, the lines shown, the assets touched
+ * and the wall time
+ *
+ * Usage (from the game's working directory):
+ * java -cp classes silentconvent.BranchExplorer [threads] [-v]
+ *
+ * -v also lists each path's lines and assets. The game's log is limited to
+ * warnings and errors, so it doesn't interleave with the report (unless a
+ * level is given with -Dsilentconvent.log).
+ */
+public class BranchExplorer {
+
+    /** Next presses after which a path is treated as stuck */
+    private static final int MAX_STEPS = 100_000;
+
+    /** What one path through the story did */
+    public static final class PathResult {
+        private final int[] picks;
+        private final List<String> labels;
+        private final int[] optionCounts;
+        private final List<DialogueLine> lines;
+        private final Set<String> assets;
+        private final int steps;
+        private final long wallNanos;
+        private final boolean finished;
+
+        PathResult(int[] picks, List<String> labels, int[] optionCounts, HeadlessPresenter p, int steps,
+                long wallNanos) {
+            this.picks = picks;
+            this.labels = labels;
+            this.optionCounts = optionCounts;
+            this.lines = p.getLines();
+            this.assets = p.getAssets();
+            this.steps = steps;
+            this.wallNanos = wallNanos;
+            this.finished = p.isFinished();
+        }
+
+        /** @return The option picked at each choice, in order */
+        public int[] getPicks() {
+            return picks.clone();
+        }
+
+        /** @return The labels of the options picked */
+        public List<String> getLabels() {
+            return labels;
+        }
+
+        /** @return Every line shown, in order */
+        public List<DialogueLine> getLines() {
+            return lines;
+        }
+
+        /** @return Assets touched ("bg:", "sprite:" or "audio:" + name) */
+        public Set<String> getAssets() {
+            return assets;
+        }
+
+        /** @return Number of times Next was pressed */
+        public int getSteps() {
+            return steps;
+        }
+
+        /** @return How long the playthrough took */
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        /** @return True if the path reached the ending */
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public String toString() {
+            return "path " + Arrays.toString(picks) + " " + labels;
+        }
+    }
+
+    /**
+     * Play every path through the story's choices.
+     *
+     * @param threads Number of paths to play at once
+     * @return One result per path, in order of the picks
+     */
+    public static List<PathResult> explore(int threads) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "BranchExplorer");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<PathResult> results = explore(new int[0], pool).join();
+            results.sort((a, b) -> Arrays.compare(a.picks, b.picks));
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Play the path that starts with the given picks (first options after
+     * them), then every path that leaves it at a later choice.
+     */
+    private static CompletableFuture<List<PathResult>> explore(int[] prefix, ExecutorService pool) {
+        return CompletableFuture.supplyAsync(() -> play(prefix), pool).thenCompose(result -> {
+            List<CompletableFuture<List<PathResult>>> branches = new ArrayList<>();
+            for (int depth = prefix.length; depth < result.picks.length; depth++) {
+                for (int other = 0; other < result.optionCounts[depth]; other++) {
+                    if (other == result.picks[depth])
+                        continue;
+                    int[] branch = Arrays.copyOf(result.picks, depth + 1);
+                    branch[depth] = other;
+                    branches.add(explore(branch, pool));
+                }
+            }
+            return CompletableFuture.allOf(branches.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+                List<PathResult> all = new ArrayList<>();
+                all.add(result);
+                for (CompletableFuture<List<PathResult>> b : branches)
+                    all.addAll(b.join());
+                return all;
+            });
+        });
+    }
+
+    /**
+     * Play one path in its own session.
+     *
+     * @param prefix The options to pick at the first choices (the first option
+     *               is picked after that)
+     */
+    static PathResult play(int[] prefix) {
+        List<Integer> picks = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        ChoiceProvider recorder = (prompt, options) -> {
+            int n = picks.size();
+            int pick = n < prefix.length ? prefix[n] : 0;
+            picks.add(pick);
+            counts.add(options.length);
+            labels.add(pick >= 0 && pick < options.length ? options[pick] : "(cancel)");
+            return pick;
+        };
+        HeadlessPresenter p = new HeadlessPresenter(false, recorder);
+        int[] steps = { 0 };
+        long start = System.nanoTime();
+        SceneManager.isolated(() -> {
+            SceneManager.start(p);
+            while (!p.isFinished() && steps[0] < MAX_STEPS) {
+                SceneManager.advance();
+                steps[0]++;
+            }
+        });
+        long elapsed = System.nanoTime() - start;
+        return new PathResult(picks.stream().mapToInt(Integer::intValue).toArray(),
+                Collections.unmodifiableList(labels), counts.stream().mapToInt(Integer::intValue).toArray(), p,
+                steps[0], elapsed);
+    }
+
+    /**
+     * Explore and print the report.
+     *
+     * @param args Optional number of threads (default: one per processor), and
+     *             -v to list lines and assets
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean verbose = false;
+        for (String arg : args) {
+            if (arg.equals("-v"))
+                verbose = true;
+            else
+                threads = Integer.parseInt(arg);
+        }
+
+        if (System.getProperty("silentconvent.log") == null)
+            Log.setLevel(Log.Level.WARN);
+        AssetStore.open(AssetStore.DEFAULT_ARCHIVE);
+        AssetIndex.build();
+
+        long start = System.nanoTime();
+        List<PathResult> results = explore(threads);
+        long elapsed = System.nanoTime() - start;
+
+        Set<String> allAssets = new LinkedHashSet<>();
+        long pathNanos = 0;
+        int stuck = 0;
+        for (PathResult r : results) {
+            System.out.printf("%s: %d lines, %d assets, %d steps, %.2f ms%s%n", r, r.lines.size(), r.assets.size(),
+                    r.steps, r.wallNanos / 1e6, r.finished ? "" : " (did not reach the ending)");
+            if (verbose) {
+                for (DialogueLine line : r.lines)
+                    System.out.println("    " + line);
+                for (String asset : r.assets)
+                    System.out.println("    [" + asset + "]");
+            }
+            allAssets.addAll(r.assets);
+            pathNanos += r.wallNanos;
+            if (!r.finished)
+                stuck++;
+        }
+        System.out.printf("BranchExplorer: %d paths on %d threads in %.2f ms (%.2f ms of playthroughs), %d assets%n",
+                results.size(), threads, elapsed / 1e6, pathNanos / 1e6, allAssets.size());
+        if (stuck > 0) {
+            System.out.println("BranchExplorer: " + stuck + " paths did not reach the ending");
+            System.exit(1);
+        }
+    }
+}
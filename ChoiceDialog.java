@@ -10,10 +10,9 @@ public class ChoiceDialog {
         if (parent == null && silentconvent.GameFrame.class != null) {
             // Dim the screen using the fade overlay and show a model JDialog owned by the
             // game frame
-            silentconvent.GameFrame.setFadeAlpha(0.45f);
-            Frame owner = null;
-            if (silentconvent.GameFrame.getInstance() != null)
-                owner = silentconvent.GameFrame.getInstance();
+            silentconvent.GameFrame owner = silentconvent.GameFrame.getInstance();
+            if (owner != null)
+                owner.setFadeAlpha(0.45f);
             JDialog dialog = new JDialog(owner, "Choose", true);
             dialog.setUndecorated(true);
             dialog.setLayout(new BorderLayout());
@@ -42,7 +41,8 @@ public class ChoiceDialog {
             });
 
             dialog.setVisible(true);
-            silentconvent.GameFrame.setFadeAlpha(0f);
+            if (owner != null)
+                owner.setFadeAlpha(0f);
             return result[0];
         }
 
@@ -0,0 +1,35 @@
+package silentconvent;
+
+/**
+ * Answers the story's choices when there is no player to ask (see
+ * HeadlessPresenter). GameFrame asks the player with ChoiceDialog instead.
+ */
+@FunctionalInterface
+public interface ChoiceProvider {
+
+    /**
+     * Pick one option.
+     *
+     * @param prompt  The question
+     * @param options Option labels
+     * @return Index of the chosen option, or -1 to cancel the choice
+     */
+    int choose(String prompt, String[] options);
+
+    /**
+     * Answer the choices from a list, in the order they are asked; once the list
+     * runs out, pick the first option.
+     *
+     * @param picks The option to pick at each choice
+     * @return A provider that gives those answers (each provider keeps its own
+     *         place in the list)
+     */
+    static ChoiceProvider scripted(int... picks) {
+        int[] answers = picks.clone();
+        int[] asked = { 0 };
+        return (prompt, options) -> {
+            int n = asked[0]++;
+            return n < answers.length ? answers[n] : 0;
+        };
+    }
+}
@@ -0,0 +1,131 @@
+package silentconvent;
+
+/**
+ * One line of dialogue, already taken apart: who speaks, what they say and
+ * which portraits show. Scene scripts compile every line into one of these
+ * when they are loaded, so showing a line does no string parsing.
+ *
+ * Line formats understood by parse() (see DialogueLineParser):
+ * - "[Name] message" → Name speaks (Name may be "A, B" or "A | B" for two
+ * speakers, the first on the left)
+ * - "Name: message" → Name speaks (if Name is a single word, letters only)
+ * - "quoted text" → Agnes speaks (the quotes are removed)
+ * - Plain text → narration in the main dialogue box
+ *
+ * Instances are immutable and can be shared between scenes and threads.
+ */
+public final class DialogueLine {
+
+    /** How a line is shown */
+    public enum Kind {
+        /** Main dialogue box; speaker portraits and the named box are cleared */
+        NARRATION,
+        /** Named speech box with the speaker's portrait */
+        SPEECH,
+        /** Main dialogue box text only; nothing else changes */
+        TEXT,
+        /** Large centered text (the final scene) */
+        CENTERED
+    }
+
+    /** Speaker used for quoted lines without a name */
+    public static final String DEFAULT_SPEAKER = "Agnes";
+
+    private final Kind kind;
+    private final String speaker;
+    private final String message;
+    private final String leftCharacter;
+    private final String rightCharacter;
+    private final boolean dimLeft;
+    private final boolean dimRight;
+
+    DialogueLine(Kind kind, String speaker, String message, String leftCharacter, String rightCharacter,
+            boolean dimLeft, boolean dimRight) {
+        this.kind = kind;
+        this.speaker = speaker;
+        this.message = message;
+        this.leftCharacter = leftCharacter;
+        this.rightCharacter = rightCharacter;
+        this.dimLeft = dimLeft;
+        this.dimRight = dimRight;
+    }
+
+    /**
+     * Compile a script line (see the class comment for the formats).
+     *
+     * @param raw The line as written
+     * @return The compiled line
+     */
+    public static DialogueLine parse(String raw) {
+        return DialogueLineParser.parse(raw);
+    }
+
+    /**
+     * @param text Text for the main dialogue box, shown exactly as written
+     * @return A TEXT line
+     */
+    public static DialogueLine text(String text) {
+        return new DialogueLine(Kind.TEXT, null, text, null, null, false, false);
+    }
+
+    /**
+     * @param text Text shown large in the middle of the screen
+     * @return A CENTERED line
+     */
+    public static DialogueLine centered(String text) {
+        return new DialogueLine(Kind.CENTERED, null, text, null, null, false, false);
+    }
+
+    /**
+     * Build a speech line and work out its portraits:
+     * - "A, B" or "A | B" → A on the left (speaking), B on the right (dimmed)
+     * - A single name → on the right; the left portrait stays but is dimmed
+     *
+     * @param name The speaker(s)
+     * @param msg  What they say
+     * @return A SPEECH line
+     */
+    public static DialogueLine speech(String name, String msg) {
+        return DialogueLineParser.speech(name, msg);
+    }
+
+    /** @return How the line is shown */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /** @return The speaker as written (e.g. "Agnes" or "Lucille | Agnes"), or null */
+    public String getSpeaker() {
+        return speaker;
+    }
+
+    /** @return The text to show */
+    public String getMessage() {
+        return message;
+    }
+
+    /** @return Character to show on the left, or null to leave the left slot alone */
+    public String getLeftCharacter() {
+        return leftCharacter;
+    }
+
+    /** @return Character to show on the right, or null to leave the right slot alone */
+    public String getRightCharacter() {
+        return rightCharacter;
+    }
+
+    /** @return True if the left portrait is dimmed while this line shows */
+    public boolean isDimLeft() {
+        return dimLeft;
+    }
+
+    /** @return True if the right portrait is dimmed while this line shows */
+    public boolean isDimRight() {
+        return dimRight;
+    }
+
+    @Override
+    public String toString() {
+        return speaker != null ? speaker + ": " + message : message;
+    }
+}
@@ -0,0 +1,151 @@
+package silentconvent;
+
+/**
+ * DialogueLineParser turns a raw line of dialogue into a DialogueLine.
+ *
+ * Key features:
+ * - One forward pass decides the format: the bracket or name prefix is checked
+ * until the first character that rules it out, and the rest of the line is
+ * only searched for a quote
+ * - No regular expressions, no split(), and substrings only for the parts that
+ * are kept (speaker, message, portrait names)
+ * - The result is an immutable DialogueLine, so a line parsed once can be shown
+ * any number of times (scene scripts parse every line when they load)
+ *
+ * Formats, in order of precedence:
+ * - "[Name] message" → Name speaks (Name may be "A, B" or "A | B")
+ * - "Name: message" → Name speaks (if Name is a single word, letters only)
+ * - "quoted text" → Agnes speaks (the quotes are removed)
+ * - Plain text → narration
+ *
+ * See LineParseBenchmark (benchmarks module) for a comparison with the old
+ * showLine parsing.
+ */
+public final class DialogueLineParser {
+
+    private DialogueLineParser() {
+    }
+
+    /**
+     * Parse a raw line.
+     *
+     * @param raw The line as written
+     * @return The parsed line
+     */
+    public static DialogueLine parse(String raw) {
+        // Trim (same rule as String.trim, without the copy)
+        int b = 0;
+        int e = raw.length();
+        while (b < e && raw.charAt(b) <= ' ')
+            b++;
+        while (e > b && raw.charAt(e - 1) <= ' ')
+            e--;
+
+        if (b < e && raw.charAt(b) == '[') {
+            // [Name] message ('[' can't start a "Name:" prefix, so only a quote can follow)
+            int close = raw.indexOf(']', b + 1);
+            if (close >= 0 && close < e)
+                return speech(trimmed(raw, b + 1, close), trimmed(raw, close + 1, e));
+        } else {
+            // Name: message. The prefix is checked one character at a time and the
+            // scan stops at the first character that rules a name out
+            boolean sawLetter = false;
+            boolean trailingSpace = false;
+            for (int i = b; i < e; i++) {
+                char c = raw.charAt(i);
+                if (c == ':') {
+                    if (sawLetter)
+                        return speech(raw.substring(b, trimEnd(raw, b, i)), trimmed(raw, i + 1, e));
+                    break;
+                }
+                if (isLetter(c) && !trailingSpace)
+                    sawLetter = true;
+                else if (c <= ' ' && sawLetter)
+                    trailingSpace = true;
+                else
+                    break;
+            }
+        }
+
+        // "quoted speech" (trailing whitespace holds no quotes, so any hit is inside)
+        int quote = raw.indexOf('"', b);
+        if (quote >= 0)
+            return speech(DialogueLine.DEFAULT_SPEAKER, withoutQuotes(raw, b, e));
+        return new DialogueLine(DialogueLine.Kind.NARRATION, null, raw.substring(b, e), null, null, false, false);
+    }
+
+    /**
+     * Build a speech line and work out its portraits in one scan of the name:
+     * - "A, B" → A on the left (speaking), B on the right (dimmed); a comma wins
+     * over a pipe
+     * - "A | B" → the same
+     * - A single name → on the right; the left portrait stays but is dimmed
+     *
+     * @param name The speaker(s)
+     * @param msg  What they say
+     * @return A SPEECH line
+     */
+    static DialogueLine speech(String name, String msg) {
+        int comma1 = -1, comma2 = -1, pipe1 = -1, pipe2 = -1;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == ',') {
+                if (comma1 < 0)
+                    comma1 = i;
+                else if (comma2 < 0)
+                    comma2 = i;
+            } else if (c == '|') {
+                if (pipe1 < 0)
+                    pipe1 = i;
+                else if (pipe2 < 0)
+                    pipe2 = i;
+            }
+        }
+        int sep = comma1 >= 0 ? comma1 : pipe1;
+        if (sep < 0)
+            return new DialogueLine(DialogueLine.Kind.SPEECH, name, msg, null, trimmed(name, 0, name.length()),
+                    true, false);
+        int end = comma1 >= 0 ? comma2 : pipe2;
+        String left = trimmed(name, 0, sep);
+        String right = trimmed(name, sep + 1, end >= 0 ? end : name.length());
+        return new DialogueLine(DialogueLine.Kind.SPEECH, name, msg, left, right,
+                false, true);
+    }
+
+    /** @return True for the letters allowed in a "Name:" prefix (ASCII and Latin-1) */
+    private static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')
+                || (c >= 'À' && c <= 'ÿ' && c != '×' && c != '÷');
+    }
+
+    /** @return s[from, to) with surrounding whitespace removed */
+    private static String trimmed(String s, int from, int to) {
+        while (from < to && s.charAt(from) <= ' ')
+            from++;
+        return s.substring(from, trimEnd(s, from, to));
+    }
+
+    /** @return The end of s[from, to) without trailing whitespace */
+    private static int trimEnd(String s, int from, int to) {
+        while (to > from && s.charAt(to - 1) <= ' ')
+            to--;
+        return to;
+    }
+
+    /** @return s[from, to) without '"' characters, trimmed */
+    private static String withoutQuotes(String s, int from, int to) {
+        char[] out = new char[to - from];
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c != '"')
+                out[n++] = c;
+        }
+        int start = 0;
+        while (start < n && out[start] <= ' ')
+            start++;
+        while (n > start && out[n - 1] <= ' ')
+            n--;
+        return new String(out, start, n - start);
+    }
+}
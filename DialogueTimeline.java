@@ -0,0 +1,291 @@
+package scenes;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable sequence of a scene's steps (lines and choices), stored as a
+ * persistent balanced tree (an AVL tree ordered by position).
+ * ScriptedScene keeps its steps in one: answering a choice replaces the
+ * choice step with the lines of the option picked.
+ *
+ * Key features:
+ * - get, insert, remove and replace take O(log n) (plus the size of the
+ * inserted steps), however long the script is and however many choices have
+ * already been answered
+ * - Every change returns a new timeline and leaves the old one as it was; the
+ * two share everything but the O(log n) nodes on the changed path, so keeping
+ * a snapshot (e.g. the script's original steps, or the state a save was made
+ * in) costs nothing
+ * - Timelines can be shared between threads freely (see BranchExplorer, where
+ * every path starts from the same script timeline)
+ *
+ * @param <T> The step type
+ */
+public final class DialogueTimeline<T> implements Iterable<T> {
+
+    /** A tree node; never changed after it is built */
+    private static final class Node<T> {
+        final Node<T> left;
+        final T item;
+        final Node<T> right;
+        final int size;
+        final int height;
+
+        Node(Node<T> left, T item, Node<T> right) {
+            this.left = left;
+            this.item = item;
+            this.right = right;
+            this.size = size(left) + 1 + size(right);
+            this.height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+
+    /** The empty timeline */
+    private static final DialogueTimeline<?> EMPTY = new DialogueTimeline<>(null);
+
+    /** Root of the tree (null when empty) */
+    private final Node<T> root;
+
+    private DialogueTimeline(Node<T> root) {
+        this.root = root;
+    }
+
+    /**
+     * @param <T> The step type
+     * @return The empty timeline
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> DialogueTimeline<T> empty() {
+        return (DialogueTimeline<T>) EMPTY;
+    }
+
+    /**
+     * Build a timeline holding the given steps, in O(n).
+     *
+     * @param <T>   The step type
+     * @param items The steps, in order
+     * @return The timeline
+     */
+    public static <T> DialogueTimeline<T> of(List<? extends T> items) {
+        return items.isEmpty() ? empty() : new DialogueTimeline<>(build(items, 0, items.size()));
+    }
+
+    /** @return The number of steps */
+    public int size() {
+        return size(root);
+    }
+
+    /** @return True if there are no steps */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * @param index Position of a step
+     * @return The step at that position
+     * @throws IndexOutOfBoundsException If there is no such position
+     */
+    public T get(int index) {
+        checkIndex(index, size());
+        Node<T> n = root;
+        while (true) {
+            int ls = size(n.left);
+            if (index < ls) {
+                n = n.left;
+            } else if (index == ls) {
+                return n.item;
+            } else {
+                index -= ls + 1;
+                n = n.right;
+            }
+        }
+    }
+
+    /**
+     * Insert steps.
+     *
+     * @param index Position the first new step takes (0 to size())
+     * @param items The steps to insert
+     * @return The new timeline (this one is unchanged)
+     */
+    public DialogueTimeline<T> insert(int index, List<? extends T> items) {
+        checkIndex(index, size() + 1);
+        if (items.isEmpty())
+            return this;
+        Split<T> s = split(root, index);
+        return new DialogueTimeline<>(concat(concat(s.left, build(items, 0, items.size())), s.right));
+    }
+
+    /**
+     * Remove one step.
+     *
+     * @param index Position of the step
+     * @return The new timeline (this one is unchanged)
+     */
+    public DialogueTimeline<T> remove(int index) {
+        return replace(index, Collections.emptyList());
+    }
+
+    /**
+     * Replace one step by any number of steps (e.g. a choice by the lines of
+     * the option picked).
+     *
+     * @param index Position of the step to replace
+     * @param items The steps that take its place (may be empty)
+     * @return The new timeline (this one is unchanged)
+     */
+    public DialogueTimeline<T> replace(int index, List<? extends T> items) {
+        checkIndex(index, size());
+        Split<T> before = split(root, index);
+        Split<T> after = split(before.right, 1);
+        Node<T> middle = items.isEmpty() ? null : build(items, 0, items.size());
+        return new DialogueTimeline<>(concat(concat(before.left, middle), after.right));
+    }
+
+    /** @return The steps as a new list, in order */
+    public List<T> toList() {
+        List<T> out = new ArrayList<>(size());
+        for (T item : this)
+            out.add(item);
+        return out;
+    }
+
+    /** Iterates the steps in order (O(1) amortised per step). */
+    @Override
+    public Iterator<T> iterator() {
+        Deque<Node<T>> stack = new ArrayDeque<>();
+        for (Node<T> n = root; n != null; n = n.left)
+            stack.push(n);
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (stack.isEmpty())
+                    throw new NoSuchElementException();
+                Node<T> n = stack.pop();
+                for (Node<T> c = n.right; c != null; c = c.left)
+                    stack.push(c);
+                return n.item;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+
+    // ===== TREE OPERATIONS =====
+    // Join-based AVL: split and concat are built on join(l, item, r), which
+    // rebalances only along the spine where the shorter tree is attached.
+
+    /** The two halves of a split */
+    private static final class Split<T> {
+        final Node<T> left;
+        final Node<T> right;
+
+        Split(Node<T> left, Node<T> right) {
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    private static int size(Node<?> n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static int height(Node<?> n) {
+        return n == null ? 0 : n.height;
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound)
+            throw new IndexOutOfBoundsException("index " + index + " out of range 0.." + (bound - 1));
+    }
+
+    /** A perfectly balanced tree of items[from, to). */
+    private static <T> Node<T> build(List<? extends T> items, int from, int to) {
+        if (from >= to)
+            return null;
+        int mid = (from + to) >>> 1;
+        return new Node<>(build(items, from, mid), items.get(mid), build(items, mid + 1, to));
+    }
+
+    /** Split into the first index steps and the rest. */
+    private static <T> Split<T> split(Node<T> n, int index) {
+        if (n == null)
+            return new Split<>(null, null);
+        int ls = size(n.left);
+        if (index <= ls) {
+            Split<T> s = split(n.left, index);
+            return new Split<>(s.left, join(s.right, n.item, n.right));
+        }
+        Split<T> s = split(n.right, index - ls - 1);
+        return new Split<>(join(n.left, n.item, s.left), s.right);
+    }
+
+    /** All steps of a, then all steps of b. */
+    private static <T> Node<T> concat(Node<T> a, Node<T> b) {
+        if (a == null)
+            return b;
+        if (b == null)
+            return a;
+        Split<T> rest = split(a, a.size - 1);
+        return join(rest.left, rest.right.item, b);
+    }
+
+    /** The steps of l, then item, then the steps of r, balanced. */
+    private static <T> Node<T> join(Node<T> l, T item, Node<T> r) {
+        if (height(l) > height(r) + 1)
+            return joinRight(l, item, r);
+        if (height(r) > height(l) + 1)
+            return joinLeft(l, item, r);
+        return new Node<>(l, item, r);
+    }
+
+    /** join() when l is the taller tree: attach r down l's right spine. */
+    private static <T> Node<T> joinRight(Node<T> l, T item, Node<T> r) {
+        if (height(l.right) <= height(r) + 1) {
+            Node<T> t = new Node<>(l.right, item, r);
+            if (t.height <= height(l.left) + 1)
+                return new Node<>(l.left, l.item, t);
+            return rotateLeft(new Node<>(l.left, l.item, rotateRight(t)));
+        }
+        Node<T> t = joinRight(l.right, item, r);
+        Node<T> n = new Node<>(l.left, l.item, t);
+        return t.height <= height(l.left) + 1 ? n : rotateLeft(n);
+    }
+
+    /** join() when r is the taller tree: attach l down r's left spine. */
+    private static <T> Node<T> joinLeft(Node<T> l, T item, Node<T> r) {
+        if (height(r.left) <= height(l) + 1) {
+            Node<T> t = new Node<>(l, item, r.left);
+            if (t.height <= height(r.right) + 1)
+                return new Node<>(t, r.item, r.right);
+            return rotateRight(new Node<>(rotateLeft(t), r.item, r.right));
+        }
+        Node<T> t = joinLeft(l, item, r.left);
+        Node<T> n = new Node<>(t, r.item, r.right);
+        return t.height <= height(r.right) + 1 ? n : rotateRight(n);
+    }
+
+    private static <T> Node<T> rotateLeft(Node<T> n) {
+        Node<T> r = n.right;
+        return new Node<>(new Node<>(n.left, n.item, r.left), r.item, r.right);
+    }
+
+    private static <T> Node<T> rotateRight(Node<T> n) {
+        Node<T> l = n.left;
+        return new Node<>(l.left, l.item, new Node<>(l.right, n.item, n.right));
+    }
+}
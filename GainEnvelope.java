@@ -0,0 +1,124 @@
+package silentconvent;
+
+/**
+ * GainEnvelope is a gain value that changes in sample-accurate ramps.
+ *
+ * Any thread may request a new gain or a ramp; the mixer thread picks up the
+ * latest request at the start of its next period (beginPeriod) and then asks
+ * for the gain once per frame (next), so a fade moves a little on every sample
+ * instead of jumping once per call. Used for each MixerVoice and for the
+ * AudioMixer's master gain.
+ */
+class GainEnvelope {
+
+    /** Most recently requested ramp (written by any thread, read by the mixer) */
+    private volatile Ramp requested;
+
+    /** Ramp the mixer thread is currently applying */
+    private Ramp applied = null;
+
+    /** Gain applied to the last frame (mixer thread only) */
+    private float current;
+
+    /** Gain change per frame while a ramp runs (mixer thread only) */
+    private float step = 0f;
+
+    /** Frames left in the running ramp (mixer thread only) */
+    private int framesLeft = 0;
+
+    /** Set by the mixer thread when a ramp marked stopAtEnd has finished */
+    private volatile boolean stopped = false;
+
+    /**
+     * @param initial Starting gain (0.0 - 1.0)
+     */
+    GainEnvelope(float initial) {
+        current = clamp(initial);
+        requested = new Ramp(current, current, 0, false);
+    }
+
+    /** Jump to a gain at the next period. */
+    void set(float linear) {
+        float g = clamp(linear);
+        requested = new Ramp(g, g, 0, false);
+    }
+
+    /** Ramp from the current gain to a new one over a number of frames. */
+    void rampTo(float linear, int frames, boolean stopAtEnd) {
+        requested = new Ramp(Float.NaN, clamp(linear), frames, stopAtEnd);
+    }
+
+    /** Start from one gain and ramp to another over a number of frames. */
+    void rampFromTo(float from, float to, int frames) {
+        requested = new Ramp(clamp(from), clamp(to), frames, false);
+    }
+
+    /** @return The gain the latest request is heading for */
+    float getTarget() {
+        return requested.target;
+    }
+
+    /** @return True once a ramp requested with stopAtEnd has reached its end */
+    boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Pick up the latest request. Called by the mixer thread at the start of each
+     * period.
+     */
+    void beginPeriod() {
+        Ramp r = requested;
+        if (r == applied)
+            return;
+        applied = r;
+        if (!Float.isNaN(r.from))
+            current = r.from;
+        framesLeft = r.frames;
+        if (r.frames > 0) {
+            step = (r.target - current) / r.frames;
+        } else {
+            current = r.target;
+            stopped = r.stopAtEnd;
+        }
+    }
+
+    /**
+     * Gain for the next frame. Called by the mixer thread once per frame.
+     *
+     * @return Linear gain to apply to this frame
+     */
+    float next() {
+        if (framesLeft > 0) {
+            current += step;
+            if (--framesLeft == 0) {
+                current = applied.target; // land exactly on the target
+                stopped = applied.stopAtEnd;
+            }
+        }
+        return current;
+    }
+
+    private static float clamp(float v) {
+        return Math.max(0f, Math.min(1f, v));
+    }
+
+    /**
+     * An immutable gain change request.
+     */
+    private static final class Ramp {
+        /** Starting gain, or NaN to start from the current gain */
+        final float from;
+        final float target;
+        final int frames;
+        /** Report isStopped() once the ramp ends */
+        final boolean stopAtEnd;
+
+        Ramp(float from, float target, int frames, boolean stopAtEnd) {
+            this.from = from;
+            this.target = target;
+            this.frames = frames;
+            this.stopAtEnd = stopAtEnd;
+        }
+    }
+}
@@ -0,0 +1,589 @@
+package silentconvent;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import javax.swing.*;
+
+/**
+ * GameCanvas draws the whole game scene in one component.
+ * It replaces the stacked JLabels/JTextAreas and the fade panel GameFrame
+ * used to layer on top of each other.
+ *
+ * Drawing order (back to front):
+ * - Background image (or the placeholder colour while it loads)
+ * - Left and right character sprites
+ * - Main dialogue box and named speech box
+ * - Swing buttons (ordinary child components, since this is the content pane)
+ * - Fade overlay and centered text (painted over the buttons, as before)
+ * - Performance HUD (F3, top left): what is on screen and the Metrics registry
+ *
+ * The scene (everything below the buttons) is kept in a VolatileImage back
+ * buffer. Changing a sprite or a text box only re-renders that box's region of
+ * the buffer; the rest of a frame is a plain blit. Fade steps never re-render
+ * the scene at all, they only blit it and draw the overlay on top.
+ *
+ * All methods must be called on the Event Dispatch Thread.
+ */
+public class GameCanvas extends JComponent {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Size the scene is laid out for */
+    public static final int SCENE_WIDTH = 1280;
+    public static final int SCENE_HEIGHT = 720;
+
+    /** Colour shown behind the scene while a background image is loading */
+    private static final Color BACKGROUND_PLACEHOLDER = new Color(14, 12, 16);
+
+    /**
+     * The two places a character sprite can stand.
+     */
+    public enum Slot {
+        LEFT(60, 200, 220, 380),
+        RIGHT(1000, 200, 220, 380);
+
+        /** Where the sprite is drawn (sprites are pre-scaled to this size) */
+        public final Rectangle bounds;
+
+        Slot(int x, int y, int w, int h) {
+            bounds = new Rectangle(x, y, w, h);
+        }
+    }
+
+    // ===== SCENE STATE =====
+    /** Current background (null = placeholder colour) and its asset name */
+    private BufferedImage background;
+    private String backgroundDesc;
+
+    /** Current sprite image and asset name per slot (null = empty) */
+    private final BufferedImage[] sprites = new BufferedImage[Slot.values().length];
+    private final String[] spriteDescs = new String[Slot.values().length];
+
+    /** Main dialogue box (bottom center) */
+    private final Rectangle dialogueBounds = new Rectangle(100, 500, 1080, 150);
+    private String dialogueText = "";
+    private boolean dialogueVisible = true;
+    private Font dialogueFont = new Font("Serif", Font.PLAIN, 22);
+    private static final Color DIALOGUE_BACKGROUND = new Color(0, 0, 0, 180);
+
+    /** Named speech box (top right): speaker name and message */
+    private final Rectangle namedBounds = new Rectangle(860, 20, 380, 120);
+    private String speakerName = "";
+    private String speakerMessage = "";
+    private boolean namedVisible = false;
+    private static final Font NAME_FONT = new Font("Serif", Font.BOLD, 16);
+    private static final Color NAMED_BACKGROUND = new Color(0, 0, 0, 160);
+
+    /** Performance HUD (top left): what is on screen, then every metric */
+    private final Rectangle hudBounds = new Rectangle(10, 10, 520, 0);
+    private String[] hudLines = new String[0];
+    private boolean hudVisible = false;
+    private static final Font HUD_FONT = new Font("Monospaced", Font.PLAIN, 12);
+    private static final Color HUD_BACKGROUND = new Color(0, 0, 0, 160);
+
+    /** How often the HUD's text is rebuilt while it shows */
+    private static final int HUD_REFRESH_MS = 250;
+
+    /**
+     * Rebuilds the HUD's text (runs only while the HUD shows). A plain low-rate
+     * timer rather than an AnimationScheduler delay: that would keep the
+     * scheduler's per-frame tick running and skew the frame, stall and timer
+     * numbers the HUD reports.
+     */
+    private final Timer hudTimer = new Timer(HUD_REFRESH_MS, e -> refreshHud());
+
+    /** Space between a text box's edge and its text */
+    private static final int TEXT_PADDING = 4;
+
+    // ===== OVERLAY STATE =====
+    /** Current transparency of the black overlay (0.0 - 1.0) */
+    private float overlayAlpha = 0f;
+
+    /** AnimationScheduler channel for overlay fades (a new fade replaces the old one) */
+    private final Object overlayChannel = new Object();
+
+    /**
+     * Darkness added by flashOnce on top of the fade (0.0 - 1.0). Kept apart
+     * from overlayAlpha so a flash never cancels a fade, or its callback.
+     */
+    private float flashAlpha = 0f;
+
+    /** AnimationScheduler channel for flashes (a new flash replaces the old one) */
+    private final Object flashChannel = new Object();
+
+    /** Text displayed centered on screen, on top of the overlay */
+    private String centeredText = null;
+
+    /** Whether to show the centered text */
+    private boolean showCentered = false;
+
+    // ===== BACK BUFFER =====
+    /** The rendered scene (background, sprites, text boxes) */
+    private VolatileImage buffer;
+
+    /** Part of the buffer that must be re-rendered before the next blit */
+    private Rectangle sceneDirty = null;
+
+    public GameCanvas() {
+        setLayout(null); // children (buttons) are positioned absolutely
+        setOpaque(true);
+    }
+
+    // ===== SCENE SETTERS =====
+
+    /**
+     * Set the background image (already scaled to the scene size).
+     *
+     * @param img  The image, or null to show the placeholder colour
+     * @param desc The image's asset name
+     */
+    public void setBackgroundImage(BufferedImage img, String desc) {
+        background = img;
+        backgroundDesc = img != null ? desc : null;
+        markDirty(new Rectangle(0, 0, SCENE_WIDTH, SCENE_HEIGHT));
+    }
+
+    /** @return Asset name of the background on screen, or null */
+    public String getBackgroundDesc() {
+        return backgroundDesc;
+    }
+
+    /**
+     * Set or clear the sprite in one slot.
+     *
+     * @param slot The slot
+     * @param img  The sprite, already scaled to the slot size (null = empty)
+     * @param desc The sprite's asset name
+     */
+    public void setSprite(Slot slot, BufferedImage img, String desc) {
+        if (sprites[slot.ordinal()] == img)
+            return;
+        sprites[slot.ordinal()] = img;
+        spriteDescs[slot.ordinal()] = img != null ? desc : null;
+        markDirty(slot.bounds);
+    }
+
+    /** @return The sprite image in a slot, or null */
+    public BufferedImage getSprite(Slot slot) {
+        return sprites[slot.ordinal()];
+    }
+
+    /** @return Asset name of the sprite in a slot, or null */
+    public String getSpriteDesc(Slot slot) {
+        return spriteDescs[slot.ordinal()];
+    }
+
+    /**
+     * Set the text of the main dialogue box.
+     *
+     * @param text The text (long lines wrap at word boundaries)
+     */
+    public void setDialogueText(String text) {
+        dialogueText = text == null ? "" : text;
+        markDirty(dialogueBounds);
+    }
+
+    /** @param visible Whether the main dialogue box is shown */
+    public void setDialogueVisible(boolean visible) {
+        if (dialogueVisible == visible)
+            return;
+        dialogueVisible = visible;
+        markDirty(dialogueBounds);
+    }
+
+    /** @param font Font for the main dialogue box */
+    public void setDialogueFont(Font font) {
+        dialogueFont = font;
+        markDirty(dialogueBounds);
+    }
+
+    /**
+     * Show or hide the named speech box.
+     *
+     * @param name    Speaker name
+     * @param message What the speaker says
+     * @param visible Whether the box is shown
+     */
+    public void setNamedSpeech(String name, String message, boolean visible) {
+        speakerName = name == null ? "" : name;
+        speakerMessage = message == null ? "" : message;
+        namedVisible = visible;
+        markDirty(namedBounds);
+    }
+
+    // ===== PERFORMANCE HUD =====
+
+    /** @param visible Whether the performance HUD is shown */
+    public void setHudVisible(boolean visible) {
+        if (hudVisible == visible)
+            return;
+        hudVisible = visible;
+        if (visible) {
+            refreshHud();
+            hudTimer.start();
+        } else {
+            hudTimer.stop();
+            repaint(hudBounds);
+        }
+    }
+
+    /** @return True if the performance HUD is shown */
+    public boolean isHudVisible() {
+        return hudVisible;
+    }
+
+    /**
+     * Rebuild the HUD's text from the Metrics registry and repaint just the
+     * HUD. Text is built here, a few times a second, never while painting.
+     */
+    private void refreshHud() {
+        java.util.List<Metrics.Metric> metrics = Metrics.all();
+        String[] lines = new String[3 + metrics.size()];
+        lines[0] = "bg      " + orNone(backgroundDesc);
+        lines[1] = "left    " + orNone(spriteDescs[Slot.LEFT.ordinal()]);
+        lines[2] = "right   " + orNone(spriteDescs[Slot.RIGHT.ordinal()]);
+        StringBuilder sb = new StringBuilder(96);
+        for (int i = 0; i < metrics.size(); i++) {
+            Metrics.Metric m = metrics.get(i);
+            sb.setLength(0);
+            sb.append(m.getName());
+            do
+                sb.append(' ');
+            while (sb.length() < 14);
+            m.format(sb);
+            lines[3 + i] = sb.toString();
+        }
+
+        Rectangle old = new Rectangle(hudBounds);
+        hudLines = lines;
+        hudBounds.height = 2 * TEXT_PADDING + lines.length * getFontMetrics(HUD_FONT).getHeight();
+        repaint(old.union(hudBounds));
+    }
+
+    private static String orNone(String s) {
+        return s != null ? s : "(none)";
+    }
+
+    // ===== OVERLAY SETTERS =====
+
+    /**
+     * Set the alpha of the black overlay.
+     *
+     * @param a Alpha value (0.0 = transparent, 1.0 = opaque)
+     */
+    public void setOverlayAlpha(float a) {
+        overlayAlpha = Math.max(0f, Math.min(1f, a));
+        repaint(); // overlay only: the scene buffer stays valid
+    }
+
+    /** @return Alpha of the black overlay set by fades (0.0 - 1.0, without any flash) */
+    public float getOverlayAlpha() {
+        return overlayAlpha;
+    }
+
+    /** @return Alpha the overlay is drawn with: the fade and any flash composed */
+    private float shownOverlayAlpha() {
+        return 1f - (1f - overlayAlpha) * (1f - flashAlpha);
+    }
+
+    /**
+     * Set the text drawn centered on top of the overlay.
+     *
+     * @param t The text, or null for none
+     */
+    public void setCenteredText(String t) {
+        centeredText = t;
+        repaint();
+    }
+
+    /** @param v True to show the centered text, false to hide it */
+    public void setShowCenteredText(boolean v) {
+        showCentered = v;
+        repaint();
+    }
+
+    /** @return The centered text if it is showing, otherwise null */
+    public String getShownCenteredText() {
+        return showCentered ? centeredText : null;
+    }
+
+    // ===== FADES =====
+
+    /**
+     * Fade the overlay in to full black over the specified duration.
+     * Starts from the current overlay alpha and replaces any fade in progress.
+     *
+     * @param durationMs  How long the fade takes
+     * @param onFullBlack Callback when fully black
+     */
+    public void fadeIn(int durationMs, Runnable onFullBlack) {
+        AnimationScheduler.animate(overlayChannel, overlayAlpha, 1f, durationMs,
+                AnimationScheduler.Easing.EASE_IN_OUT, this::setOverlayAlpha, onFullBlack);
+    }
+
+    /**
+     * Fade the overlay out from black to fully transparent.
+     * Starts from the current overlay alpha and replaces any fade in progress.
+     *
+     * @param durationMs How long the fade takes
+     * @param onComplete Callback when fully transparent
+     */
+    public void fadeOut(int durationMs, Runnable onComplete) {
+        AnimationScheduler.animate(overlayChannel, overlayAlpha, 0f, durationMs,
+                AnimationScheduler.Easing.EASE_IN_OUT, this::setOverlayAlpha, onComplete);
+    }
+
+    /**
+     * One quick flash effect (brief dark flash, not a fade).
+     * The flash darkens the screen on top of whatever the fade is doing and
+     * runs on its own channel, so a fade in progress (and its callback) carries
+     * on underneath it.
+     *
+     * @param ms Duration of the flash
+     */
+    public void flashOnce(int ms) {
+        centeredText = null;
+        flashAlpha = 0.7f; // 70% opaque = visible flash
+        repaint();
+        AnimationScheduler.animate(flashChannel, 0.7f, 0.7f, ms, AnimationScheduler.Easing.LINEAR, null, () -> {
+            flashAlpha = 0f;
+            repaint();
+        });
+    }
+
+    // ===== THUMBNAIL =====
+
+    /**
+     * Render a small copy of the scene (background, sprites and text boxes, not
+     * the buttons or the fade overlay), e.g. for a save slot's thumbnail.
+     * The scene is drawn straight at the small size from the source images, so
+     * this never reads back the on-screen buffer.
+     *
+     * @param width  Thumbnail width
+     * @param height Thumbnail height
+     * @return An opaque image of that size
+     */
+    public BufferedImage captureThumbnail(int width, int height) {
+        BufferedImage thumb = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = thumb.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2.scale((double) width / SCENE_WIDTH, (double) height / SCENE_HEIGHT);
+        g2.clipRect(0, 0, SCENE_WIDTH, SCENE_HEIGHT);
+        renderScene(g2);
+        g2.dispose();
+        return thumb;
+    }
+
+    // ===== PAINTING =====
+
+    /**
+     * Mark part of the scene as changed: it is re-rendered into the back buffer
+     * and repainted on the next paint.
+     */
+    private void markDirty(Rectangle r) {
+        sceneDirty = sceneDirty == null ? new Rectangle(r) : sceneDirty.union(r);
+        repaint(r.x, r.y, r.width, r.height);
+    }
+
+    /**
+     * While the overlay is showing, repaints of child buttons must start here so
+     * the overlay is drawn over them again.
+     */
+    @Override
+    protected boolean isPaintingOrigin() {
+        return shownOverlayAlpha() > 0f || (showCentered && centeredText != null);
+    }
+
+    /**
+     * Paint the frame, timing it into Metrics.FRAME_TIME, then the HUD on top.
+     * Repaints of the HUD alone aren't timed, so showing it doesn't skew the
+     * frame times it shows.
+     */
+    @Override
+    public void paint(Graphics g) {
+        long start = System.nanoTime();
+        super.paint(g);
+        long elapsed = System.nanoTime() - start;
+        Rectangle clip = g.getClipBounds();
+        if (!hudVisible || clip == null || !hudBounds.contains(clip))
+            Metrics.FRAME_TIME.record(elapsed);
+        if (hudVisible && g.hitClip(hudBounds.x, hudBounds.y, hudBounds.width, hudBounds.height))
+            renderHud((Graphics2D) g);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null)
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (gc == null || getWidth() <= 0 || getHeight() <= 0) {
+            // Not on screen yet: draw straight to the target
+            renderScene((Graphics2D) g);
+            return;
+        }
+
+        do {
+            int state = buffer == null ? VolatileImage.IMAGE_INCOMPATIBLE : buffer.validate(gc);
+            if (state == VolatileImage.IMAGE_INCOMPATIBLE || buffer.getWidth() != getWidth()
+                    || buffer.getHeight() != getHeight()) {
+                if (buffer != null)
+                    buffer.flush();
+                buffer = createVolatileImage(getWidth(), getHeight());
+                sceneDirty = new Rectangle(0, 0, getWidth(), getHeight());
+            } else if (state == VolatileImage.IMAGE_RESTORED) {
+                // The video memory copy was lost: everything must be rendered again
+                sceneDirty = new Rectangle(0, 0, getWidth(), getHeight());
+            }
+            if (buffer == null) {
+                renderScene((Graphics2D) g);
+                return;
+            }
+
+            if (sceneDirty != null) {
+                Graphics2D bg = buffer.createGraphics();
+                bg.clip(sceneDirty);
+                renderScene(bg);
+                bg.dispose();
+                sceneDirty = null;
+            }
+            g.drawImage(buffer, clip.x, clip.y, clip.x + clip.width, clip.y + clip.height,
+                    clip.x, clip.y, clip.x + clip.width, clip.y + clip.height, null);
+        } while (buffer.contentsLost());
+    }
+
+    /**
+     * Draw the buttons, then the overlay over them.
+     */
+    @Override
+    protected void paintChildren(Graphics g) {
+        super.paintChildren(g);
+        renderOverlay((Graphics2D) g);
+    }
+
+    /** Draw background, sprites and text boxes (clipped to the dirty region). */
+    private void renderScene(Graphics2D g2) {
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+        // Background (the area outside the scene is filled with the placeholder too)
+        g2.setColor(BACKGROUND_PLACEHOLDER);
+        g2.fillRect(0, 0, Math.max(getWidth(), SCENE_WIDTH), Math.max(getHeight(), SCENE_HEIGHT));
+        if (background != null)
+            g2.drawImage(background, 0, 0, null);
+
+        // Sprites
+        for (Slot s : Slot.values()) {
+            BufferedImage img = sprites[s.ordinal()];
+            if (img != null && g2.hitClip(s.bounds.x, s.bounds.y, s.bounds.width, s.bounds.height))
+                g2.drawImage(img, s.bounds.x, s.bounds.y, null);
+        }
+
+        // Main dialogue box
+        if (dialogueVisible && intersectsClip(g2, dialogueBounds)) {
+            g2.setColor(DIALOGUE_BACKGROUND);
+            g2.fillRect(dialogueBounds.x, dialogueBounds.y, dialogueBounds.width, dialogueBounds.height);
+            g2.setColor(Color.WHITE);
+            g2.setFont(dialogueFont);
+            drawWrapped(g2, dialogueText, dialogueBounds.x + TEXT_PADDING, dialogueBounds.y + TEXT_PADDING,
+                    dialogueBounds.width - 2 * TEXT_PADDING, dialogueBounds.y + dialogueBounds.height);
+        }
+
+        // Named speech box: name on top, message below, thin border
+        if (namedVisible && intersectsClip(g2, namedBounds)) {
+            g2.setColor(NAMED_BACKGROUND);
+            g2.fillRect(namedBounds.x, namedBounds.y, namedBounds.width, namedBounds.height);
+            g2.setColor(Color.DARK_GRAY);
+            g2.drawRect(namedBounds.x, namedBounds.y, namedBounds.width - 1, namedBounds.height - 1);
+            g2.setColor(Color.WHITE);
+            g2.setFont(NAME_FONT);
+            FontMetrics fm = g2.getFontMetrics();
+            int x = namedBounds.x + 1 + TEXT_PADDING;
+            g2.drawString(speakerName, x, namedBounds.y + 1 + fm.getAscent());
+            g2.setFont(messageFont());
+            drawWrapped(g2, speakerMessage, x, namedBounds.y + 1 + fm.getHeight(),
+                    namedBounds.width - 2 - 2 * TEXT_PADDING, namedBounds.y + namedBounds.height - 1);
+        }
+    }
+
+    /** Draw the HUD's text (built by refreshHud) over everything else. */
+    private void renderHud(Graphics2D g2) {
+        g2.setColor(HUD_BACKGROUND);
+        g2.fillRect(hudBounds.x, hudBounds.y, hudBounds.width, hudBounds.height);
+        g2.setColor(Color.WHITE);
+        g2.setFont(HUD_FONT);
+        FontMetrics fm = g2.getFontMetrics();
+        int y = hudBounds.y + TEXT_PADDING + fm.getAscent();
+        for (String line : hudLines) {
+            g2.drawString(line, hudBounds.x + TEXT_PADDING, y);
+            y += fm.getHeight();
+        }
+    }
+
+    /** Draw the black overlay and centered text over everything else. */
+    private void renderOverlay(Graphics2D g) {
+        float alpha = shownOverlayAlpha();
+        if (alpha <= 0f && !(showCentered && centeredText != null))
+            return;
+        Graphics2D g2 = (Graphics2D) g.create();
+        if (alpha > 0f) {
+            g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+            g2.setColor(Color.BLACK);
+            g2.fillRect(0, 0, getWidth(), getHeight());
+        }
+
+        // Draw centered text on top (always fully opaque)
+        if (showCentered && centeredText != null) {
+            g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1f));
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2.setColor(Color.WHITE);
+            g2.setFont(new Font("Serif", Font.BOLD, 36));
+            FontMetrics fm = g2.getFontMetrics();
+            int w = fm.stringWidth(centeredText);
+            g2.drawString(centeredText, (SCENE_WIDTH - w) / 2, SCENE_HEIGHT / 2);
+        }
+        g2.dispose();
+    }
+
+    /** @return True if a box overlaps the current clip */
+    private static boolean intersectsClip(Graphics2D g2, Rectangle r) {
+        return g2.hitClip(r.x, r.y, r.width, r.height);
+    }
+
+    /** Font of the named box's message (same as a default text area). */
+    private static Font messageFont() {
+        Font f = UIManager.getFont("TextArea.font");
+        return f != null ? f : new Font("Dialog", Font.PLAIN, 12);
+    }
+
+    /**
+     * Draw text wrapped at word boundaries (and at explicit newlines).
+     * Lines that would start below maxY are not drawn.
+     */
+    private static void drawWrapped(Graphics2D g2, String text, int x, int top, int width, int maxY) {
+        FontMetrics fm = g2.getFontMetrics();
+        int y = top + fm.getAscent();
+        for (String para : text.split("\n", -1)) {
+            StringBuilder line = new StringBuilder();
+            for (String word : para.split(" ", -1)) {
+                String trial = line.length() == 0 ? word : line + " " + word;
+                if (fm.stringWidth(trial) <= width || line.length() == 0) {
+                    line.setLength(0);
+                    line.append(trial);
+                } else {
+                    if (y - fm.getAscent() >= maxY)
+                        return;
+                    g2.drawString(line.toString(), x, y);
+                    y += fm.getHeight();
+                    line.setLength(0);
+                    line.append(word);
+                }
+            }
+            if (y - fm.getAscent() >= maxY)
+                return;
+            g2.drawString(line.toString(), x, y);
+            y += fm.getHeight();
+        }
+    }
+}
@@ -2,7 +2,6 @@ package silentconvent;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import javax.imageio.ImageIO;
 import javax.swing.*;
 
 /**
@@ -14,42 +13,47 @@ import javax.swing.*;
  * - Named speech box (showing speaker names)
  * - UI buttons (Next, Remember, Main Menu)
  * - Fade effects (black screen transitions)
+ * - Performance HUD (F3, see Metrics)
+ * 
+ * Everything except the buttons is drawn by a single GameCanvas (the frame's
+ * content pane); the buttons are ordinary Swing components on top of it.
  * 
  * This is a singleton - use getInstance() to get the single GameFrame instance.
+ * It is the Presenter the game normally runs with; SceneManager and the scenes
+ * only see it through that interface.
  */
-public class GameFrame extends JFrame {
+public class GameFrame extends JFrame implements Presenter {
 
-    // ===== PUBLIC UI ELEMENTS (used by other classes) =====
-    /**
-    Text area for
-    displaying dialogue
-    and narrative text*/
-    public static JTextArea dialogue;
+    private static final long serialVersionUID = 1L;
 
+    // ===== BUTTONS =====
     /** Button player clicks to advance to next dialogue/scene */
-    public static JButton nextButton;
+    private final JButton nextButton;
 
     /** Button to open save/load menu (Remember) */
-    public static JButton rememberButton;
+    private final JButton rememberButton;
 
     /** Button to return to main menu during gameplay */
-    public static JButton mainMenuButton;
-
-    /** Label that displays the background image */
-    public static JLabel background;
+    private final JButton mainMenuButton;
 
     /** Single instance of the GameFrame (singleton pattern) */
     private static GameFrame instance;
 
-    // ===== PRIVATE UI ELEMENTS =====
-    /** Label on the left side for showing character sprites */
-    private JLabel leftSprite;
+    /** Path of the most recently requested background image */
+    private String backgroundPath = null;
 
-    /** Label on the right side for showing character sprites */
-    private JLabel rightSprite;
+    /**
+     * Incremented on every background request so late async loads for an older
+     * background are ignored
+     */
+    private int backgroundGeneration = 0;
 
-    /** Debug overlay label showing what images are currently loaded */
-    private JLabel debugLabel;
+    // ===== PRIVATE UI ELEMENTS =====
+    /**
+     * Draws the background, sprites, dialogue boxes and fade overlay (also the
+     * content pane the buttons are added to)
+     */
+    private GameCanvas canvas;
 
     /**
      * Constructor - sets up the game window and all UI elements.
@@ -61,23 +65,12 @@ public class GameFrame extends JFrame {
         setTitle("Silent Convent");
         setSize(1280, 740);
         setDefaultCloseOperation(EXIT_ON_CLOSE);
-        setLayout(null); // Use null layout for absolute positioning of components
-
-        // ===== BACKGROUND IMAGE =====
-        background = new JLabel();
-        background.setBounds(0, 0, 1280, 720);
-        add(background);
-
-        // ===== DIALOGUE BOX (bottom center) =====
-        dialogue = new JTextArea();
-        dialogue.setBounds(100, 500, 1080, 150); // Position and size
-        dialogue.setEditable(false); // Players can't type in it
-        dialogue.setLineWrap(true); // Wrap long lines
-        dialogue.setWrapStyleWord(true); // Wrap at word boundaries
-        dialogue.setFont(new Font("Serif", Font.PLAIN, 22));
-        dialogue.setBackground(new Color(0, 0, 0, 180)); // Semi-transparent black
-        dialogue.setForeground(Color.WHITE); // White text
-        add(dialogue);
+
+        // ===== GAME CANVAS =====
+        // One component draws the scene (background, sprites, dialogue boxes, fades);
+        // it is the content pane, so the buttons added below sit on top of it
+        canvas = new GameCanvas();
+        setContentPane(canvas);
 
         // ===== NEXT BUTTON (bottom right) =====
         nextButton = new JButton("Next");
@@ -99,72 +92,20 @@ public class GameFrame extends JFrame {
             MainMenu.open();
         });
 
-        // ===== NAMED SPEECH BOX (top right) =====
-        // Shows who is speaking and what they say (character name + dialogue)
-        namedPanel = new JPanel();
-        namedPanel.setLayout(new BorderLayout());
-        namedPanel.setBounds(860, 20, 380, 120);
-        namedPanel.setBackground(new Color(0, 0, 0, 160));
-        namedPanel.setBorder(BorderFactory.createLineBorder(Color.DARK_GRAY, 1));
-
-        // Label showing the speaker's name
-        nameLabel = new JLabel("", SwingConstants.LEFT);
-        nameLabel.setFont(new Font("Serif", Font.BOLD, 16));
-        nameLabel.setForeground(Color.WHITE);
-
-        // Text area showing what the speaker is saying
-        messageArea = new JTextArea();
-        messageArea.setEditable(false);
-        messageArea.setLineWrap(true);
-        messageArea.setWrapStyleWord(true);
-        messageArea.setOpaque(false); // Transparent background
-        messageArea.setForeground(Color.WHITE);
-
-        namedPanel.add(nameLabel, BorderLayout.NORTH);
-        namedPanel.add(messageArea, BorderLayout.CENTER);
-        namedPanel.setVisible(false); // Hidden until a character speaks
-        add(namedPanel);
-
-        // ===== DEBUG OVERLAY (top left) =====
-        // Shows which images are currently loaded (for development/debugging)
-        JLabel debugLabel = new JLabel();
-        debugLabel.setBounds(10, 10, 420, 80);
-        debugLabel.setOpaque(true);
-        debugLabel.setBackground(new Color(0, 0, 0, 120));
-        debugLabel.setForeground(Color.WHITE);
-        debugLabel.setFont(new Font("Monospaced", Font.PLAIN, 12));
-        debugLabel.setVerticalAlignment(SwingConstants.TOP);
-        debugLabel.setText("Debug: ");
-        debugLabel.setVisible(false); // Hide by default in release builds
-        add(debugLabel);
-        this.debugLabel = debugLabel;
-
-        // ===== CHARACTER SPRITES =====
-        // Character sprites positioned left and right (narrower and shorter to fit
-        // frame)
-        leftSprite = new JLabel();
-        leftSprite.setBounds(60, 200, 220, 380);
-        leftSprite.setHorizontalAlignment(SwingConstants.CENTER);
-        add(leftSprite);
-
-        rightSprite = new JLabel();
-        rightSprite.setBounds(1000, 200, 220, 380);
-        rightSprite.setHorizontalAlignment(SwingConstants.CENTER);
-        add(rightSprite);
-
-        // ===== FADE PANEL =====
-        // Semi-transparent black overlay used for transitions and centered text
-        fadePanel = new FadePanel();
-        fadePanel.setBounds(0, 0, 1280, 720);
-        fadePanel.setVisible(false);
-        // Add fade panel to the layered pane to ensure it stays above background and
-        // sprites
-        getLayeredPane().add(fadePanel, JLayeredPane.POPUP_LAYER);
+        // ===== PERFORMANCE HUD =====
+        // F3 shows frame times, EDT stalls, cache hit rates and the like (see Metrics)
+        JRootPane root = getRootPane();
+        root.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke("F3"), "toggleHud");
+        root.getActionMap().put("toggleHud", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                canvas.setHudVisible(!canvas.isHudVisible());
+            }
+        });
+        Metrics.watchEdt();
 
         // ===== FINALIZE SETUP =====
         instance = this;
-        // Ensure background sits at the bottom layer so UI components remain visible
-        ensureBackgroundAtBottom();
         // Keep SceneManager.start() out of the constructor so main menu can control
         // startup
         // SceneManager.start();
@@ -192,119 +133,88 @@ public class GameFrame extends JFrame {
             new GameFrame();
     }
 
+    // ===== DIALOGUE DISPLAY METHODS =====
+
     /**
-     * Ensure the background label is placed at the back of the content pane.
-     * This prevents the background from covering other UI elements like buttons and
-     * dialogue.
+     * Display text in the main dialogue box (clears and sets text neatly).
+     * 
+     * @param text The text to display
      */
-    private void ensureBackgroundAtBottom() {
-        try {
-            java.awt.Container cp = getContentPane();
-            int bottomIndex = Math.max(0, cp.getComponentCount() - 1);
-            cp.setComponentZOrder(background, bottomIndex);
-            background.repaint();
-        } catch (Exception e) {
-            System.out.println("Failed to adjust background z-order: " + e.getMessage());
-        }
+    @Override
+    public void showDialogue(String text) {
+        canvas.setDialogueVisible(true);
+        canvas.setDialogueText(text);
     }
 
-    // ===== DIALOGUE DISPLAY METHODS =====
-
     /**
-     * Display text in the main dialogue box (clears and sets text neatly).
+     * Replace the text in the main dialogue box without changing whether it is
+     * shown.
      * 
      * @param text The text to display
      */
-    public static void showDialogue(String text) {
-        instance.dialogue.setVisible(true);
-        instance.dialogue.setText("");
-        instance.dialogue.setText(text);
-        instance.dialogue.setCaretPosition(0); // Scroll to top
-        instance.dialogue.repaint();
+    @Override
+    public void setDialogueText(String text) {
+        canvas.setDialogueText(text);
     }
 
     /**
-     * Update the debug overlay to show what images are currently loaded.
-     * Shows background, left sprite, and right sprite filenames.
+     * Set the font of the main dialogue box (scenes pick their own mood).
+     * 
+     * @param font The font to use
      */
-    private void updateDebugOverlay() {
-        try {
-            String bg = "(none)";
-            if (background.getIcon() instanceof ImageIcon)
-                bg = ((ImageIcon) background.getIcon()).getDescription();
-            String left = "(none)";
-            if (leftSprite.getIcon() instanceof ImageIcon)
-                left = ((ImageIcon) leftSprite.getIcon()).getDescription();
-            String right = "(none)";
-            if (rightSprite.getIcon() instanceof ImageIcon)
-                right = ((ImageIcon) rightSprite.getIcon()).getDescription();
-            String s = "BG: " + bg + "<br>Left: " + left + "<br>Right: " + right;
-            if (debugLabel != null)
-                debugLabel.setText("<html>" + s + "</html>");
-        } catch (Exception e) {
-            System.out.println("Failed to update debug overlay: " + e.getMessage());
-        }
+    @Override
+    public void setDialogueFont(Font font) {
+        canvas.setDialogueFont(font);
     }
 
     /**
      * Show a line of dialogue with automatic format detection.
-     * Handles multiple dialogue formats:
+     * Handles multiple dialogue formats (see DialogueLine):
      * - "[Name] message" → Shows in named speech box with character sprite
      * - "Name: message" → Shows in named speech box (if Name is a single word)
      * - "quoted text" → Shows as Agnes speaking (default)
      * - Plain text → Shows in main dialogue box
      * 
+     * Scenes compile their lines when loaded and call showLine(DialogueLine).
+     * 
      * @param s The text line to display
      */
-    public static void showLine(String s) {
+    public void showLine(String s) {
         if (s == null)
             return;
-        s = s.trim();
-
-        // ===== FORMAT 1: [Name] message =====
-        // Explicit bracket format for specific character dialogue
-        if (s.startsWith("[") && s.contains("]")) {
-            int end = s.indexOf(']');
-            String name = s.substring(1, end).trim();
-            String msg = s.substring(end + 1).trim();
-            showNamedSpeech(name, msg);
-            // Hide main dialogue while named speech shows
-            instance.dialogue.setText("");
-            instance.dialogue.setVisible(false);
-            return;
-        }
-
-        // ===== FORMAT 2: Name: message =====
-        // Detect a single word name before ':' (e.g., "Agnes: Hello")
-        int colon = s.indexOf(':');
-        if (colon > 0) {
-            String maybeName = s.substring(0, colon).trim();
-            if (maybeName.matches("^[A-Za-zÀ-ÖØ-öø-ÿ]+$")) { // Single word, letters only
-                String msg = s.substring(colon + 1).trim();
-                showNamedSpeech(maybeName, msg);
-                instance.dialogue.setText("");
-                instance.dialogue.setVisible(false);
-                return;
-            }
-        }
+        showLine(DialogueLine.parse(s));
+    }
 
-        // ===== FORMAT 3: "quoted speech" =====
-        // Assume Agnes as default speaker when lines contain quoted text
-        if (s.contains("\"") || (s.startsWith("\"") && s.length() > 1)) {
-            String msg = s.replace("\"", "").trim();
-            showNamedSpeech("Agnes", msg);
-            instance.dialogue.setText("");
-            instance.dialogue.setVisible(false);
-            return;
+    /**
+     * Show a compiled line of dialogue.
+     * 
+     * @param line The line to display
+     */
+    @Override
+    public void showLine(DialogueLine line) {
+        switch (line.getKind()) {
+            case SPEECH:
+                canvas.setNamedSpeech(line.getSpeaker(), line.getMessage(), true);
+                showSpeaker(line);
+                // Hide main dialogue while named speech shows
+                canvas.setDialogueText("");
+                canvas.setDialogueVisible(false);
+                break;
+            case TEXT:
+                setDialogueText(line.getMessage());
+                break;
+            case CENTERED:
+                showCenteredText(line.getMessage());
+                break;
+            default:
+                // Plain narrative line with no speaker
+                clearNamedSpeech();
+                // When a plain narrative line is shown, clear visible speaker sprites
+                // so they don't linger from the previous dialogue
+                clearCharacters();
+                showDialogue(line.getMessage());
+                break;
         }
-
-        // ===== FORMAT 4: Plain narrative text =====
-        // Fallback: plain dialogue line with no speaker
-        clearNamedSpeech();
-        // When a plain narrative line is shown, clear visible speaker sprites
-        // so they don't linger from the previous dialogue
-        clearCharacters();
-        showDialogue(s);
     }
 
     /**
@@ -315,57 +225,34 @@ public class GameFrame extends JFrame {
      * @param name The character's name (can include | or , for two speakers)
      * @param msg  The message the character is saying
      */
-    public static void showNamedSpeech(String name, String msg) {
-        instance.nameLabel.setText(name);
-        instance.messageArea.setText(msg);
-        instance.namedPanel.setVisible(true);
+    public void showNamedSpeech(String name, String msg) {
+        canvas.setNamedSpeech(name, msg, true);
         // Attempt to show speaker sprite(s)
-        showSpeaker(name);
-        // Ensure UI remains above the background and fade panel is still on top
-        instance.ensureUIZOrder();
+        showSpeaker(DialogueLine.speech(name, msg));
     }
 
     /**
      * Clear the named speech box (hide the character name and message).
      */
-    public static void clearNamedSpeech() {
-        instance.nameLabel.setText("");
-        instance.messageArea.setText("");
-        instance.namedPanel.setVisible(false);
+    public void clearNamedSpeech() {
+        canvas.setNamedSpeech("", "", false);
     }
 
     /**
-     * Show a character sprite based on the name string.
-     * Supports multiple formats for showing one or two characters:
+     * Show the portraits of a compiled speech line:
      * - Single name → Shows on right, dims left
-     * - "Name1, Name2" → Shows both, Name1 on left (dimmed), Name2 on right
-     * - "Name1 | Name2" → Shows both, Name1 on left (speaking), Name2 on right
-     * (dimmed)
+     * - "Name1, Name2" or "Name1 | Name2" → Shows both, Name1 on left (speaking),
+     * Name2 on right (dimmed)
      * 
-     * @param name The character name(s) to show
+     * @param line The speech line
      */
-    private static void showSpeaker(String name) {
-        // If the name string contains a comma, show both speakers
-        if (name.contains(",")) {
-            String[] parts = name.split(",");
-            showLeftCharacter(parts[0].trim());
-            showRightCharacter(parts[1].trim());
-            dimLeft(false);
-            dimRight(true);
-        } else if (name.contains("|")) {
-            // Pipe separator: show both, first is speaker
-            String[] parts = name.split("\\|");
-            showLeftCharacter(parts[0].trim());
-            showRightCharacter(parts[1].trim());
-            // First is speaker (bright), second is dimmed listener
-            dimLeft(false);
-            dimRight(true);
-        } else {
-            // Single character: show on right, dim left
-            showRightCharacter(name.trim());
-            dimLeft(true);
-            dimRight(false);
-        }
+    private void showSpeaker(DialogueLine line) {
+        if (line.getLeftCharacter() != null)
+            showLeftCharacter(line.getLeftCharacter());
+        if (line.getRightCharacter() != null)
+            showRightCharacter(line.getRightCharacter());
+        dimLeft(line.isDimLeft());
+        dimRight(line.isDimRight());
     }
 
     /**
@@ -373,8 +260,9 @@ public class GameFrame extends JFrame {
      * 
      * @param charName The character name (e.g., "Agnes")
      */
-    public static void showLeftCharacter(String charName) {
-        setSpriteForLabel(instance.leftSprite, charName + "_Left.png");
+    @Override
+    public void showLeftCharacter(String charName) {
+        setSpriteForSlot(GameCanvas.Slot.LEFT, charName + "_Left.png");
     }
 
     /**
@@ -382,112 +270,63 @@ public class GameFrame extends JFrame {
      * 
      * @param charName The character name (e.g., "Agnes")
      */
-    public static void showRightCharacter(String charName) {
-        setSpriteForLabel(instance.rightSprite, charName + ".png");
+    @Override
+    public void showRightCharacter(String charName) {
+        setSpriteForSlot(GameCanvas.Slot.RIGHT, charName + ".png");
     }
 
     /**
      * Clear all character sprites from both left and right sides.
      * Used when transitioning to purely narrative text.
      */
-    public static void clearCharacters() {
-        instance.leftSprite.setIcon(null);
-        instance.rightSprite.setIcon(null);
-        System.out.println("Cleared characters");
-        if (instance != null)
-            instance.updateDebugOverlay();
+    @Override
+    public void clearCharacters() {
+        canvas.setSprite(GameCanvas.Slot.LEFT, null, null);
+        canvas.setSprite(GameCanvas.Slot.RIGHT, null, null);
+        Log.debug(() -> "Cleared characters");
     }
 
     /**
-     * Load an image file and set it as the sprite for a label.
-     * Searches for the file in multiple locations and handles scaling/centering.
+     * Find the asset name of a sprite image.
      * 
-     * Tries candidates:
-     * - Exact filename
-     * - assets/images/filename
-     * - assets/images/Nun portraits/filename
-     * - Lowercase variants
+     * The name is looked up in AssetIndex, which ignores case and finds the file
+     * in the working directory, assets/images or any subfolder (e.g. Nun
+     * portraits).
      * 
-     * @param lbl      The JLabel to set the sprite on
+     * @param filename The sprite filename (e.g. "Agnes_Left.png")
+     * @return The matching asset, or null if there is none
+     */
+    static String findSpriteAsset(String filename) {
+        return AssetIndex.find(filename);
+    }
+
+    /**
+     * Load an image and show it as the sprite in a slot.
+     * Searches for the image in multiple locations (see findSpriteAsset) and
+     * handles scaling/centering.
+     * 
+     * @param slot     The slot (left or right) to show the sprite in
      * @param filename The image filename to load
      */
-    private static void setSpriteForLabel(JLabel lbl, String filename) {
+    private void setSpriteForSlot(GameCanvas.Slot slot, String filename) {
         try {
-            // Build list of candidate paths to try
-            String[] candidates = new String[] {
-                    filename,
-                    "assets/images/" + filename,
-                    filename.toLowerCase(),
-                    "assets/images/" + filename.toLowerCase()
-            };
-
-            java.io.File chosen = null;
-            // Also try common subfolders (e.g., Nun portraits)
-            java.util.List<String> extras = new java.util.ArrayList<>();
-            extras.addAll(java.util.Arrays.asList(candidates));
-            for (String c : new String[] { "assets/images/Nun portraits/" + filename,
-                    "assets/images/Nun portraits/" + filename.toLowerCase() })
-                extras.add(c);
-
-            // Try each candidate until one exists
-            for (String c : extras) {
-                java.io.File f = new java.io.File(c);
-                if (f.exists()) {
-                    chosen = f;
-                    break;
-                }
-            }
+            String chosen = findSpriteAsset(filename);
 
             if (chosen == null) {
-                System.out.println("Sprite not found: " + filename);
-                lbl.setIcon(null);
-                if (instance != null)
-                    instance.updateDebugOverlay();
+                Log.warn(() -> "Sprite not found: " + filename);
+                canvas.setSprite(slot, null, null);
                 return;
             }
 
-            // Load the image
-            BufferedImage img = ImageIO.read(chosen);
-
-            // Calculate scaled size to fit label while preserving aspect ratio
-            int targetW = lbl.getWidth() > 0 ? lbl.getWidth() : img.getWidth();
-            int targetH = lbl.getHeight() > 0 ? lbl.getHeight() : img.getHeight();
-            // Preserve aspect ratio while fitting into targetW x targetH
-            double iw = img.getWidth();
-            double ih = img.getHeight();
-            double ratio = iw / ih;
-            int scaledW = targetW;
-            int scaledH = (int) Math.round(targetW / ratio);
-            if (scaledH > targetH) {
-                scaledH = targetH;
-                scaledW = (int) Math.round(targetH * ratio);
-            }
+            AssetPrefetcher.noteUse("sprite:" + filename);
+            // Get the decoded, scaled and centered sprite (built once, then cached)
+            BufferedImage img = SpriteCache.get(chosen, slot.bounds.width, slot.bounds.height, false);
 
-            // Scale the image
-            Image scaled = img.getScaledInstance(scaledW, scaledH, Image.SCALE_SMOOTH);
-            // Draw centered onto a transparent canvas of size targetW x targetH
-            // so the sprite doesn't stretch or shift
-            BufferedImage canvas = new BufferedImage(targetW, targetH, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D g2 = canvas.createGraphics();
-            g2.setComposite(AlphaComposite.SrcOver);
-            int x = (targetW - scaledW) / 2;
-            int y = (targetH - scaledH) / 2;
-            g2.drawImage(scaled, x, y, scaledW, scaledH, null);
-            g2.dispose();
-
-            // Set the image on the label
-            ImageIcon ic = new ImageIcon(canvas);
-            ic.setDescription(chosen.getAbsolutePath());
-            lbl.setIcon(ic);
-            lbl.repaint();
-            System.out.println("Loaded sprite for " + filename + ": " + chosen.getAbsolutePath());
-            if (instance != null)
-                instance.updateDebugOverlay();
+            canvas.setSprite(slot, img, chosen);
+            Log.debug(() -> "Loaded sprite for " + filename + ": " + chosen);
         } catch (Exception e) {
-            System.out.println("Failed to load sprite " + filename + ": " + e.getMessage());
-            lbl.setIcon(null);
-            if (instance != null)
-                instance.updateDebugOverlay();
+            Log.warn(() -> "Failed to load sprite " + filename + ": " + e.getMessage());
+            canvas.setSprite(slot, null, null);
         }
     }
 
@@ -495,69 +334,35 @@ public class GameFrame extends JFrame {
      * Apply a dark tint (dimming effect) to the left character sprite.
      * Used to show which character is currently speaking.
      */
-    private static void dimLeft(boolean dim) {
-        applyDimToLabel(instance.leftSprite, dim);
+    private void dimLeft(boolean dim) {
+        applyDimToSlot(GameCanvas.Slot.LEFT, dim);
     }
 
     /**
      * Apply a dark tint (dimming effect) to the right character sprite.
      * Used to show which character is currently speaking.
      */
-    private static void dimRight(boolean dim) {
-        applyDimToLabel(instance.rightSprite, dim);
+    private void dimRight(boolean dim) {
+        applyDimToSlot(GameCanvas.Slot.RIGHT, dim);
     }
 
     /**
-     * Apply a translucent black overlay to a JLabel's sprite to produce a dimmed
-     * look.
+     * Swap a slot's sprite for its dimmed (or lit) version.
      * This darkens a character sprite to show they're not the one speaking.
      * 
-     * @param lbl The label with the sprite to dim
-     * @param dim True to dim, false to restore brightness
+     * @param slot The slot with the sprite to dim
+     * @param dim  True to dim, false to restore brightness
      */
-    private static void applyDimToLabel(JLabel lbl, boolean dim) {
+    private void applyDimToSlot(GameCanvas.Slot slot, boolean dim) {
         try {
-            if (lbl.getIcon() == null)
-                return;
-            ImageIcon icon = (ImageIcon) lbl.getIcon();
-            String desc = icon.getDescription();
+            String desc = canvas.getSpriteDesc(slot);
             if (desc == null)
                 return;
-            java.io.File f = new java.io.File(desc);
-            if (!f.exists())
-                return;
-            BufferedImage img = ImageIO.read(f);
-            int targetW = lbl.getWidth() > 0 ? lbl.getWidth() : img.getWidth();
-            int targetH = lbl.getHeight() > 0 ? lbl.getHeight() : img.getHeight();
-            double iw = img.getWidth();
-            double ih = img.getHeight();
-            double ratio = iw / ih;
-            int scaledW = targetW;
-            int scaledH = (int) Math.round(targetW / ratio);
-            if (scaledH > targetH) {
-                scaledH = targetH;
-                scaledW = (int) Math.round(targetH * ratio);
-            }
-            Image scaled = img.getScaledInstance(scaledW, scaledH, Image.SCALE_SMOOTH);
-            BufferedImage canvas = new BufferedImage(targetW, targetH, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D g2 = canvas.createGraphics();
-            g2.setComposite(AlphaComposite.SrcOver);
-            int x = (targetW - scaledW) / 2;
-            int y = (targetH - scaledH) / 2;
-            g2.drawImage(scaled, x, y, scaledW, scaledH, null);
-            if (dim) {
-                // Apply 50% black overlay for dimming effect
-                g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f));
-                g2.setColor(Color.BLACK);
-                g2.fillRect(0, 0, targetW, targetH);
-            }
-            g2.dispose();
-            ImageIcon ic = new ImageIcon(canvas);
-            ic.setDescription(desc);
-            lbl.setIcon(ic);
-            lbl.repaint();
+            // Lit and dimmed versions are cached separately, so toggling never re-decodes
+            BufferedImage img = SpriteCache.get(desc, slot.bounds.width, slot.bounds.height, dim);
+            canvas.setSprite(slot, img, desc);
         } catch (Exception e) {
-            System.out.println("Failed to apply dim: " + e.getMessage());
+            Log.warn(() -> "Failed to apply dim: " + e.getMessage());
         }
     }
 
@@ -565,8 +370,9 @@ public class GameFrame extends JFrame {
      * Hide the main dialogue box.
      * Used during transitions or when only character sprite dialogue should show.
      */
-    public static void hideDialogue() {
-        instance.dialogue.setVisible(false);
+    @Override
+    public void hideDialogue() {
+        canvas.setDialogueVisible(false);
     }
 
     /**
@@ -574,124 +380,180 @@ public class GameFrame extends JFrame {
      * 
      * @param text The text to display centered
      */
-    public static void showCenteredText(String text) {
-        instance.fadePanel.setCenteredText(text);
-        instance.fadePanel.setShowCenteredText(true);
-        // Ensure fade overlay is visible and topmost so centered text is not occluded
-        // by sprites/background
-        instance.fadePanel.setVisible(true);
-        instance.fadePanel.repaint();
-        instance.ensureFadePanelOnTop();
+    @Override
+    public void showCenteredText(String text) {
+        // Drawn over everything, including the buttons
+        canvas.setCenteredText(text);
+        canvas.setShowCenteredText(true);
     }
 
     /**
      * Hide the centered text display.
      */
-    public static void hideCenteredText() {
-        instance.fadePanel.setShowCenteredText(false);
-        instance.fadePanel.repaint();
+    @Override
+    public void hideCenteredText() {
+        canvas.setShowCenteredText(false);
+    }
+
+    @Override
+    public String getCenteredText() {
+        return canvas.getShownCenteredText();
     }
 
     /**
      * Set the background image for the current scene.
-     * Searches for the image in multiple locations and automatically scales it.
+     * Resolves the name through AssetIndex (see backgroundCandidates). Decoding and
+     * scaling happen on a worker thread (see BackgroundLoader); the placeholder
+     * colour shows until the finished image is swapped in.
      * 
-     * Searches in these locations:
-     * - Provided path directly
-     * - assets/images/
-     * - assets/images/ with bg_ prefix
-     * - assets/images/ with _day variant
+     * Accepts:
+     * - A full path or a bare file name, in any case
+     * - A name without the bg_ prefix or extension
+     * - A place_mood name for a bg_place_day_mood image
      * 
      * @param path The image filename or path
      */
-    public static void setBackgroundImage(String path) {
+    @Override
+    public void setBackgroundImage(String path) {
         if (path == null)
             return;
         try {
-            // Build candidate paths to try
-            String base = path;
-            if (base.startsWith("assets/"))
-                base = base.substring("assets/".length());
-            if (base.startsWith("images/"))
-                base = base.substring("images/".length());
-            base = base.replaceAll("^/", "");
-            String nameNoExt = base;
-            if (nameNoExt.contains("."))
-                nameNoExt = nameNoExt.substring(0, nameNoExt.lastIndexOf('.'));
-
-            // Build list of candidate paths
-            java.util.List<String> candList = new java.util.ArrayList<>();
-            candList.add(path);
-            candList.add("assets/images/" + path);
-            candList.add("assets/images/" + nameNoExt + ".png");
-            candList.add("assets/images/" + nameNoExt + ".PNG");
-            candList.add("assets/images/" + nameNoExt + ".jpg");
-            candList.add("assets/images/" + nameNoExt + ".jpeg");
-            candList.add("assets/images/" + nameNoExt);
-            candList.add("assets/images/bg_" + nameNoExt + ".PNG");
-            candList.add("assets/images/bg_" + nameNoExt + ".png");
-            candList.add("assets/images/bg_" + nameNoExt + "_day.PNG");
-            candList.add("assets/images/bg_" + nameNoExt + "_day.png");
-            candList.add("assets/images/bg_" + nameNoExt + "_day_calm.PNG");
-            candList.add("assets/images/bg_" + nameNoExt + "_calm.PNG");
-
-            // If the base had two parts like place_mood try to expand to day variants
-            if (nameNoExt.contains("_")) {
-                String[] parts = nameNoExt.split("_");
-                if (parts.length >= 2) {
-                    String place = parts[0];
-                    String mood = parts[1];
-                    candList.add("assets/images/bg_" + place + "_day_" + mood + ".PNG");
-                    candList.add("assets/images/bg_" + place + "_day_" + mood + ".png");
-                    candList.add("assets/images/bg_" + place + "_" + mood + ".PNG");
-                    candList.add("assets/images/bg_" + place + "_" + mood + ".png");
-                }
-            }
-
-            String[] candidates = candList.toArray(new String[0]);
-            java.io.File f = null;
-            // Try each candidate until one exists
-            for (String c : candidates) {
-                java.io.File tf = new java.io.File(c);
-                if (tf.exists()) {
-                    f = tf;
-                    break;
-                }
-            }
+            AssetPrefetcher.noteUse("bg:" + path);
+            String[] candidates = backgroundCandidates(path);
+            String asset = AssetIndex.findFirst(candidates);
 
-            if (f == null) {
-                System.out.println("Background image not found (tried candidates). Requested: " + path);
-                for (String c : candidates)
-                    System.out.println(" - " + c);
+            if (asset == null) {
+                Log.warn(() -> "Background image not found: " + path);
+                Log.debug(() -> "Background candidates tried: " + String.join(", ", candidates));
                 return;
             }
 
-            // Load and scale to label size
-            BufferedImage img = ImageIO.read(f);
-            int w = instance.background.getWidth();
-            int h = instance.background.getHeight();
-            if (w <= 0 || h <= 0) {
-                // Fallback to image original size if label size not available yet
-                ImageIcon ic = new ImageIcon(img);
-                ic.setDescription(f.getAbsolutePath());
-                instance.background.setIcon(ic);
+            // Remember what was requested (saves need it even while the image loads)
+            final String desc = asset;
+            backgroundPath = desc;
+            final int generation = ++backgroundGeneration;
+            int w = GameCanvas.SCENE_WIDTH;
+            int h = GameCanvas.SCENE_HEIGHT;
+
+            // Already decoded and scaled (e.g. revisiting a room): swap it in right away
+            BufferedImage img = BackgroundLoader.getIfReady(asset, w, h);
+            if (img != null) {
+                applyBackground(img, desc);
                 return;
             }
 
-            // Scale and set the background
-            Image scaled = img.getScaledInstance(w, h, Image.SCALE_SMOOTH);
-            ImageIcon ic = new ImageIcon(scaled);
-            ic.setDescription(f.getAbsolutePath());
-            instance.background.setIcon(ic);
-            instance.background.repaint();
-            // Ensure the background remains at the back after changing the icon
-            instance.ensureBackgroundAtBottom();
-            // Re-assert UI z-order so overlays remain visible
-            instance.ensureUIZOrder();
-            instance.updateDebugOverlay();
+            // Show the placeholder colour while a worker thread decodes and scales the
+            // image, then swap in the finished image on the EDT
+            canvas.setBackgroundImage(null, null);
+            BackgroundLoader.load(asset, w, h, getGraphicsConfiguration())
+                    .whenComplete((loaded, err) -> SwingUtilities.invokeLater(() -> {
+                        // Ignore results for backgrounds that were replaced in the meantime
+                        if (generation != backgroundGeneration)
+                            return;
+                        if (err != null) {
+                            Log.warn(() -> "Failed to set background: " + err.getMessage());
+                            return;
+                        }
+                        applyBackground(loaded, desc);
+                    }));
         } catch (Exception e) {
-            System.out.println("Failed to set background: " + e.getMessage());
+            Log.warn(() -> "Failed to set background: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Build the list of logical names a background image may be stored under.
+     * AssetIndex ignores case and extensions, so only the bg_ prefix and _day
+     * variants need spelling out.
+     * 
+     * @param path The requested image filename or path
+     * @return Candidate names, most likely first
+     */
+    private static String[] backgroundCandidates(String path) {
+        String base = path;
+        if (base.startsWith("assets/"))
+            base = base.substring("assets/".length());
+        if (base.startsWith("images/"))
+            base = base.substring("images/".length());
+        if (base.startsWith("/"))
+            base = base.substring(1);
+        String nameNoExt = base;
+        if (nameNoExt.contains("."))
+            nameNoExt = nameNoExt.substring(0, nameNoExt.lastIndexOf('.'));
+
+        // Build list of candidate names (each one is a hash lookup, not a disk probe)
+        java.util.List<String> candList = new java.util.ArrayList<>();
+        candList.add(path);
+        candList.add("bg_" + nameNoExt);
+        candList.add("bg_" + nameNoExt + "_day");
+        candList.add("bg_" + nameNoExt + "_day_calm");
+        candList.add("bg_" + nameNoExt + "_calm");
+
+        // If the base had two parts like place_mood try to expand to day variants
+        if (nameNoExt.contains("_")) {
+            String[] parts = nameNoExt.split("_");
+            if (parts.length >= 2) {
+                String place = parts[0];
+                String mood = parts[1];
+                candList.add("bg_" + place + "_day_" + mood);
+                candList.add("bg_" + place + "_" + mood);
+            }
         }
+
+        return candList.toArray(new String[0]);
+    }
+
+    /**
+     * Find the asset name of a background image.
+     * 
+     * @param path The requested image filename or path
+     * @return The first candidate that exists, or null if none do
+     */
+    static String findBackgroundAsset(String path) {
+        return AssetIndex.findFirst(backgroundCandidates(path));
+    }
+
+    /**
+     * Put a finished background image on the canvas.
+     * Must be called on the Event Dispatch Thread.
+     * 
+     * @param img  The decoded and scaled background
+     * @param desc The image's asset name
+     */
+    private void applyBackground(BufferedImage img, String desc) {
+        canvas.setBackgroundImage(img, desc);
+    }
+
+    /**
+     * Size that character sprites are scaled to (both sprite slots share it).
+     * Used by AssetPrefetcher to build sprites ahead of time.
+     * 
+     * @return The sprite slot size
+     */
+    Dimension getSpriteSlotSize() {
+        return GameCanvas.Slot.LEFT.bounds.getSize();
+    }
+
+    /**
+     * Size that background images are scaled to.
+     * Used by AssetPrefetcher to build backgrounds ahead of time.
+     * 
+     * @return The scene size
+     */
+    Dimension getBackgroundSize() {
+        return new Dimension(GameCanvas.SCENE_WIDTH, GameCanvas.SCENE_HEIGHT);
+    }
+
+    /**
+     * Get the path of the current background image.
+     * Set as soon as a background is requested, even if it is still loading.
+     * Used for save/load functionality.
+     * 
+     * @return The asset name of the background, or null if none was set
+     */
+    @Override
+    public String getBackgroundPath() {
+        return backgroundPath;
     }
 
     /**
@@ -701,9 +563,9 @@ public class GameFrame extends JFrame {
      * @param durationMs  How long the fade should take (in milliseconds)
      * @param onFullBlack Callback to run when screen is fully black
      */
-    public static void fadeToBlack(int durationMs, Runnable onFullBlack) {
-        instance.fadePanel.setVisible(true);
-        instance.fadePanel.fadeIn(durationMs, onFullBlack);
+    @Override
+    public void fadeToBlack(int durationMs, Runnable onFullBlack) {
+        canvas.fadeIn(durationMs, onFullBlack);
     }
 
     /**
@@ -713,7 +575,7 @@ public class GameFrame extends JFrame {
      * @param path       The new background image path
      * @param durationMs Total duration of the crossfade effect
      */
-    public static void crossfadeBackground(String path, int durationMs) {
+    public void crossfadeBackground(String path, int durationMs) {
         fadeToBlack(durationMs / 2, () -> {
             setBackgroundImage(path);
             fadeFromBlack(durationMs / 2, null);
@@ -726,12 +588,9 @@ public class GameFrame extends JFrame {
      * @param durationMs How long the fade should take (in milliseconds)
      * @param onComplete Callback to run when fade is complete
      */
-    public static void fadeFromBlack(int durationMs, Runnable onComplete) {
-        instance.fadePanel.fadeOut(durationMs, () -> {
-            instance.fadePanel.setVisible(false);
-            if (onComplete != null)
-                onComplete.run();
-        });
+    @Override
+    public void fadeFromBlack(int durationMs, Runnable onComplete) {
+        canvas.fadeOut(durationMs, onComplete);
     }
 
     /**
@@ -739,16 +598,14 @@ public class GameFrame extends JFrame {
      * after the memory becomes broken (story mechanic).
      * Shows a visual flash, plays glitch sound, and displays a warning message.
      */
-    public static void triggerRememberGlitch() {
+    @Override
+    public void triggerRememberGlitch() {
         // Short flash + play glitch sound
-        instance.fadePanel.flashOnce(120);
+        canvas.flashOnce(120);
         AudioPlayer.play("assets/audio/glitch_short.wav", false);
         // Show message after slight delay
-        new Timer(250, e -> {
-            ((Timer) e.getSource()).stop();
-            JOptionPane.showMessageDialog(null, "I don't want to remember this.", "Memory",
-                    JOptionPane.WARNING_MESSAGE);
-        }).start();
+        AnimationScheduler.delay(250, () -> JOptionPane.showMessageDialog(null, "I don't want to remember this.",
+                "Memory", JOptionPane.WARNING_MESSAGE));
     }
 
     /**
@@ -756,8 +613,9 @@ public class GameFrame extends JFrame {
      * 
      * @param ms Duration of the flash in milliseconds
      */
-    public static void flashOnce(int ms) {
-        instance.fadePanel.flashOnce(ms);
+    @Override
+    public void flashOnce(int ms) {
+        canvas.flashOnce(ms);
     }
 
     /**
@@ -767,14 +625,18 @@ public class GameFrame extends JFrame {
      * 
      * @param alpha Transparency value (0.0 - 1.0)
      */
-    public static void setFadeAlpha(float alpha) {
+    @Override
+    public void setFadeAlpha(float alpha) {
         if (alpha < 0f)
             alpha = 0f;
         if (alpha > 1f)
             alpha = 1f;
-        instance.fadePanel.setAlpha(alpha);
-        instance.fadePanel.setVisible(alpha > 0f);
-        instance.ensureFadePanelOnTop();
+        canvas.setOverlayAlpha(alpha);
+    }
+
+    @Override
+    public float getFadeAlpha() {
+        return canvas.getOverlayAlpha();
     }
 
     /**
@@ -786,949 +648,127 @@ public class GameFrame extends JFrame {
      * @param delayMs How long to wait before showing the button
      * @param onClick Callback when button is clicked
      */
-    public static void showCenteredButtonAfterDelay(String text, int delayMs, Runnable onClick) {
-        new Timer(delayMs, e -> {
-            ((Timer) e.getSource()).stop();
+    @Override
+    public void showCenteredButtonAfterDelay(String text, int delayMs, Runnable onClick) {
+        AnimationScheduler.delay(delayMs, () -> {
             JButton btn = new JButton(text);
             btn.setFocusable(false);
-            btn.setBounds((instance.getWidth() - 200) / 2, (instance.getHeight() - 40) / 2, 200, 40);
-            instance.getLayeredPane().add(btn, JLayeredPane.POPUP_LAYER);
+            btn.setBounds((getWidth() - 200) / 2, (getHeight() - 40) / 2, 200, 40);
+            getLayeredPane().add(btn, JLayeredPane.POPUP_LAYER);
             btn.addActionListener(ae -> {
-                instance.getLayeredPane().remove(btn);
-                instance.repaint();
+                getLayeredPane().remove(btn);
+                repaint();
                 if (onClick != null)
                     onClick.run();
             });
-            instance.ensureFadePanelOnTop();
-        }).start();
-    }
-
-    // ===== INNER FADE PANEL CLASS =====
-    /**
-     * Inner class that handles fade effects and centered text rendering.
-     * Draws a semi-transparent black overlay and optional centered text on top.
-     */
-    private class FadePanel extends JPanel {
-        /** Current transparency of the black overlay (0.0 - 1.0) */
-        private float alpha = 0f;
-
-        /** Text to display centered on screen */
-        private String centeredText = null;
-
-        /** Whether to show the centered text */
-        private boolean showCentered = false;
-
-        public FadePanel() {
-            setOpaque(false); // Allow background to show through when transparent
-        }
-
-        @Override
-        public void setVisible(boolean v) {
-            super.setVisible(v);
-            // Keep fade panel on top whenever visible
-            if (v)
-                ensureFadePanelOnTop();
-        }
-
-        /**
-         * Set the text to display centered on the screen.
-         * 
-         * @param t The text to show
-         */
-        public void setCenteredText(String t) {
-            centeredText = t;
-        }
-
-        /**
-         * Control whether to show the centered text.
-         * 
-         * @param v True to show, false to hide
-         */
-        public void setShowCenteredText(boolean v) {
-            showCentered = v;
-        }
-
-        /**
-         * Manually set the fade overlay's alpha (transparency).
-         * 
-         * @param a Alpha value (0.0 = transparent, 1.0 = opaque)
-         */
-        public void setAlpha(float a) {
-            alpha = Math.max(0f, Math.min(1f, a));
-            repaint();
-        }
-
-        @Override
-        protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-            Graphics2D g2 = (Graphics2D) g.create();
-
-            // Draw black overlay with current alpha (transparency)
-            g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
-            g2.setColor(Color.BLACK);
-            g2.fillRect(0, 0, getWidth(), getHeight());
-
-            // Draw centered text on top (always fully opaque)
-            if (showCentered && centeredText != null) {
-                g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1f));
-                g2.setColor(Color.WHITE);
-                g2.setFont(new Font("Serif", Font.BOLD, 36));
-                FontMetrics fm = g2.getFontMetrics();
-                int w = fm.stringWidth(centeredText);
-                int x = (getWidth() - w) / 2;
-                int y = (getHeight()) / 2;
-                g2.drawString(centeredText, x, y);
-            }
-            g2.dispose();
-        }
-
-        /**
-         * Fade in to full black over the specified duration.
-         * Calls onFullBlack when fully black.
-         * 
-         * @param durationMs  How long the fade takes
-         * @param onFullBlack Callback when fully black
-         */
-        public void fadeIn(int durationMs, Runnable onFullBlack) {
-            int interval = 40; // Update every 40ms (smooth animation)
-            int steps = Math.max(1, durationMs / interval);
-            alpha = 0f;
-            Timer t = new Timer(interval, null);
-            final int[] count = { 0 };
-            t.addActionListener(e -> {
-                count[0]++;
-                alpha = Math.min(1f, (float) count[0] / steps);
-                repaint();
-                if (alpha >= 1f) {
-                    t.stop();
-                    if (onFullBlack != null)
-                        onFullBlack.run();
-                }
-            });
-            t.start();
-        }
-
-        /**
-         * Fade out from black to fully transparent.
-         * 
-         * @param durationMs How long the fade takes
-         * @param onComplete Callback when fully transparent
-         */
-        public void fadeOut(int durationMs, Runnable onComplete) {
-            int interval = 40; // Update every 40ms
-            int steps = Math.max(1, durationMs / interval);
-            alpha = 1f;
-            Timer t = new Timer(interval, null);
-            final int[] count = { 0 };
-            t.addActionListener(e -> {
-                count[0]++;
-                alpha = Math.max(0f, 1f - (float) count[0] / steps);
-                repaint();
-                if (alpha <= 0f) {
-                    t.stop();
-                    if (onComplete != null)
-                        onComplete.run();
-                }
-            });
-            t.start();
-        }
-
-        /**
-         * One quick flash effect (brief white flash, not fade).
-         * 
-         * @param ms Duration of the flash
-         */
-        public void flashOnce(int ms) {
-            setVisible(true);
-            setCenteredText(null);
-            alpha = 0.7f; // 70% opaque = visible flash
-            repaint();
-            new Timer(ms, e -> {
-                alpha = 0f;
-                repaint();
-                ((Timer) e.getSource()).stop();
-            }).start();
-        }
+        });
     }
 
-    // ===== FIELDS FOR NAMED SPEECH AND FADE =====
-    /** Panel showing character name and speech (top right) */
-    private JPanel namedPanel;
-
-    /** Label for the speaker's name */
-    private JLabel nameLabel;
-
-    /** Text area for the speaker's message */
-    private JTextArea messageArea;
-
-    /** The fade panel for transitions */
-    private FadePanel fadePanel;
-
-    /**
-     * Helper to keep z-order (layering) consistent.
-     * Ensures fade panel stays on top of all other elements.
-     */
-    private void ensureFadePanelOnTop() {
-        try {
-            java.awt.Container cp = getContentPane();
-            // If fade panel is on the layered pane, move it to front there
-            if (fadePanel.getParent() == getLayeredPane()) {
-                getLayeredPane().moveToFront(fadePanel);
-            } else {
-                cp.setComponentZOrder(fadePanel, 0); // 0 = top
-            }
-            // Some platforms need repaint to refresh stacking
-            fadePanel.repaint();
-            cp.repaint();
-        } catch (Exception e) {
-            System.out.println("Failed to bring fade panel to front: " + e.getMessage());
-        }
-    }
+    // ===== CONTROLS =====
 
     /**
-     * Ensure UI elements stay in the correct order (z-order).
-     * Prevents sprites from covering buttons, dialogue from being hidden, etc.
+     * Connect the Next and Remember buttons.
+     * 
+     * @param onNext     Run when Next is clicked
+     * @param onRemember Run when Remember is clicked
      */
-    private void ensureUIZOrder() {
-        try {
-            java.awt.Container cp = getContentPane();
-            // 0 is top; we want fadePanel at 0, then important UI elements above background
-            if (fadePanel != null)
-                cp.setComponentZOrder(fadePanel, 0);
-            // Place main controls above background (higher numbers = lower in stack)
-            cp.setComponentZOrder(nextButton, 1);
-            cp.setComponentZOrder(rememberButton, 2);
-            cp.setComponentZOrder(dialogue, 3);
-            cp.setComponentZOrder(namedPanel, 4);
-            cp.setComponentZOrder(leftSprite, 5);
-            cp.setComponentZOrder(rightSprite, 6);
-            cp.setComponentZOrder(background, cp.getComponentCount() - 1); // Bottom
-        } catch (Exception e) {
-            System.out.println("Failed to enforce UI z-order: " + e.getMessage());
-        } finally {
-            // Always ensure fade panel is at the absolute front
-            ensureFadePanelOnTop();
-        }
-    }
-
-}
-
-    public GameFrame() {
-        setTitle("Silent Convent");
-        setSize(1280, 740);
-        setDefaultCloseOperation(EXIT_ON_CLOSE);
-        setLayout(null);
-
-        background = new JLabel();
-        background.setBounds(0, 0, 1280, 720);
-        add(background);
-
-        dialogue = new JTextArea();
-        dialogue.setBounds(100, 500, 1080, 150);
-        dialogue.setEditable(false);
-        dialogue.setLineWrap(true);
-        dialogue.setWrapStyleWord(true);
-        dialogue.setFont(new Font("Serif", Font.PLAIN, 22));
-        dialogue.setBackground(new Color(0, 0, 0, 180));
-        dialogue.setForeground(Color.WHITE);
-        add(dialogue);
-
-        nextButton = new JButton("Next");
-        nextButton.setBounds(1100, 660, 100, 30);
-        add(nextButton);
-
-        rememberButton = new JButton("Remember");
-        rememberButton.setBounds(50, 660, 150, 30);
-        add(rememberButton);
-
-        // Main Menu button available in gameplay to return to main menu
-        mainMenuButton = new JButton("Main Menu");
-        mainMenuButton.setBounds((1280 - 150) / 2, 660, 150, 30);
-        add(mainMenuButton);
-        mainMenuButton.addActionListener(e -> {
-            // Show main menu dialog without stopping the game
-            MainMenu.open();
-        });
-
-        // Named speech box (top-right)
-        namedPanel = new JPanel();
-        namedPanel.setLayout(new BorderLayout());
-        namedPanel.setBounds(860, 20, 380, 120);
-        namedPanel.setBackground(new Color(0, 0, 0, 160));
-        namedPanel.setBorder(BorderFactory.createLineBorder(Color.DARK_GRAY, 1));
-        nameLabel = new JLabel("", SwingConstants.LEFT);
-        nameLabel.setFont(new Font("Serif", Font.BOLD, 16));
-        nameLabel.setForeground(Color.WHITE);
-        messageArea = new JTextArea();
-        messageArea.setEditable(false);
-        messageArea.setLineWrap(true);
-        messageArea.setWrapStyleWord(true);
-        messageArea.setOpaque(false);
-        messageArea.setForeground(Color.WHITE);
-        namedPanel.add(nameLabel, BorderLayout.NORTH);
-        namedPanel.add(messageArea, BorderLayout.CENTER);
-        namedPanel.setVisible(false);
-        add(namedPanel);
-
-        // Debug overlay (top-left) to help verify loaded assets
-        JLabel debugLabel = new JLabel();
-        debugLabel.setBounds(10, 10, 420, 80);
-        debugLabel.setOpaque(true);
-        debugLabel.setBackground(new Color(0, 0, 0, 120));
-        debugLabel.setForeground(Color.WHITE);
-        debugLabel.setFont(new Font("Monospaced", Font.PLAIN, 12));
-        debugLabel.setVerticalAlignment(SwingConstants.TOP);
-        debugLabel.setText("Debug: ");
-        debugLabel.setVisible(false); // hide by default in release builds
-        add(debugLabel);
-        this.debugLabel = debugLabel;
-        // Character sprites (left and right) narrower and shorter to fit within frame
-        leftSprite = new JLabel();
-        leftSprite.setBounds(60, 200, 220, 380);
-        leftSprite.setHorizontalAlignment(SwingConstants.CENTER);
-        add(leftSprite);
-
-        rightSprite = new JLabel();
-        rightSprite.setBounds(1000, 200, 220, 380);
-        rightSprite.setHorizontalAlignment(SwingConstants.CENTER);
-        add(rightSprite);
-
-        // Fade overlay panel (draws black with variable alpha + centered text)
-        fadePanel = new FadePanel();
-        fadePanel.setBounds(0, 0, 1280, 720);
-        fadePanel.setVisible(false);
-        // Add fade panel to the layered pane to ensure it stays above background and
-        // sprites
-        getLayeredPane().add(fadePanel, JLayeredPane.POPUP_LAYER);
-
-        instance = this;
-        // Ensure background sits at the bottom layer so UI components remain visible
-        ensureBackgroundAtBottom();
-        // Keep SceneManager.start() out of the constructor so main menu can control
-        // startup
-        // SceneManager.start();
-        // center window on screen
-        setLocationRelativeTo(null);
-        // Do not auto-show the frame here so the Main Menu can control when it appears.
-        // allow other classes to get the active frame
+    @Override
+    public void bindControls(Runnable onNext, Runnable onRemember) {
+        nextButton.addActionListener(e -> onNext.run());
+        rememberButton.addActionListener(e -> onRemember.run());
     }
 
-    public static GameFrame getInstance() {
-        return instance;
-    }
-
-    // Ensure an instance exists. Call this before trying to access the frame from
-    // startup code.
-    public static void ensureCreated() {
-        if (instance == null)
-            new GameFrame();
+    @Override
+    public void setNextEnabled(boolean enabled) {
+        nextButton.setEnabled(enabled);
     }
 
-    /** Ensure the background label is placed at the back of the content pane. */
-    private void ensureBackgroundAtBottom() {
-        try {
-            java.awt.Container cp = getContentPane();
-            int bottomIndex = Math.max(0, cp.getComponentCount() - 1);
-            cp.setComponentZOrder(background, bottomIndex);
-            background.repaint();
-        } catch (Exception e) {
-            System.out.println("Failed to adjust background z-order: " + e.getMessage());
-        }
+    @Override
+    public void setRememberVisible(boolean visible) {
+        rememberButton.setVisible(visible);
     }
 
-    // --- Dialogue helper: clears & sets text neatly ---
-    public static void showDialogue(String text) {
-        instance.dialogue.setVisible(true);
-        instance.dialogue.setText("");
-        instance.dialogue.setText(text);
-        instance.dialogue.setCaretPosition(0);
-        instance.dialogue.repaint();
-    }
-
-    private void updateDebugOverlay() {
-        try {
-            String bg = "(none)";
-            if (background.getIcon() instanceof ImageIcon)
-                bg = ((ImageIcon) background.getIcon()).getDescription();
-            String left = "(none)";
-            if (leftSprite.getIcon() instanceof ImageIcon)
-                left = ((ImageIcon) leftSprite.getIcon()).getDescription();
-            String right = "(none)";
-            if (rightSprite.getIcon() instanceof ImageIcon)
-                right = ((ImageIcon) rightSprite.getIcon()).getDescription();
-            String s = "BG: " + bg + "<br>Left: " + left + "<br>Right: " + right;
-            if (debugLabel != null)
-                debugLabel.setText("<html>" + s + "</html>");
-        } catch (Exception e) {
-            System.out.println("Failed to update debug overlay: " + e.getMessage());
-        }
-    }
-
-    // Show a line; if it is in the format "[Name] message" show it in the named
-    // speech box.
-    public static void showLine(String s) {
-        if (s == null)
-            return;
-        s = s.trim();
-        // [Name] message format (explicit)
-        if (s.startsWith("[") && s.contains("]")) {
-            int end = s.indexOf(']');
-            String name = s.substring(1, end).trim();
-            String msg = s.substring(end + 1).trim();
-            showNamedSpeech(name, msg);
-            // hide main dialogue while named speech shows
-            instance.dialogue.setText("");
-            instance.dialogue.setVisible(false);
-            return;
-        }
-
-        // Name: message format (e.g., "Agnes: Hello") — detect a single word name
-        // before ':'
-        int colon = s.indexOf(':');
-        if (colon > 0) {
-            String maybeName = s.substring(0, colon).trim();
-            if (maybeName.matches("^[A-Za-zÀ-ÖØ-öø-ÿ]+$")) {
-                String msg = s.substring(colon + 1).trim();
-                showNamedSpeech(maybeName, msg);
-                instance.dialogue.setText("");
-                instance.dialogue.setVisible(false);
-                return;
-            }
-        }
-
-        // Quoted speech - assume Agnes as default speaker when lines contain quoted
-        // text
-        if (s.contains("\"") || (s.startsWith("\"") && s.length() > 1)) {
-            String msg = s.replace("\"", "").trim();
-            showNamedSpeech("Agnes", msg);
-            instance.dialogue.setText("");
-            instance.dialogue.setVisible(false);
-            return;
-        }
-
-        // Fallback: plain dialogue line
-        clearNamedSpeech();
-        // When a plain narrative line is shown, clear visible speaker sprites so they
-        // don't linger
-        clearCharacters();
-        showDialogue(s);
-    }
-
-    public static void showNamedSpeech(String name, String msg) {
-        instance.nameLabel.setText(name);
-        instance.messageArea.setText(msg);
-        instance.namedPanel.setVisible(true);
-        // attempt to show speaker sprite(s)
-        showSpeaker(name);
-        // ensure UI remains above the background and fade panel is still on top
-        instance.ensureUIZOrder();
-    }
-
-    public static void clearNamedSpeech() {
-        instance.nameLabel.setText("");
-        instance.messageArea.setText("");
-        instance.namedPanel.setVisible(false);
-    }
-
-    private static void showSpeaker(String name) {
-        // If the name string contains a comma, show both speakers
-        if (name.contains(",")) {
-            String[] parts = name.split(",");
-            showLeftCharacter(parts[0].trim());
-            showRightCharacter(parts[1].trim());
-            dimLeft(false);
-            dimRight(true);
-        } else if (name.contains("|")) {
-            String[] parts = name.split("\\|");
-            showLeftCharacter(parts[0].trim());
-            showRightCharacter(parts[1].trim());
-            // first is speaker
-            dimLeft(false);
-            dimRight(true);
-        } else {
-            showRightCharacter(name.trim());
-            dimLeft(true);
-            dimRight(false);
-        }
-    }
-
-    public static void showLeftCharacter(String charName) {
-        setSpriteForLabel(instance.leftSprite, charName + "_Left.png");
-    }
-
-    public static void showRightCharacter(String charName) {
-        setSpriteForLabel(instance.rightSprite, charName + ".png");
-    }
-
-    public static void clearCharacters() {
-        instance.leftSprite.setIcon(null);
-        instance.rightSprite.setIcon(null);
-        System.out.println("Cleared characters");
-        if (instance != null)
-            instance.updateDebugOverlay();
+    /**
+     * Ask the player to choose in a modal dialog over the dimmed game screen.
+     * 
+     * @param prompt  The question
+     * @param options Option labels
+     * @return Index of the chosen option, or -1 if cancelled
+     */
+    @Override
+    public int choose(String prompt, String[] options) {
+        return ChoiceDialog.showChoices(null, prompt, options);
     }
 
-    private static void setSpriteForLabel(JLabel lbl, String filename) {
-        try {
-            // Try a list of candidates: raw filename, assets/images/filename, lowercase
-            // variants
-            String[] candidates = new String[] {
-                    filename,
-                    "assets/images/" + filename,
-                    filename.toLowerCase(),
-                    "assets/images/" + filename.toLowerCase()
-            };
-
-            java.io.File chosen = null;
-            // Also try common subfolders (e.g., Nun portraits)
-            java.util.List<String> extras = new java.util.ArrayList<>();
-            extras.addAll(java.util.Arrays.asList(candidates));
-            for (String c : new String[] { "assets/images/Nun portraits/" + filename,
-                    "assets/images/Nun portraits/" + filename.toLowerCase() })
-                extras.add(c);
-
-            for (String c : extras) {
-                java.io.File f = new java.io.File(c);
-                if (f.exists()) {
-                    chosen = f;
-                    break;
-                }
-            }
-
-            if (chosen == null) {
-                System.out.println("Sprite not found: " + filename);
-                lbl.setIcon(null);
-                if (instance != null)
-                    instance.updateDebugOverlay();
-                return;
-            }
-
-            BufferedImage img = ImageIO.read(chosen);
-
-            int targetW = lbl.getWidth() > 0 ? lbl.getWidth() : img.getWidth();
-            int targetH = lbl.getHeight() > 0 ? lbl.getHeight() : img.getHeight();
-            // Preserve aspect ratio while fitting into targetW x targetH
-            double iw = img.getWidth();
-            double ih = img.getHeight();
-            double ratio = iw / ih;
-            int scaledW = targetW;
-            int scaledH = (int) Math.round(targetW / ratio);
-            if (scaledH > targetH) {
-                scaledH = targetH;
-                scaledW = (int) Math.round(targetH * ratio);
-            }
-
-            Image scaled = img.getScaledInstance(scaledW, scaledH, Image.SCALE_SMOOTH);
-            // Draw centered onto a transparent canvas of size targetW x targetH so the
-            // sprite doesn't stretch or shift
-            BufferedImage canvas = new BufferedImage(targetW, targetH, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D g2 = canvas.createGraphics();
-            g2.setComposite(AlphaComposite.SrcOver);
-            int x = (targetW - scaledW) / 2;
-            int y = (targetH - scaledH) / 2;
-            g2.drawImage(scaled, x, y, scaledW, scaledH, null);
-            g2.dispose();
-
-            ImageIcon ic = new ImageIcon(canvas);
-            ic.setDescription(chosen.getAbsolutePath());
-            lbl.setIcon(ic);
-            lbl.repaint();
-            System.out.println("Loaded sprite for " + filename + ": " + chosen.getAbsolutePath());
-            if (instance != null)
-                instance.updateDebugOverlay();
-        } catch (Exception e) {
-            System.out.println("Failed to load sprite " + filename + ": " + e.getMessage());
-            lbl.setIcon(null);
-            if (instance != null)
-                instance.updateDebugOverlay();
-        }
+    @Override
+    public void showMainMenu() {
+        MainMenu.open();
     }
 
-    private static void dimLeft(boolean dim) {
-        applyDimToLabel(instance.leftSprite, dim);
+    /**
+     * Run something after a delay on the Event Dispatch Thread (see
+     * AnimationScheduler).
+     * 
+     * @param ms   How long to wait
+     * @param task What to run
+     */
+    @Override
+    public void delay(int ms, Runnable task) {
+        AnimationScheduler.delay(ms, task);
     }
 
-    private static void dimRight(boolean dim) {
-        applyDimToLabel(instance.rightSprite, dim);
-    }
+    // ===== AUDIO (played through AudioPlayer) =====
 
-    // Apply a translucent black overlay to the given JLabel's icon to produce a
-    // dimmed look
-    private static void applyDimToLabel(JLabel lbl, boolean dim) {
-        try {
-            if (lbl.getIcon() == null)
-                return;
-            ImageIcon icon = (ImageIcon) lbl.getIcon();
-            String desc = icon.getDescription();
-            if (desc == null)
-                return;
-            java.io.File f = new java.io.File(desc);
-            if (!f.exists())
-                return;
-            BufferedImage img = ImageIO.read(f);
-            int targetW = lbl.getWidth() > 0 ? lbl.getWidth() : img.getWidth();
-            int targetH = lbl.getHeight() > 0 ? lbl.getHeight() : img.getHeight();
-            double iw = img.getWidth();
-            double ih = img.getHeight();
-            double ratio = iw / ih;
-            int scaledW = targetW;
-            int scaledH = (int) Math.round(targetW / ratio);
-            if (scaledH > targetH) {
-                scaledH = targetH;
-                scaledW = (int) Math.round(targetH * ratio);
-            }
-            Image scaled = img.getScaledInstance(scaledW, scaledH, Image.SCALE_SMOOTH);
-            BufferedImage canvas = new BufferedImage(targetW, targetH, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D g2 = canvas.createGraphics();
-            g2.setComposite(AlphaComposite.SrcOver);
-            int x = (targetW - scaledW) / 2;
-            int y = (targetH - scaledH) / 2;
-            g2.drawImage(scaled, x, y, scaledW, scaledH, null);
-            if (dim) {
-                g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f));
-                g2.setColor(Color.BLACK);
-                g2.fillRect(0, 0, targetW, targetH);
-            }
-            g2.dispose();
-            ImageIcon ic = new ImageIcon(canvas);
-            ic.setDescription(desc);
-            lbl.setIcon(ic);
-            lbl.repaint();
-        } catch (Exception e) {
-            System.out.println("Failed to apply dim: " + e.getMessage());
-        }
+    @Override
+    public void playAudio(String path, boolean loop, float localMultiplier) {
+        AudioPlayer.play(path, loop, localMultiplier);
     }
 
-    public static void hideDialogue() {
-        instance.dialogue.setVisible(false);
+    @Override
+    public void playAudioFrom(String path, boolean loop, float localMultiplier, long frame) {
+        AudioPlayer.playFrom(path, loop, localMultiplier, frame);
     }
 
-    public static void showCenteredText(String text) {
-        instance.fadePanel.setCenteredText(text);
-        instance.fadePanel.setShowCenteredText(true);
-        // ensure fade overlay is visible and topmost so centered text is not occluded
-        // by sprites/background
-        instance.fadePanel.setVisible(true);
-        instance.fadePanel.repaint();
-        instance.ensureFadePanelOnTop();
+    @Override
+    public void stopAudio() {
+        AudioPlayer.stop();
     }
 
-    public static void hideCenteredText() {
-        instance.fadePanel.setShowCenteredText(false);
-        instance.fadePanel.repaint();
+    @Override
+    public void crossfadeAudio(String path, int ms) {
+        AudioPlayer.crossfadeTo(path, ms);
     }
 
-    public static void setBackgroundImage(String path) {
-        if (path == null)
-            return;
-        try {
-            // Build candidate paths to try (handle both full and partial paths, case
-            // variants, and missing extension)
-            String base = path;
-            if (base.startsWith("assets/"))
-                base = base.substring("assets/".length());
-            if (base.startsWith("images/"))
-                base = base.substring("images/".length());
-            base = base.replaceAll("^/", "");
-            String nameNoExt = base;
-            if (nameNoExt.contains("."))
-                nameNoExt = nameNoExt.substring(0, nameNoExt.lastIndexOf('.'));
-
-            java.util.List<String> candList = new java.util.ArrayList<>();
-            candList.add(path);
-            candList.add("assets/images/" + path);
-            candList.add("assets/images/" + nameNoExt + ".png");
-            candList.add("assets/images/" + nameNoExt + ".PNG");
-            candList.add("assets/images/" + nameNoExt + ".jpg");
-            candList.add("assets/images/" + nameNoExt + ".jpeg");
-            candList.add("assets/images/" + nameNoExt);
-            candList.add("assets/images/bg_" + nameNoExt + ".PNG");
-            candList.add("assets/images/bg_" + nameNoExt + ".png");
-            candList.add("assets/images/bg_" + nameNoExt + "_day.PNG");
-            candList.add("assets/images/bg_" + nameNoExt + "_day.png");
-            candList.add("assets/images/bg_" + nameNoExt + "_day_calm.PNG");
-            candList.add("assets/images/bg_" + nameNoExt + "_calm.PNG");
-
-            // If the base had two parts like place_mood try to expand to day variants
-            if (nameNoExt.contains("_")) {
-                String[] parts = nameNoExt.split("_");
-                if (parts.length >= 2) {
-                    String place = parts[0];
-                    String mood = parts[1];
-                    candList.add("assets/images/bg_" + place + "_day_" + mood + ".PNG");
-                    candList.add("assets/images/bg_" + place + "_day_" + mood + ".png");
-                    candList.add("assets/images/bg_" + place + "_" + mood + ".PNG");
-                    candList.add("assets/images/bg_" + place + "_" + mood + ".png");
-                }
-            }
-
-            String[] candidates = candList.toArray(new String[0]);
-            java.io.File f = null;
-            for (String c : candidates) {
-                java.io.File tf = new java.io.File(c);
-                if (tf.exists()) {
-                    f = tf;
-                    break;
-                }
-            }
-
-            if (f == null) {
-                System.out.println("Background image not found (tried candidates). Requested: " + path);
-                for (String c : candidates)
-                    System.out.println(" - " + c);
-                return;
-            }
-
-            // Load and scale to label size
-            BufferedImage img = ImageIO.read(f);
-            int w = instance.background.getWidth();
-            int h = instance.background.getHeight();
-            if (w <= 0 || h <= 0) {
-                // fallback to image original size
-                ImageIcon ic = new ImageIcon(img);
-                ic.setDescription(f.getAbsolutePath());
-                instance.background.setIcon(ic);
-                return;
-            }
-
-            Image scaled = img.getScaledInstance(w, h, Image.SCALE_SMOOTH);
-            ImageIcon ic = new ImageIcon(scaled);
-            ic.setDescription(f.getAbsolutePath());
-            instance.background.setIcon(ic);
-            instance.background.repaint();
-            // Ensure the background remains at the back after changing the icon
-            instance.ensureBackgroundAtBottom();
-            // Re-assert UI z-order so overlays remain visible
-            instance.ensureUIZOrder();
-            instance.updateDebugOverlay();
-        } catch (Exception e) {
-            System.out.println("Failed to set background: " + e.getMessage());
-        }
+    @Override
+    public void fadeVolume(float linear, int ms) {
+        AudioPlayer.fadeTo(linear, ms);
     }
 
-    public static void fadeToBlack(int durationMs, Runnable onFullBlack) {
-        instance.fadePanel.setVisible(true);
-        instance.fadePanel.fadeIn(durationMs, onFullBlack);
+    @Override
+    public float getVolume() {
+        return AudioPlayer.getVolume();
     }
 
     /**
-     * Convenience: crossfade background quickly (fade out, set background, fade in)
+     * Start decoding a scene's backgrounds, portraits and music in the
+     * background (see AssetPrefetcher).
+     * 
+     * @param scene The scene that is about to be shown
      */
-    public static void crossfadeBackground(String path, int durationMs) {
-        fadeToBlack(durationMs / 2, () -> {
-            setBackgroundImage(path);
-            fadeFromBlack(durationMs / 2, null);
-        });
-    }
-
-    public static void fadeFromBlack(int durationMs, Runnable onComplete) {
-        instance.fadePanel.fadeOut(durationMs, () -> {
-            instance.fadePanel.setVisible(false);
-            if (onComplete != null)
-                onComplete.run();
-        });
-    }
-
-    // Trigger a visual & audio 'glitch' when Remember is pressed after memory is
-    // broken
-    public static void triggerRememberGlitch() {
-        // short flash + play glitch sound
-        instance.fadePanel.flashOnce(120);
-        AudioPlayer.play("assets/audio/glitch_short.wav", false);
-        // show message after slight delay
-        new Timer(250, e -> {
-            ((Timer) e.getSource()).stop();
-            JOptionPane.showMessageDialog(null, "I don't want to remember this.", "Memory",
-                    JOptionPane.WARNING_MESSAGE);
-        }).start();
-    }
-
-    // Simple wrapper to flash without showing the warning message
-    public static void flashOnce(int ms) {
-        instance.fadePanel.flashOnce(ms);
-    }
-
-    // Set fade overlay alpha (0.0 - 1.0) for dimming effects
-    public static void setFadeAlpha(float alpha) {
-        if (alpha < 0f)
-            alpha = 0f;
-        if (alpha > 1f)
-            alpha = 1f;
-        instance.fadePanel.setAlpha(alpha);
-        instance.fadePanel.setVisible(alpha > 0f);
-        instance.ensureFadePanelOnTop();
-    }
-
-    // Show a centered button on top of the fade panel after a delay; clicking it
-    // runs the callback
-    public static void showCenteredButtonAfterDelay(String text, int delayMs, Runnable onClick) {
-        new Timer(delayMs, e -> {
-            ((Timer) e.getSource()).stop();
-            JButton btn = new JButton(text);
-            btn.setFocusable(false);
-            btn.setBounds((instance.getWidth() - 200) / 2, (instance.getHeight() - 40) / 2, 200, 40);
-            instance.getLayeredPane().add(btn, JLayeredPane.POPUP_LAYER);
-            btn.addActionListener(ae -> {
-                instance.getLayeredPane().remove(btn);
-                instance.repaint();
-                if (onClick != null)
-                    onClick.run();
-            });
-            instance.ensureFadePanelOnTop();
-        }).start();
+    @Override
+    public void prefetch(Scene scene) {
+        AssetPrefetcher.prefetch(scene);
     }
 
-    // --- Inner fade panel class ---
-    private class FadePanel extends JPanel {
-        private float alpha = 0f;
-        private String centeredText = null;
-        private boolean showCentered = false;
-
-        public FadePanel() {
-            setOpaque(false);
-        }
-
-        @Override
-        public void setVisible(boolean v) {
-            super.setVisible(v);
-            // keep fade panel on top whenever visible
-            if (v)
-                ensureFadePanelOnTop();
-        }
-
-        public void setCenteredText(String t) {
-            centeredText = t;
-        }
-
-        public void setShowCenteredText(boolean v) {
-            showCentered = v;
-        }
-
-        // Allow external control of the dim alpha
-        public void setAlpha(float a) {
-            alpha = Math.max(0f, Math.min(1f, a));
-            repaint();
-        }
-
-        @Override
-        protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-            Graphics2D g2 = (Graphics2D) g.create();
-            // draw black with alpha
-            g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
-            g2.setColor(Color.BLACK);
-            g2.fillRect(0, 0, getWidth(), getHeight());
-            // draw centered text (always full opacity)
-            if (showCentered && centeredText != null) {
-                g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1f));
-                g2.setColor(Color.WHITE);
-                g2.setFont(new Font("Serif", Font.BOLD, 36));
-                FontMetrics fm = g2.getFontMetrics();
-                int w = fm.stringWidth(centeredText);
-                int x = (getWidth() - w) / 2;
-                int y = (getHeight()) / 2;
-                g2.drawString(centeredText, x, y);
-            }
-            g2.dispose();
-        }
-
-        // fade in to full black over durationMs then call onFullBlack
-        public void fadeIn(int durationMs, Runnable onFullBlack) {
-            int interval = 40;
-            int steps = Math.max(1, durationMs / interval);
-            alpha = 0f;
-            Timer t = new Timer(interval, null);
-            final int[] count = { 0 };
-            t.addActionListener(e -> {
-                count[0]++;
-                alpha = Math.min(1f, (float) count[0] / steps);
-                repaint();
-                if (alpha >= 1f) {
-                    t.stop();
-                    if (onFullBlack != null)
-                        onFullBlack.run();
-                }
-            });
-            t.start();
-        }
-
-        // fade out from black to transparent
-        public void fadeOut(int durationMs, Runnable onComplete) {
-            int interval = 40;
-            int steps = Math.max(1, durationMs / interval);
-            alpha = 1f;
-            Timer t = new Timer(interval, null);
-            final int[] count = { 0 };
-            t.addActionListener(e -> {
-                count[0]++;
-                alpha = Math.max(0f, 1f - (float) count[0] / steps);
-                repaint();
-                if (alpha <= 0f) {
-                    t.stop();
-                    if (onComplete != null)
-                        onComplete.run();
-                }
-            });
-            t.start();
-        }
-
-        // one quick flash effect
-        public void flashOnce(int ms) {
-            setVisible(true);
-            setCenteredText(null);
-            alpha = 0.7f;
-            repaint();
-            new Timer(ms, e -> {
-                alpha = 0f;
-                repaint();
-                ((Timer) e.getSource()).stop();
-            }).start();
-        }
-    }
-
-    // fields for named speech and fade
-    private JPanel namedPanel;
-    private JLabel nameLabel;
-    private JTextArea messageArea;
-    private FadePanel fadePanel;
-
-    // helper to keep z-order consistent
-    private void ensureFadePanelOnTop() {
-        try {
-            java.awt.Container cp = getContentPane();
-            // If fade panel is on the layered pane, move it front there
-            if (fadePanel.getParent() == getLayeredPane()) {
-                getLayeredPane().moveToFront(fadePanel);
-            } else {
-                cp.setComponentZOrder(fadePanel, 0); // top
-            }
-            // some platforms need repaint to refresh stacking
-            fadePanel.repaint();
-            cp.repaint();
-        } catch (Exception e) {
-            System.out.println("Failed to bring fade panel to front: " + e.getMessage());
-        }
-    }
-
-    private void ensureUIZOrder() {
-        try {
-            java.awt.Container cp = getContentPane();
-            // 0 is top; we want fadePanel at 0, then important UI elements above background
-            if (fadePanel != null)
-                cp.setComponentZOrder(fadePanel, 0);
-            // place main controls above background
-            cp.setComponentZOrder(nextButton, 1);
-            cp.setComponentZOrder(rememberButton, 2);
-            cp.setComponentZOrder(dialogue, 3);
-            cp.setComponentZOrder(namedPanel, 4);
-            cp.setComponentZOrder(leftSprite, 5);
-            cp.setComponentZOrder(rightSprite, 6);
-            cp.setComponentZOrder(background, cp.getComponentCount() - 1); // bottom
-        } catch (Exception e) {
-            System.out.println("Failed to enforce UI z-order: " + e.getMessage());
-        } finally {
-            // Always ensure fade panel is at the absolute front
-            ensureFadePanelOnTop();
-        }
+    /**
+     * Render a small copy of the scene (see GameCanvas.captureThumbnail).
+     *
+     * @param width  Thumbnail width
+     * @param height Thumbnail height
+     * @return The picture
+     */
+    @Override
+    public BufferedImage captureThumbnail(int width, int height) {
+        return canvas.captureThumbnail(width, height);
     }
 }
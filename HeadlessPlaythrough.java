@@ -0,0 +1,84 @@
+package silentconvent;
+
+
+/**
+ * HeadlessPlaythrough plays the whole story without a window, from Day One to
+ * the ending, by pressing Next until the main menu comes back. It checks that
+ * the scene graph runs end to end and measures how fast the game logic runs
+ * by itself (no drawing, no audio, no waiting on fades).
+ *
+ * Usage (from the game's working directory):
+ * java -cp classes silentconvent.HeadlessPlaythrough [runs] [choice...]
+ *
+ * Each run starts a fresh story on a new HeadlessPresenter. The choices are
+ * the options picked at each choice in turn (default: always the first). The
+ * first run prints every call it made to the presenter; the rest are timed,
+ * and the lines and steps per second are printed at the end. The game's log
+ * is limited to warnings and errors, so it doesn't interleave with the
+ * report (unless a level is given with -Dsilentconvent.log).
+ */
+public class HeadlessPlaythrough {
+
+    /** Next presses after which a run is treated as stuck */
+    private static final int MAX_STEPS = 100_000;
+
+    /**
+     * Run the playthroughs.
+     *
+     * @param args Optional number of runs (default 200), then the choices
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int[] choices = new int[Math.max(0, args.length - 1)];
+        for (int i = 0; i < choices.length; i++)
+            choices[i] = Integer.parseInt(args[i + 1]);
+
+        if (System.getProperty("silentconvent.log") == null)
+            Log.setLevel(Log.Level.WARN);
+        AssetStore.open(AssetStore.DEFAULT_ARCHIVE);
+        AssetIndex.build();
+
+        // One recorded run, to show (and check) what the story does
+        HeadlessPresenter first = new HeadlessPresenter(true, choices);
+        int steps = play(first);
+        for (String event : first.getEvents())
+            System.out.println("  " + event);
+        System.out.println("HeadlessPlaythrough: " + steps + " steps, " + first.getLines().size() + " lines, "
+                + first.getChoicesAsked() + " choices, " + first.getAssets().size() + " assets");
+        if (!first.isFinished()) {
+            System.out.println("HeadlessPlaythrough: the story did not reach the ending");
+            System.exit(1);
+        }
+
+        // Timed runs
+        long totalSteps = 0;
+        long totalLines = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            HeadlessPresenter p = new HeadlessPresenter(false, choices);
+            totalSteps += play(p);
+            totalLines += p.getLines().size();
+        }
+        long elapsed = System.nanoTime() - start;
+        double seconds = elapsed / 1e9;
+        System.out.printf("%d playthroughs in %.3f s: %.1f µs/playthrough, %,.0f lines/s, %,.0f steps/s%n",
+                runs, seconds, elapsed / 1e3 / Math.max(1, runs), totalLines / seconds, totalSteps / seconds);
+    }
+
+    /**
+     * Play one story from the start until it hands back to the main menu.
+     *
+     * @param p The presenter to play on
+     * @return Number of times Next was pressed
+     */
+    static int play(HeadlessPresenter p) {
+        SceneManager.start(p);
+        int steps = 0;
+        while (!p.isFinished() && steps < MAX_STEPS) {
+            SceneManager.advance();
+            steps++;
+        }
+        return steps;
+    }
+}
@@ -0,0 +1,339 @@
+package silentconvent;
+
+import java.awt.Font;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A Presenter with no window and no sound, for running the story on machines
+ * without a display (java.awt.headless=true): automated playthroughs, CI
+ * checks and measuring how fast the game logic runs by itself.
+ *
+ * Key features:
+ * - Time doesn't pass: fades, delays and the centered button run their
+ * callbacks right away, so a playthrough is as fast as the scene code
+ * - Choices are answered by a ChoiceProvider (e.g. ChoiceProvider.scripted,
+ * or BranchExplorer's, which records the options it was offered)
+ * - Every line shown is kept, and the assets the story asks for are collected
+ * (names as requested, resolved through AssetIndex like GameFrame does)
+ * - Optionally records every call as a readable event ("bg bg_library",
+ * "fadeToBlack 700", ...) for comparing runs
+ * - isFinished() turns true when the story hands back to the main menu
+ */
+public class HeadlessPresenter implements Presenter {
+
+    /** Answers the choices */
+    private final ChoiceProvider choices;
+
+    /** Number of choices asked so far */
+    private int choicesAsked = 0;
+
+    /** Whether calls are recorded as events */
+    private final boolean recordEvents;
+
+    /** Every call, in order (only when recordEvents is on) */
+    private final List<String> events = new ArrayList<>();
+
+    /** Every line shown, in order */
+    private final List<DialogueLine> lines = new ArrayList<>();
+
+    /** Backgrounds, portraits and audio the story asked for, in first-use order */
+    private final Set<String> assets = new LinkedHashSet<>();
+
+    /** Asset name of the current background */
+    private String backgroundPath = null;
+
+    /** Opacity of the fade overlay */
+    private float fadeAlpha = 0f;
+
+    /** Centered text showing, or null */
+    private String centeredText = null;
+
+    /** Master volume (fades finish at once) */
+    private float volume = 1f;
+
+    /** Whether Next can be pressed */
+    private boolean nextEnabled = true;
+
+    /** Set when the story shows the main menu */
+    private boolean finished = false;
+
+    /**
+     * Create a headless presenter.
+     *
+     * @param recordEvents True to keep every call as an event (slower)
+     * @param choices      Answers the choices
+     */
+    public HeadlessPresenter(boolean recordEvents, ChoiceProvider choices) {
+        this.recordEvents = recordEvents;
+        this.choices = choices;
+    }
+
+    /**
+     * Create a headless presenter with scripted choices.
+     *
+     * @param recordEvents True to keep every call as an event (slower)
+     * @param picks        The option to pick at each choice, in order (missing
+     *                     ones pick the first option)
+     */
+    public HeadlessPresenter(boolean recordEvents, int... picks) {
+        this(recordEvents, ChoiceProvider.scripted(picks));
+    }
+
+    private void event(String what) {
+        if (recordEvents)
+            events.add(what);
+    }
+
+    // ===== DIALOGUE =====
+
+    @Override
+    public void showDialogue(String text) {
+        event("dialogue " + text);
+    }
+
+    @Override
+    public void setDialogueText(String text) {
+        event("text " + text);
+    }
+
+    @Override
+    public void setDialogueFont(Font font) {
+        event("font " + font.getFamily() + " " + font.getSize());
+    }
+
+    @Override
+    public void hideDialogue() {
+        event("hideDialogue");
+    }
+
+    @Override
+    public void showLine(DialogueLine line) {
+        lines.add(line);
+        if (line.getLeftCharacter() != null)
+            showLeftCharacter(line.getLeftCharacter());
+        if (line.getRightCharacter() != null)
+            showRightCharacter(line.getRightCharacter());
+        event("line " + line);
+    }
+
+    @Override
+    public void showCenteredText(String text) {
+        centeredText = text;
+        event("centered " + text);
+    }
+
+    @Override
+    public void hideCenteredText() {
+        centeredText = null;
+        event("hideCentered");
+    }
+
+    @Override
+    public String getCenteredText() {
+        return centeredText;
+    }
+
+    // ===== CHARACTERS AND BACKGROUND =====
+
+    @Override
+    public void showLeftCharacter(String charName) {
+        assets.add("sprite:" + charName + "_Left.png");
+        event("left " + charName);
+    }
+
+    @Override
+    public void showRightCharacter(String charName) {
+        assets.add("sprite:" + charName + ".png");
+        event("right " + charName);
+    }
+
+    @Override
+    public void clearCharacters() {
+        event("clearCharacters");
+    }
+
+    @Override
+    public void setBackgroundImage(String path) {
+        if (path == null)
+            return;
+        assets.add("bg:" + path);
+        String asset = GameFrame.findBackgroundAsset(path);
+        if (asset != null)
+            backgroundPath = asset;
+        event("bg " + (asset != null ? asset : "(missing) " + path));
+    }
+
+    @Override
+    public String getBackgroundPath() {
+        return backgroundPath;
+    }
+
+    // ===== EFFECTS =====
+
+    @Override
+    public void fadeToBlack(int durationMs, Runnable onFullBlack) {
+        fadeAlpha = 1f;
+        event("fadeToBlack " + durationMs);
+        if (onFullBlack != null)
+            onFullBlack.run();
+    }
+
+    @Override
+    public void fadeFromBlack(int durationMs, Runnable onComplete) {
+        fadeAlpha = 0f;
+        event("fadeFromBlack " + durationMs);
+        if (onComplete != null)
+            onComplete.run();
+    }
+
+    @Override
+    public void setFadeAlpha(float alpha) {
+        fadeAlpha = Math.max(0f, Math.min(1f, alpha));
+        event("fadeAlpha " + alpha);
+    }
+
+    @Override
+    public float getFadeAlpha() {
+        return fadeAlpha;
+    }
+
+    @Override
+    public void flashOnce(int ms) {
+        event("flash " + ms);
+    }
+
+    @Override
+    public void triggerRememberGlitch() {
+        event("glitch");
+    }
+
+    // ===== CONTROLS AND PLAYER INPUT =====
+
+    /** Controls are driven by calling SceneManager.advance() directly. */
+    @Override
+    public void bindControls(Runnable onNext, Runnable onRemember) {
+    }
+
+    @Override
+    public void setNextEnabled(boolean enabled) {
+        nextEnabled = enabled;
+    }
+
+    @Override
+    public void setRememberVisible(boolean visible) {
+        event("remember " + visible);
+    }
+
+    /** The button is pressed as soon as it shows. */
+    @Override
+    public void showCenteredButtonAfterDelay(String text, int delayMs, Runnable onClick) {
+        event("button " + text);
+        if (onClick != null)
+            onClick.run();
+    }
+
+    @Override
+    public int choose(String prompt, String[] options) {
+        int pick = choices.choose(prompt, options);
+        choicesAsked++;
+        event("choose " + prompt + " -> " + pick);
+        return pick;
+    }
+
+    @Override
+    public void showMainMenu() {
+        finished = true;
+        event("mainMenu");
+    }
+
+    @Override
+    public void delay(int ms, Runnable task) {
+        task.run();
+    }
+
+    // ===== AUDIO =====
+
+    @Override
+    public void playAudio(String path, boolean loop, float localMultiplier) {
+        assets.add("audio:" + path);
+        event((loop ? "music " : "sfx ") + path);
+    }
+
+    @Override
+    public void playAudioFrom(String path, boolean loop, float localMultiplier, long frame) {
+        assets.add("audio:" + path);
+        event("music " + path + " @" + frame);
+    }
+
+    @Override
+    public void stopAudio() {
+        event("stopMusic");
+    }
+
+    @Override
+    public void crossfadeAudio(String path, int ms) {
+        if (path != null)
+            assets.add("audio:" + path);
+        event("crossfade " + path + " " + ms);
+    }
+
+    @Override
+    public void fadeVolume(float linear, int ms) {
+        volume = linear;
+    }
+
+    @Override
+    public float getVolume() {
+        return volume;
+    }
+
+    // ===== ASSETS =====
+
+    /** Nothing is decoded headless. */
+    @Override
+    public void prefetch(Scene scene) {
+    }
+
+    /** There is no picture headless; saves get no thumbnail. */
+    @Override
+    public BufferedImage captureThumbnail(int width, int height) {
+        return null;
+    }
+
+    // ===== RESULTS =====
+
+    /** @return True once the story has handed back to the main menu */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /** @return Whether Next can be pressed */
+    public boolean isNextEnabled() {
+        return nextEnabled;
+    }
+
+    /** @return Number of choices asked so far */
+    public int getChoicesAsked() {
+        return choicesAsked;
+    }
+
+    /** @return Every line shown, in order */
+    public List<DialogueLine> getLines() {
+        return Collections.unmodifiableList(lines);
+    }
+
+    /** @return Every recorded call, in order (empty unless recording) */
+    public List<String> getEvents() {
+        return Collections.unmodifiableList(events);
+    }
+
+    /** @return Assets asked for ("bg:", "sprite:" or "audio:" + name), in first-use order */
+    public Set<String> getAssets() {
+        return Collections.unmodifiableSet(assets);
+    }
+}
@@ -0,0 +1,266 @@
+package silentconvent;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Log is the game's logger: a few levels, messages built only when their level
+ * is on, and output written on a background thread.
+ *
+ * Key features:
+ * - Messages are Suppliers, so a message that is filtered out costs a level
+ * check and nothing else (no string building on the EDT or the mixer thread)
+ * - Logging only copies the message into a ring buffer; a daemon log thread
+ * drains it to stdout a few milliseconds later, so a slow terminal or a
+ * redirected log file never adds latency to the caller
+ * - Never blocks: if the ring is full the message is dropped and counted, and
+ * the drop is reported with the next output
+ * - At exit, messages still in the ring are written out
+ * - The level is set with -Dsilentconvent.log=debug|info|warn|error (default
+ * info) or setLevel()
+ *
+ * Every line is "time LEVEL [thread] message"; a Throwable's stack trace
+ * follows its message.
+ */
+public class Log {
+
+    /** Message levels, least severe first */
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    /** Messages the ring holds (a power of two) */
+    private static final int CAPACITY = 4096;
+
+    /** How long a message waits for others to share its write */
+    private static final long DRAIN_DELAY_MS = 20;
+
+    /** How long exit waits for the ring to be drained */
+    private static final long EXIT_WAIT_MS = 1000;
+
+    /** Where the log goes (captured once, so later System.setOut calls don't move it) */
+    private static final PrintStream out = System.out;
+
+    /** The log thread (daemon so it never keeps the JVM alive) */
+    private static final ScheduledExecutorService drainer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "log-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Lowest level written */
+    private static volatile Level threshold = parseLevel(System.getProperty("silentconvent.log"));
+
+    // ===== THE RING (guarded by the class lock) =====
+    private static final Level[] levels = new Level[CAPACITY];
+    private static final long[] times = new long[CAPACITY];
+    private static final String[] threads = new String[CAPACITY];
+    private static final String[] messages = new String[CAPACITY];
+    private static final Throwable[] errors = new Throwable[CAPACITY];
+
+    /** Index of the oldest message */
+    private static int head = 0;
+
+    /** Number of messages in the ring */
+    private static int count = 0;
+
+    /** Messages dropped because the ring was full */
+    private static long dropped = 0;
+
+    /** Set while a drain is scheduled on the log thread */
+    private static boolean drainQueued = false;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(Log::awaitDrain, "log-writer-exit"));
+    }
+
+    /**
+     * @param level The lowest level to write from now on
+     */
+    public static void setLevel(Level level) {
+        threshold = level;
+    }
+
+    /**
+     * @param level A level
+     * @return True if messages of that level are written
+     */
+    public static boolean isEnabled(Level level) {
+        return level.compareTo(threshold) >= 0;
+    }
+
+    /** @param message Detail for finding problems (off by default) */
+    public static void debug(Supplier<String> message) {
+        log(Level.DEBUG, message, null);
+    }
+
+    /** @param message Something worth knowing happened */
+    public static void info(Supplier<String> message) {
+        log(Level.INFO, message, null);
+    }
+
+    /** @param message Something went wrong and the game worked around it */
+    public static void warn(Supplier<String> message) {
+        log(Level.WARN, message, null);
+    }
+
+    /**
+     * @param message Something went wrong and the game worked around it
+     * @param error   The cause (its stack trace is written)
+     */
+    public static void warn(Supplier<String> message, Throwable error) {
+        log(Level.WARN, message, error);
+    }
+
+    /** @param message Something failed */
+    public static void error(Supplier<String> message) {
+        log(Level.ERROR, message, null);
+    }
+
+    /**
+     * @param message Something failed
+     * @param error   The cause (its stack trace is written)
+     */
+    public static void error(Supplier<String> message, Throwable error) {
+        log(Level.ERROR, message, error);
+    }
+
+    /**
+     * Log a message if its level is on.
+     *
+     * @param level   The message's level
+     * @param message Builds the message (only called if the level is on, on
+     *                the calling thread)
+     * @param error   A Throwable to write the stack trace of, or null
+     */
+    public static void log(Level level, Supplier<String> message, Throwable error) {
+        if (!isEnabled(level))
+            return;
+        String text = message.get();
+        long now = System.currentTimeMillis();
+        String thread = Thread.currentThread().getName();
+        synchronized (Log.class) {
+            if (count == CAPACITY) {
+                dropped++;
+                return;
+            }
+            int i = (head + count) & (CAPACITY - 1);
+            levels[i] = level;
+            times[i] = now;
+            threads[i] = thread;
+            messages[i] = text;
+            errors[i] = error;
+            count++;
+            if (!drainQueued) {
+                drainQueued = true;
+                drainer.schedule(Log::drain, DRAIN_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    // ===== DRAIN THREAD ONLY =====
+    // The batch taken from the ring and the output buffer are reused by every
+    // drain, so writing the log creates no garbage beyond the lines themselves.
+    private static final Level[] batchLevels = new Level[CAPACITY];
+    private static final long[] batchTimes = new long[CAPACITY];
+    private static final String[] batchThreads = new String[CAPACITY];
+    private static final String[] batchMessages = new String[CAPACITY];
+    private static final Throwable[] batchErrors = new Throwable[CAPACITY];
+    private static final StringBuilder sb = new StringBuilder(8192);
+    private static final SimpleDateFormat clock = new SimpleDateFormat("HH:mm:ss.SSS", Locale.ROOT);
+    private static final Date date = new Date();
+
+    /** Write everything in the ring (runs on the log thread). */
+    private static void drain() {
+        while (true) {
+            // Take everything logged so far in one go, so callers are held up
+            // only for the copy
+            int n;
+            long lost;
+            synchronized (Log.class) {
+                n = count;
+                for (int k = 0; k < n; k++) {
+                    int i = (head + k) & (CAPACITY - 1);
+                    batchLevels[k] = levels[i];
+                    batchTimes[k] = times[i];
+                    batchThreads[k] = threads[i];
+                    batchMessages[k] = messages[i];
+                    batchErrors[k] = errors[i];
+                    threads[i] = null;
+                    messages[i] = null;
+                    errors[i] = null;
+                }
+                head = (head + n) & (CAPACITY - 1);
+                count = 0;
+                lost = dropped;
+                dropped = 0;
+                if (n == 0)
+                    drainQueued = false;
+            }
+            if (n == 0 && lost == 0)
+                break;
+
+            for (int k = 0; k < n; k++) {
+                date.setTime(batchTimes[k]);
+                format(sb, clock.format(date), batchLevels[k], batchThreads[k], batchMessages[k], batchErrors[k]);
+                batchThreads[k] = null;
+                batchMessages[k] = null;
+                batchErrors[k] = null;
+                if (sb.length() >= 8192) {
+                    out.print(sb);
+                    sb.setLength(0);
+                }
+            }
+            if (lost != 0) {
+                date.setTime(System.currentTimeMillis());
+                format(sb, clock.format(date), Level.WARN, "log-writer",
+                        lost + " log messages dropped (the log fell behind)", null);
+            }
+            out.print(sb);
+            out.flush();
+            sb.setLength(0);
+            if (n == 0)
+                break; // drainQueued is already cleared
+        }
+    }
+
+    /** Append one line (and a stack trace) to the output. */
+    private static void format(StringBuilder buf, String time, Level level, String thread, String text,
+            Throwable error) {
+        buf.append(time).append(' ').append(level);
+        for (int pad = level.name().length(); pad < 5; pad++)
+            buf.append(' ');
+        buf.append(" [").append(thread).append("] ").append(text).append(System.lineSeparator());
+        if (error != null) {
+            StringWriter trace = new StringWriter();
+            error.printStackTrace(new PrintWriter(trace));
+            buf.append(trace);
+        }
+    }
+
+    /** Write what is still in the ring (bounded wait); used at exit. */
+    private static void awaitDrain() {
+        try {
+            drainer.submit(Log::drain).get(EXIT_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // Nothing left to report it to
+        }
+    }
+
+    private static Level parseLevel(String name) {
+        if (name != null) {
+            for (Level l : Level.values())
+                if (l.name().equalsIgnoreCase(name.trim()))
+                    return l;
+        }
+        return Level.INFO;
+    }
+}
@@ -16,6 +16,11 @@ public class Main {
      * @param args Command line arguments (not used in this application)
      */
     public static void main(String[] args) {
+        // Map the packed assets once, before anything asks for an image or sound
+        AssetStore.open(AssetStore.DEFAULT_ARCHIVE);
+        // Index asset names once so lookups never probe the disk
+        AssetIndex.build();
+        AssetIndex.watch();
         // Show the main menu first; Play will start the SceneManager and the game loop
         MainMenu.open();
     }
@@ -36,10 +36,13 @@ public class MainMenu {
         d.add(img, BorderLayout.CENTER);
 
         JPanel buttons = new JPanel();
+        JButton cont = new JButton("Continue");
+        cont.setEnabled(SaveManager.hasAutosave());
         JButton play = new JButton("Play");
         JButton saves = new JButton("Saves");
         JButton story = new JButton("Story");
         story.setEnabled(SceneManager.isStoryUnlocked());
+        buttons.add(cont);
         buttons.add(play);
         buttons.add(saves);
         buttons.add(story);
@@ -49,16 +52,30 @@ public class MainMenu {
             d.dispose();
             // If the SceneManager hasn't been started, start it; otherwise restart from day
             // one
-            if (!isSceneManagerStarted()) {
+            if (!SceneManager.isStarted()) {
                 SceneManager.start();
             } else {
                 // Ensure game frame exists and is visible, then restart from Day One
                 GameFrame.ensureCreated();
                 GameFrame.getInstance().setVisible(true);
-                SceneManager.load(new scenes.DayOneScene());
+                SceneManager.load(new scenes.ScriptedScene(scenes.ScriptedScene.FIRST_SCRIPT));
             }
         });
 
+        cont.addActionListener(e -> {
+            // Pick up where the autosave journal left off (e.g. after a crash)
+            SceneManager.ensureButtonsInitialized();
+            if (!SaveManager.continueAutosave()) {
+                JOptionPane.showMessageDialog(d, "Nothing to continue.");
+                cont.setEnabled(false);
+                return;
+            }
+            d.dispose();
+            GameFrame.getInstance().setVisible(true);
+            GameFrame.getInstance().setState(java.awt.Frame.NORMAL);
+            GameFrame.getInstance().toFront();
+        });
+
         saves.addActionListener(e -> {
             SaveMenu.open(d);
         });
@@ -122,14 +139,4 @@ public class MainMenu {
 
         d.setVisible(true);
     }
-
-    private static boolean isSceneManagerStarted() {
-        try {
-            java.lang.reflect.Field f = SceneManager.class.getDeclaredField("started");
-            f.setAccessible(true);
-            return f.getBoolean(null);
-        } catch (Exception e) {
-            return true; // safe default
-        }
-    }
 }
@@ -0,0 +1,327 @@
+package silentconvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import javax.swing.SwingUtilities;
+
+/**
+ * Metrics is the registry the performance HUD (F3, see GameCanvas) is drawn
+ * from. Code records into a metric where the work happens; the HUD only reads
+ * them, a few times a second.
+ *
+ * Key features:
+ * - The game's standard metrics are constants here (frame time, EDT stalls,
+ * cache hit rates, heap, last asset load, running animations), so they are
+ * always registered, and always shown, in the same order
+ * - Recording is a counter increment or a store into a small ring: no
+ * allocation, no formatting, no locks held for longer than a store
+ * - Each metric formats its own HUD line, so the HUD is plain drawString calls
+ * (no HTML, no component relayout) and doesn't skew what it measures
+ * - An EDT watchdog (watchEdt) sends the EDT a heartbeat and counts the times
+ * it took longer than STALL_MS to come back
+ *
+ * Metrics may be recorded from any thread.
+ */
+public class Metrics {
+
+    /** An EDT heartbeat slower than this counts as a stall */
+    static final long STALL_MS = 50;
+
+    /** How often the watchdog sends a heartbeat */
+    private static final long HEARTBEAT_MS = 25;
+
+    /** Registered metrics, in registration order */
+    private static final List<Metric> registry = new CopyOnWriteArrayList<>();
+
+    /**
+     * A named value the HUD shows as one line.
+     */
+    public abstract static class Metric {
+        private final String name;
+
+        protected Metric(String name) {
+            this.name = name;
+        }
+
+        /** @return The metric's name (the start of its HUD line) */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Append the value part of the HUD line.
+         *
+         * @param sb Where to append
+         */
+        public abstract void format(StringBuilder sb);
+    }
+
+    /**
+     * A count of events.
+     */
+    public static final class Counter extends Metric {
+        private final AtomicLong count = new AtomicLong();
+        private final String unit;
+
+        Counter(String name, String unit) {
+            super(name);
+            this.unit = unit;
+        }
+
+        /** Count one event. */
+        public void increment() {
+            count.incrementAndGet();
+        }
+
+        /** @return Events counted so far */
+        public long get() {
+            return count.get();
+        }
+
+        @Override
+        public void format(StringBuilder sb) {
+            sb.append(count.get()).append(unit);
+        }
+    }
+
+    /**
+     * The most recent durations (e.g. frame times), shown as percentiles.
+     */
+    public static final class Durations extends Metric {
+        private final long[] ring;
+        private int next = 0;
+        private int size = 0;
+
+        Durations(String name, int capacity) {
+            super(name);
+            ring = new long[capacity];
+        }
+
+        /**
+         * Record one duration (the oldest is forgotten once the ring is full).
+         *
+         * @param nanos The duration in nanoseconds
+         */
+        public synchronized void record(long nanos) {
+            ring[next] = nanos;
+            next = (next + 1) % ring.length;
+            if (size < ring.length)
+                size++;
+        }
+
+        /** @return The recorded durations, sorted (a copy) */
+        public synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(ring, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        @Override
+        public void format(StringBuilder sb) {
+            long[] s = sorted();
+            if (s.length == 0) {
+                sb.append('-');
+                return;
+            }
+            sb.append("p50 ");
+            millis(sb, percentile(s, 0.50));
+            sb.append("  p95 ");
+            millis(sb, percentile(s, 0.95));
+            sb.append("  p99 ");
+            millis(sb, percentile(s, 0.99));
+            sb.append("  max ");
+            millis(sb, s[s.length - 1]);
+            sb.append(" ms (").append(s.length).append(')');
+        }
+    }
+
+    /**
+     * A cache's hit rate, read from the cache's own hit and miss counters.
+     */
+    public static final class HitRate extends Metric {
+        private final LongSupplier hits;
+        private final LongSupplier misses;
+
+        HitRate(String name, LongSupplier hits, LongSupplier misses) {
+            super(name);
+            this.hits = hits;
+            this.misses = misses;
+        }
+
+        @Override
+        public void format(StringBuilder sb) {
+            long h = hits.getAsLong();
+            long total = h + misses.getAsLong();
+            if (total == 0)
+                sb.append('-');
+            else
+                sb.append(String.format(Locale.ROOT, "%.1f%%", 100.0 * h / total));
+            sb.append(" (").append(h).append('/').append(total).append(')');
+        }
+    }
+
+    /**
+     * The last time something took (e.g. loading an asset) and what it was.
+     */
+    public static final class Latest extends Metric {
+        private volatile String what;
+        private volatile long nanos;
+
+        Latest(String name) {
+            super(name);
+        }
+
+        /**
+         * @param what  What was measured (e.g. the asset name)
+         * @param nanos How long it took
+         */
+        public void set(String what, long nanos) {
+            this.nanos = nanos;
+            this.what = what;
+        }
+
+        @Override
+        public void format(StringBuilder sb) {
+            String w = what;
+            if (w == null) {
+                sb.append('-');
+                return;
+            }
+            millis(sb, nanos);
+            sb.append(" ms  ").append(w);
+        }
+    }
+
+    /**
+     * A value read when the HUD is drawn.
+     */
+    public static final class Gauge extends Metric {
+        private final LongSupplier value;
+        private final String unit;
+
+        Gauge(String name, LongSupplier value, String unit) {
+            super(name);
+            this.value = value;
+            this.unit = unit;
+        }
+
+        @Override
+        public void format(StringBuilder sb) {
+            sb.append(value.getAsLong()).append(unit);
+        }
+    }
+
+    // ===== THE GAME'S METRICS (in HUD order) =====
+
+    /** Time to paint a frame of the game window (see GameCanvas.paint) */
+    public static final Durations FRAME_TIME = register(new Durations("frame", 240));
+
+    /** Times the EDT took longer than STALL_MS to answer the watchdog */
+    public static final Counter EDT_STALLS = register(new Counter("edt stalls", " (>" + STALL_MS + " ms)"));
+
+    /** Sprite lookups served from SpriteCache (prefetches don't count) */
+    public static final HitRate SPRITE_CACHE = register(
+            new HitRate("sprite cache", SpriteCache::getHits, SpriteCache::getMisses));
+
+    /** Backgrounds already scaled when they were shown */
+    public static final HitRate BACKGROUND_CACHE = register(
+            new HitRate("bg cache", BackgroundLoader::getHits, BackgroundLoader::getMisses));
+
+    /** Sound effects played from PcmCache */
+    public static final HitRate SOUND_CACHE = register(
+            new HitRate("sound cache", PcmCache::getHits, PcmCache::getMisses));
+
+    /** Java heap in use and its limit */
+    public static final Metric HEAP = register(new Metric("heap") {
+        @Override
+        public void format(StringBuilder sb) {
+            Runtime rt = Runtime.getRuntime();
+            long mb = 1024 * 1024;
+            sb.append((rt.totalMemory() - rt.freeMemory()) / mb).append(" / ").append(rt.maxMemory() / mb)
+                    .append(" MB");
+        }
+    });
+
+    /** The last image or sound decoded, and how long it took */
+    public static final Latest ASSET_LOAD = register(new Latest("asset load"));
+
+    /** Tweens and delays running (see AnimationScheduler; read on the EDT) */
+    public static final Gauge TIMERS = register(
+            new Gauge("timers", AnimationScheduler::getActiveCount, " running"));
+
+    // ===== EDT WATCHDOG =====
+
+    /** Sends the heartbeats (created by watchEdt) */
+    private static ScheduledExecutorService watchdog;
+
+    /** When the heartbeat on its way to the EDT was sent, or 0 if none is */
+    private static final AtomicLong heartbeatSent = new AtomicLong();
+
+    /**
+     * Add a metric to the registry (shown after the ones already there).
+     *
+     * @param <M>    The metric type
+     * @param metric The metric
+     * @return The metric
+     */
+    public static <M extends Metric> M register(M metric) {
+        registry.add(metric);
+        return metric;
+    }
+
+    /** @return Every registered metric, in order */
+    public static List<Metric> all() {
+        return new ArrayList<>(registry);
+    }
+
+    /**
+     * Start counting EDT stalls (the game window calls this once; headless runs
+     * have no EDT to watch). The heartbeats keep AWT from shutting down on its
+     * own, which is fine for the game window: closing it exits the JVM.
+     */
+    public static synchronized void watchEdt() {
+        if (watchdog != null)
+            return;
+        watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "edt-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        watchdog.scheduleAtFixedRate(Metrics::heartbeat, HEARTBEAT_MS, HEARTBEAT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Send the EDT a heartbeat, unless the last one hasn't arrived yet (so one
+     * long stall counts once).
+     */
+    private static void heartbeat() {
+        long sent = System.nanoTime();
+        if (!heartbeatSent.compareAndSet(0, sent))
+            return;
+        SwingUtilities.invokeLater(() -> {
+            if (System.nanoTime() - sent > TimeUnit.MILLISECONDS.toNanos(STALL_MS))
+                EDT_STALLS.increment();
+            heartbeatSent.set(0);
+        });
+    }
+
+    /** Nearest-rank percentile of sorted values. */
+    private static long percentile(long[] sorted, double p) {
+        int i = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, i))];
+    }
+
+    /** Append nanoseconds as milliseconds with one decimal. */
+    private static void millis(StringBuilder sb, long nanos) {
+        long tenths = (nanos + 50_000) / 100_000;
+        sb.append(tenths / 10).append('.').append(tenths % 10);
+    }
+}
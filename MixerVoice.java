@@ -0,0 +1,108 @@
+package silentconvent;
+
+/**
+ * A single sound playing inside the AudioMixer.
+ *
+ * Subclasses produce audio in the mixer's output format as floats (-1.0 to
+ * 1.0, stereo interleaved). The mixer thread pulls from every active voice once
+ * per period, scales each frame by the voice's gain and its bus's gain, and
+ * sums the result.
+ *
+ * Gain changes can be ramped (rampTo, fadeOutAndStop); the mixer applies them
+ * per sample so fades and crossfades don't click.
+ */
+public abstract class MixerVoice {
+
+    /** The voice's gain and any ramp in progress */
+    private final GainEnvelope gain = new GainEnvelope(1.0f);
+
+    /** Set once the voice has been stopped or has played to the end */
+    private volatile boolean finished = false;
+
+    /**
+     * Produce the next frames of audio.
+     * Called only from the mixer thread.
+     *
+     * @param out    Buffer to fill with stereo interleaved samples
+     * @param frames Number of frames wanted
+     * @return Number of frames produced; fewer than requested means the voice has
+     *         ended
+     * @throws Exception If reading the audio source fails
+     */
+    protected abstract int read(float[] out, int frames) throws Exception;
+
+    /**
+     * Release any resources (open streams etc.).
+     * Called once when the voice is removed from the mixer.
+     */
+    protected void close() {
+    }
+
+    /**
+     * Set the voice's linear gain without a ramp.
+     *
+     * @param linear Gain (0.0 = silent, 1.0 = full volume)
+     */
+    public void setGain(float linear) {
+        gain.set(linear);
+    }
+
+    /**
+     * Move the voice's gain to a new value over time.
+     *
+     * @param linear Target gain (0.0 - 1.0)
+     * @param ms     Ramp length in milliseconds (0 = at the next period)
+     */
+    public void rampTo(float linear, int ms) {
+        gain.rampTo(linear, AudioMixer.msToFrames(ms), false);
+    }
+
+    /**
+     * Start from one gain and ramp to another, e.g. to fade a new voice in from
+     * silence. Call before AudioMixer.play() so the first period starts at
+     * "from".
+     *
+     * @param from Starting gain (0.0 - 1.0)
+     * @param to   Target gain (0.0 - 1.0)
+     * @param ms   Ramp length in milliseconds
+     */
+    public void rampFromTo(float from, float to, int ms) {
+        gain.rampFromTo(from, to, AudioMixer.msToFrames(ms));
+    }
+
+    /**
+     * Fade the voice to silence, then stop it.
+     *
+     * @param ms Fade length in milliseconds
+     */
+    public void fadeOutAndStop(int ms) {
+        gain.rampTo(0f, AudioMixer.msToFrames(ms), true);
+    }
+
+    /** @return The gain the voice is set or ramping to (0.0 - 1.0) */
+    public float getGain() {
+        return gain.getTarget();
+    }
+
+    /**
+     * Ask the mixer to drop this voice at the next period.
+     */
+    public void stop() {
+        finished = true;
+    }
+
+    /** @return True once the voice was stopped, faded out or ran out of audio */
+    public boolean isFinished() {
+        return finished || gain.isStopped();
+    }
+
+    /** Mark the voice as finished (used by the mixer when read() runs out). */
+    void markFinished() {
+        finished = true;
+    }
+
+    /** @return The envelope the mixer thread steps through each frame */
+    GainEnvelope envelope() {
+        return gain;
+    }
+}
@@ -0,0 +1,149 @@
+package silentconvent;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+/**
+ * PcmCache keeps short sound effects decoded in memory.
+ *
+ * Key features:
+ * - Entries are keyed by path and hold samples already converted to the
+ * mixer's output format (16-bit stereo, 44.1 kHz)
+ * - A cached effect plays with no file I/O and no decoding
+ * - Least recently used entries are evicted once the byte budget is exceeded
+ * - Hit/miss counters show how well the cache is working
+ *
+ * All methods are thread-safe. Decoding happens outside the lock.
+ */
+public class PcmCache {
+
+    /** Default byte budget (about 24 seconds of stereo audio) */
+    private static final long DEFAULT_BUDGET_BYTES = 4L * 1024 * 1024;
+
+    /** Maximum number of bytes the cached samples may use */
+    private static long budgetBytes = DEFAULT_BUDGET_BYTES;
+
+    /** Number of bytes currently used by cached samples */
+    private static long usedBytes = 0;
+
+    /** Cached samples in access order (least recently used first) */
+    private static final LinkedHashMap<String, short[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Lookup statistics */
+    private static long hits = 0;
+    private static long misses = 0;
+
+    /**
+     * Look up a decoded effect. Counts as a hit or a miss.
+     *
+     * @param path Path the effect is played with
+     * @return Interleaved stereo samples, or null if not cached
+     */
+    public static synchronized short[] get(String path) {
+        short[] pcm = entries.get(path);
+        if (pcm != null)
+            hits++;
+        else
+            misses++;
+        return pcm;
+    }
+
+    /**
+     * Decode an audio asset and store it in the cache.
+     * Does not count as a lookup, so prefetching doesn't skew the hit rate.
+     *
+     * @param path Asset name the effect is played with (cache key)
+     * @return Interleaved stereo samples in the mixer's format
+     * @throws Exception If the asset can't be read or converted
+     */
+    public static short[] load(String path) throws Exception {
+        synchronized (PcmCache.class) {
+            short[] cached = entries.get(path);
+            if (cached != null)
+                return cached;
+        }
+        short[] pcm = decode(path);
+        synchronized (PcmCache.class) {
+            short[] old = entries.put(path, pcm);
+            if (old != null)
+                usedBytes -= sizeOf(old);
+            usedBytes += sizeOf(pcm);
+            trimToBudget();
+        }
+        return pcm;
+    }
+
+    /** Read a whole asset converted to the mixer's output format. */
+    private static short[] decode(String path) throws Exception {
+        long start = System.nanoTime();
+        try (AudioInputStream src = AudioSystem.getAudioInputStream(AssetStore.openStream(path));
+                AudioInputStream in = src.getFormat().matches(AudioMixer.FORMAT) ? src
+                        : AudioSystem.getAudioInputStream(AudioMixer.FORMAT, src)) {
+            long size = Math.max(AssetStore.size(path), 1024);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) Math.min(size * 2, 1 << 24));
+            byte[] buf = new byte[16 * 1024];
+            int n;
+            while ((n = in.read(buf)) > 0)
+                bytes.write(buf, 0, n);
+            byte[] raw = bytes.toByteArray();
+            short[] pcm = new short[raw.length / 2];
+            for (int i = 0, b = 0; i < pcm.length; i++, b += 2)
+                pcm[i] = (short) ((raw[b] & 0xff) | (raw[b + 1] << 8));
+            Metrics.ASSET_LOAD.set(path, System.nanoTime() - start);
+            return pcm;
+        }
+    }
+
+    /** Evict least recently used entries until usedBytes fits the budget. */
+    private static void trimToBudget() {
+        Iterator<Map.Entry<String, short[]>> it = entries.entrySet().iterator();
+        // Always keep the most recent entry, even if it's over budget alone
+        while (usedBytes > budgetBytes && entries.size() > 1 && it.hasNext()) {
+            usedBytes -= sizeOf(it.next().getValue());
+            it.remove();
+        }
+    }
+
+    /** Bytes used by a sample buffer. */
+    private static long sizeOf(short[] pcm) {
+        return pcm.length * 2L;
+    }
+
+    /**
+     * Change the byte budget. Shrinking the budget evicts entries immediately.
+     *
+     * @param bytes Maximum number of bytes cached samples may use
+     */
+    public static synchronized void setBudgetBytes(long bytes) {
+        budgetBytes = Math.max(0L, bytes);
+        trimToBudget();
+    }
+
+    /**
+     * Remove every cached sample.
+     */
+    public static synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    /** @return Number of bytes currently used by cached samples */
+    public static synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /** @return Number of lookups served from the cache */
+    public static synchronized long getHits() {
+        return hits;
+    }
+
+    /** @return Number of lookups that had to read the file */
+    public static synchronized long getMisses() {
+        return misses;
+    }
+}
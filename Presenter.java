@@ -0,0 +1,262 @@
+package silentconvent;
+
+import java.awt.Font;
+import java.awt.image.BufferedImage;
+
+/**
+ * Presenter is everything the story needs from the screen, the speakers and
+ * the player. SceneManager and the scenes talk only to a Presenter, never to
+ * a window, so the same scene graph can run in the game window (GameFrame) or
+ * without one (HeadlessPresenter, for automated playthroughs on machines with
+ * java.awt.headless=true).
+ *
+ * Key features:
+ * - Callbacks (fades, delays, the centered button) are the only way time
+ * passes; a presenter may run them later (GameFrame) or right away
+ * (HeadlessPresenter)
+ * - Choices are asked through choose(), so a playthrough can script them
+ * - Audio goes through the presenter too, so headless runs never open a sound
+ * device
+ *
+ * Methods are called on the thread that runs the story (the Event Dispatch
+ * Thread for GameFrame).
+ */
+public interface Presenter {
+
+    // ===== DIALOGUE =====
+
+    /**
+     * Show the main dialogue box with the given text.
+     *
+     * @param text The text to display
+     */
+    void showDialogue(String text);
+
+    /**
+     * Replace the text in the main dialogue box without changing whether it is
+     * shown.
+     *
+     * @param text The text to display
+     */
+    void setDialogueText(String text);
+
+    /**
+     * Set the font of the main dialogue box.
+     *
+     * @param font The font to use
+     */
+    void setDialogueFont(Font font);
+
+    /** Hide the main dialogue box. */
+    void hideDialogue();
+
+    /**
+     * Show a compiled line of dialogue (see DialogueLine.Kind for how each kind
+     * is shown).
+     *
+     * @param line The line to display
+     */
+    void showLine(DialogueLine line);
+
+    /**
+     * Show large centered text (e.g. "Day X").
+     *
+     * @param text The text to display
+     */
+    void showCenteredText(String text);
+
+    /** Hide the centered text. */
+    void hideCenteredText();
+
+    /**
+     * @return The centered text if it is showing, otherwise null
+     */
+    String getCenteredText();
+
+    // ===== CHARACTERS AND BACKGROUND =====
+
+    /**
+     * Show a character's portrait on the left.
+     *
+     * @param charName The character name (e.g. "Agnes")
+     */
+    void showLeftCharacter(String charName);
+
+    /**
+     * Show a character's portrait on the right.
+     *
+     * @param charName The character name (e.g. "Agnes")
+     */
+    void showRightCharacter(String charName);
+
+    /** Clear both portraits. */
+    void clearCharacters();
+
+    /**
+     * Show a background image.
+     *
+     * @param path The image filename or path (see GameFrame.setBackgroundImage)
+     */
+    void setBackgroundImage(String path);
+
+    /**
+     * @return The asset name of the current background, or null if none was set
+     */
+    String getBackgroundPath();
+
+    // ===== EFFECTS =====
+
+    /**
+     * Fade the screen to black.
+     *
+     * @param durationMs  How long the fade takes
+     * @param onFullBlack Run when the screen is black (may be null)
+     */
+    void fadeToBlack(int durationMs, Runnable onFullBlack);
+
+    /**
+     * Fade the screen back in from black.
+     *
+     * @param durationMs How long the fade takes
+     * @param onComplete Run when the fade is done (may be null)
+     */
+    void fadeFromBlack(int durationMs, Runnable onComplete);
+
+    /**
+     * Set the fade overlay's opacity directly (used to dim the screen).
+     *
+     * @param alpha 0 (clear) to 1 (black)
+     */
+    void setFadeAlpha(float alpha);
+
+    /**
+     * @return The fade overlay's opacity, 0 (clear) to 1 (black)
+     */
+    float getFadeAlpha();
+
+    /**
+     * Flash the screen once.
+     *
+     * @param ms Duration of the flash
+     */
+    void flashOnce(int ms);
+
+    /** Glitch effect for pressing Remember once the memory is broken. */
+    void triggerRememberGlitch();
+
+    // ===== CONTROLS AND PLAYER INPUT =====
+
+    /**
+     * Connect the Next and Remember controls (called once by SceneManager).
+     *
+     * @param onNext     Run when the player presses Next
+     * @param onRemember Run when the player presses Remember
+     */
+    void bindControls(Runnable onNext, Runnable onRemember);
+
+    /**
+     * @param enabled Whether the player can press Next
+     */
+    void setNextEnabled(boolean enabled);
+
+    /**
+     * @param visible Whether the Remember control shows
+     */
+    void setRememberVisible(boolean visible);
+
+    /**
+     * Show a centered button after a delay.
+     *
+     * @param text    The button label
+     * @param delayMs How long to wait before showing it
+     * @param onClick Run when the button is pressed
+     */
+    void showCenteredButtonAfterDelay(String text, int delayMs, Runnable onClick);
+
+    /**
+     * Ask the player to pick one option. Blocks until they do.
+     *
+     * @param prompt  The question
+     * @param options Option labels
+     * @return Index of the chosen option, or -1 if the choice was cancelled
+     */
+    int choose(String prompt, String[] options);
+
+    /** Show the main menu (the story has ended or the player asked for it). */
+    void showMainMenu();
+
+    /**
+     * Run something after a delay.
+     *
+     * @param ms   How long to wait
+     * @param task What to run
+     */
+    void delay(int ms, Runnable task);
+
+    // ===== AUDIO =====
+
+    /**
+     * Play a music track or sound effect (see AudioPlayer.play).
+     *
+     * @param path            Audio file path
+     * @param loop            True for music, false for a one-shot effect
+     * @param localMultiplier Volume of this sound relative to the master volume
+     */
+    void playAudio(String path, boolean loop, float localMultiplier);
+
+    /**
+     * Play a track from a position part way into it (used to resume a saved
+     * game's music, see AudioPlayer.playFrom).
+     *
+     * @param path            Audio file path
+     * @param loop            True to loop the track
+     * @param localMultiplier Volume of the track relative to the master volume
+     * @param frame           Where to start, as saved from
+     *                        AudioPlayer.getCurrentTrackFrame
+     */
+    void playAudioFrom(String path, boolean loop, float localMultiplier, long frame);
+
+    /** Stop the music. */
+    void stopAudio();
+
+    /**
+     * Crossfade the music to another track.
+     *
+     * @param path Audio file path, or null to fade the music out
+     * @param ms   Crossfade duration
+     */
+    void crossfadeAudio(String path, int ms);
+
+    /**
+     * Fade the master volume.
+     *
+     * @param linear Target volume (0-1)
+     * @param ms     Fade duration
+     */
+    void fadeVolume(float linear, int ms);
+
+    /**
+     * @return The master volume (0-1)
+     */
+    float getVolume();
+
+    // ===== ASSETS =====
+
+    /**
+     * Start loading a scene's assets ahead of time (see AssetPrefetcher).
+     *
+     * @param scene The scene that is about to be shown
+     */
+    void prefetch(Scene scene);
+
+    /**
+     * Render a small picture of the scene on screen, for a save's thumbnail.
+     * Runs where the presenter's other calls run (the EDT for GameFrame), so
+     * it must stay cheap.
+     *
+     * @param width  Thumbnail width
+     * @param height Thumbnail height
+     * @return The picture, or null if there is nothing to show
+     */
+    BufferedImage captureThumbnail(int width, int height);
+}
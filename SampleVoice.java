@@ -0,0 +1,34 @@
+package silentconvent;
+
+/**
+ * SampleVoice plays a sound that is already decoded in memory (see PcmCache).
+ * Many voices can share the same sample buffer; each keeps its own position.
+ */
+public class SampleVoice extends MixerVoice {
+
+    /** Interleaved stereo samples in the mixer's format (shared, never modified) */
+    private final short[] pcm;
+
+    /** Index of the next sample to play */
+    private int position = 0;
+
+    /**
+     * Create a voice for a decoded sample. Pass it to AudioMixer.play() to start
+     * it.
+     *
+     * @param pcm Interleaved stereo samples in AudioMixer.FORMAT
+     */
+    public SampleVoice(short[] pcm) {
+        this.pcm = pcm;
+    }
+
+    @Override
+    protected int read(float[] out, int frames) {
+        int channels = AudioMixer.FORMAT.getChannels();
+        int count = Math.min(frames * channels, pcm.length - position);
+        for (int i = 0; i < count; i++)
+            out[i] = pcm[position + i] / 32768f;
+        position += count;
+        return count / channels;
+    }
+}
@@ -0,0 +1,281 @@
+package silentconvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * SaveCodec turns a SaveData into the bytes of a save file and back.
+ *
+ * File layout (big-endian):
+ * - int magic "SCSV", short schema version, short field count, int payload
+ * length
+ * - payload: one entry per field, each a byte tag, an int length and the value
+ * (strings as UTF-8, the scene state as raw bytes; a null one is left out)
+ * - int CRC32 of everything before it
+ *
+ * Key features:
+ * - Every field has its own tag and codec, so fields can be added (new tags)
+ * without breaking older saves; unknown tags are skipped and missing ones keep
+ * SaveData's defaults
+ * - Nothing is instantiated from the file: it holds strings and numbers only
+ * - Truncated or damaged files fail the length or CRC check instead of loading
+ * half a save
+ * - Saves written by the old ObjectOutputStream format are recognised by their
+ * stream header and read through an ObjectInputFilter that only admits
+ * SaveData and String (see decodeLegacy)
+ */
+public final class SaveCodec {
+
+    /** First bytes of a save file ("SCSV") */
+    static final int MAGIC = 0x53435356;
+
+    /** Schema version written by encode() */
+    static final int VERSION = 1;
+
+    /** First two bytes of a Java serialization stream (legacy saves) */
+    private static final int LEGACY_MAGIC = 0xACED;
+
+    /** Size of the header: magic, version, field count, payload length */
+    private static final int HEADER_SIZE = 12;
+
+    /** Saves are tiny; anything larger than this is not a save */
+    static final int MAX_SIZE = 1 << 20;
+
+    // ===== FIELD TAGS (never reuse a number) =====
+    private static final byte TAG_SCRIPT = 1;
+    private static final byte TAG_INDEX = 2;
+    private static final byte TAG_DAY = 3;
+    private static final byte TAG_BACKGROUND = 4;
+    private static final byte TAG_MUSIC = 5;
+    private static final byte TAG_MUSIC_LOOP = 6;
+    private static final byte TAG_MUSIC_MULTIPLIER = 7;
+    private static final byte TAG_NOTE = 8;
+    private static final byte TAG_SCENE_CLASS = 9;
+    private static final byte TAG_SCENE_STATE = 10;
+    private static final byte TAG_MUSIC_FRAME = 11;
+    private static final byte TAG_FADE_ALPHA = 12;
+    private static final byte TAG_CENTERED_TEXT = 13;
+    private static final byte TAG_FINAL_SCRIPT = 14;
+    private static final byte TAG_MEMORY_BROKEN = 15;
+
+    /** Classes a legacy save may contain; everything else is rejected */
+    private static final ObjectInputFilter LEGACY_FILTER = ObjectInputFilter.Config.createFilter(
+            SaveData.class.getName() + ";java.lang.String;maxdepth=4;maxrefs=64;maxbytes=" + MAX_SIZE + ";!*");
+
+    private SaveCodec() {
+    }
+
+    /**
+     * Encode a snapshot.
+     *
+     * @param sd The snapshot
+     * @return The file contents, positioned at 0 and ready to write
+     */
+    public static ByteBuffer encode(SaveData sd) {
+        byte[] script = utf8(sd.script);
+        byte[] background = utf8(sd.backgroundPath);
+        byte[] music = utf8(sd.musicPath);
+        byte[] note = utf8(sd.note);
+        byte[] sceneClass = utf8(sd.sceneClass);
+        byte[] centered = utf8(sd.centeredText);
+        byte[] finalScript = utf8(sd.finalScript);
+
+        // index, day, the multiplier and the fade alpha take 4 bytes, the music
+        // frame 8, the loop and memory flags 1
+        int fields = 7;
+        int payload = 4 * (1 + 4 + 4) + (1 + 4 + 8) + 2 * (1 + 4 + 1);
+        for (byte[] s : new byte[][] { script, background, music, note, sceneClass, sd.sceneState, centered,
+                finalScript }) {
+            if (s != null) {
+                fields++;
+                payload += 1 + 4 + s.length;
+            }
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE + payload + 4);
+        buf.putInt(MAGIC);
+        buf.putShort((short) VERSION);
+        buf.putShort((short) fields);
+        buf.putInt(payload);
+        putBytes(buf, TAG_SCRIPT, script);
+        putInt(buf, TAG_INDEX, sd.index);
+        putInt(buf, TAG_DAY, sd.day);
+        putBytes(buf, TAG_BACKGROUND, background);
+        putBytes(buf, TAG_MUSIC, music);
+        buf.put(TAG_MUSIC_LOOP).putInt(1).put((byte) (sd.musicLoop ? 1 : 0));
+        buf.put(TAG_MUSIC_MULTIPLIER).putInt(4).putFloat(sd.musicLocalMultiplier);
+        putBytes(buf, TAG_NOTE, note);
+        putBytes(buf, TAG_SCENE_CLASS, sceneClass);
+        putBytes(buf, TAG_SCENE_STATE, sd.sceneState);
+        buf.put(TAG_MUSIC_FRAME).putInt(8).putLong(sd.musicFrame);
+        buf.put(TAG_FADE_ALPHA).putInt(4).putFloat(sd.fadeAlpha);
+        putBytes(buf, TAG_CENTERED_TEXT, centered);
+        putBytes(buf, TAG_FINAL_SCRIPT, finalScript);
+        buf.put(TAG_MEMORY_BROKEN).putInt(1).put((byte) (sd.memoryBroken ? 1 : 0));
+
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 0, buf.position());
+        buf.putInt((int) crc.getValue());
+        buf.flip();
+        return buf;
+    }
+
+    /**
+     * @param buf The start of a file
+     * @return True if it looks like a save written by the old
+     *         ObjectOutputStream format
+     */
+    public static boolean isLegacy(ByteBuffer buf) {
+        return buf.remaining() >= 2 && (buf.getShort(buf.position()) & 0xFFFF) == LEGACY_MAGIC;
+    }
+
+    /**
+     * Decode a save file.
+     *
+     * @param buf The whole file
+     * @return The snapshot
+     * @throws IOException If the file is not a save, is damaged, or was written
+     *                     by a newer version of the game
+     */
+    public static SaveData decode(ByteBuffer buf) throws IOException {
+        ByteBuffer in = buf.duplicate();
+        int start = in.position();
+        if (in.remaining() < HEADER_SIZE + 4 || in.getInt() != MAGIC)
+            throw new IOException("not a save file");
+        int version = in.getShort() & 0xFFFF;
+        if (version > VERSION)
+            throw new IOException("save was written by a newer version (schema " + version + ")");
+        int fields = in.getShort() & 0xFFFF;
+        int payload = in.getInt();
+        if (payload < 0 || payload != in.remaining() - 4)
+            throw new IOException("truncated save (payload " + payload + ", file has " + (in.remaining() - 4) + ")");
+
+        CRC32 crc = new CRC32();
+        ByteBuffer covered = in.duplicate();
+        covered.position(start).limit(start + HEADER_SIZE + payload);
+        crc.update(covered);
+        int stored = in.getInt(start + HEADER_SIZE + payload);
+        if (stored != (int) crc.getValue())
+            throw new IOException("damaged save (CRC mismatch)");
+
+        SaveData sd = new SaveData();
+        try {
+            for (int i = 0; i < fields; i++) {
+                byte tag = in.get();
+                int len = in.getInt();
+                if (len < 0 || len > in.remaining() - 4)
+                    throw new IOException("bad length " + len + " for field " + tag);
+                ByteBuffer value = in.slice();
+                value.limit(len);
+                in.position(in.position() + len);
+                switch (tag) {
+                    case TAG_SCRIPT:
+                        sd.script = string(value);
+                        break;
+                    case TAG_INDEX:
+                        sd.index = value.getInt();
+                        break;
+                    case TAG_DAY:
+                        sd.day = value.getInt();
+                        break;
+                    case TAG_BACKGROUND:
+                        sd.backgroundPath = string(value);
+                        break;
+                    case TAG_MUSIC:
+                        sd.musicPath = string(value);
+                        break;
+                    case TAG_MUSIC_LOOP:
+                        sd.musicLoop = value.get() != 0;
+                        break;
+                    case TAG_MUSIC_MULTIPLIER:
+                        sd.musicLocalMultiplier = value.getFloat();
+                        break;
+                    case TAG_NOTE:
+                        sd.note = string(value);
+                        break;
+                    case TAG_SCENE_CLASS:
+                        sd.sceneClass = string(value);
+                        break;
+                    case TAG_SCENE_STATE:
+                        sd.sceneState = new byte[value.remaining()];
+                        value.get(sd.sceneState);
+                        break;
+                    case TAG_MUSIC_FRAME:
+                        sd.musicFrame = value.getLong();
+                        break;
+                    case TAG_FADE_ALPHA:
+                        sd.fadeAlpha = value.getFloat();
+                        break;
+                    case TAG_CENTERED_TEXT:
+                        sd.centeredText = string(value);
+                        break;
+                    case TAG_FINAL_SCRIPT:
+                        sd.finalScript = string(value);
+                        break;
+                    case TAG_MEMORY_BROKEN:
+                        sd.memoryBroken = value.get() != 0;
+                        break;
+                    default:
+                        // A field from a later schema this version doesn't know; skip it
+                        break;
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("field shorter than its type", e);
+        }
+        return sd;
+    }
+
+    /**
+     * Read a save written by the old ObjectOutputStream format. Only SaveData
+     * and String may appear in the stream; anything else fails the filter
+     * before it is instantiated.
+     *
+     * @param buf The whole file
+     * @return The snapshot, as it was stored (the caller fills in the script
+     *         for saves made before scenes were scripted)
+     * @throws IOException If the file can't be read or holds anything else
+     */
+    public static SaveData decodeLegacy(ByteBuffer buf) throws IOException {
+        byte[] bytes = new byte[buf.remaining()];
+        buf.duplicate().get(bytes);
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            ois.setObjectInputFilter(LEGACY_FILTER);
+            Object o = ois.readObject();
+            if (!(o instanceof SaveData))
+                throw new IOException("legacy save holds " + (o == null ? "null" : o.getClass().getName()));
+            return (SaveData) o;
+        } catch (InvalidClassException e) {
+            throw new IOException("legacy save rejected: " + e.getMessage(), e);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("legacy save names an unknown class: " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] utf8(String s) {
+        return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer value) {
+        byte[] b = new byte[value.remaining()];
+        value.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static void putBytes(ByteBuffer buf, byte tag, byte[] value) {
+        if (value == null)
+            return;
+        buf.put(tag).putInt(value.length).put(value);
+    }
+
+    private static void putInt(ByteBuffer buf, byte tag, int value) {
+        buf.put(tag).putInt(4).putInt(value);
+    }
+}
@@ -1,11 +1,18 @@
 package silentconvent;
 
+import java.awt.image.BufferedImage;
 import java.io.Serializable;
 
+/**
+ * A snapshot of the game for a save file. Saves are written by SaveCodec;
+ * Serializable is only kept so saves from before the binary format can still
+ * be read (see SaveCodec.decodeLegacy).
+ */
 public class SaveData implements Serializable {
     private static final long serialVersionUID = 1L;
 
     public String sceneClass;
+    public String script;
     public int index;
     public int day;
     public String backgroundPath;
@@ -14,6 +21,25 @@ public class SaveData implements Serializable {
     public float musicLocalMultiplier;
     public String note;
 
+    /** The scene's own state (see Scene.saveState), e.g. the choices made */
+    public byte[] sceneState;
+
+    /** How far into the music track the game was (see AudioPlayer.getCurrentTrackFrame) */
+    public long musicFrame;
+
+    /** Fade overlay opacity, centered text showing (or null) */
+    public float fadeAlpha;
+    public String centeredText;
+
+    /** Script of the final scene waiting for Next, or null (see SceneManager.getPendingFinal) */
+    public String finalScript;
+
+    /** Whether the memory was broken (see SaveManager.breakMemory) */
+    public boolean memoryBroken;
+
+    /** Small picture of the screen, written beside the save (see SaveThumbnails); never in the save file */
+    public transient BufferedImage thumbnail;
+
     public SaveData() {
     }
 }
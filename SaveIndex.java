@@ -0,0 +1,304 @@
+package silentconvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * SaveIndex keeps a summary of every save slot (name, day, scene, position,
+ * time and size) in one small file next to the saves, so the save menu can
+ * describe hundreds of slots without opening any of them.
+ *
+ * Key features:
+ * - The index is read once and kept in memory; SaveManager updates it whenever
+ * a save is written, migrated or deleted
+ * - It is rewritten on SaveWriter's thread, crash-safe (SaveWriter.writeFile),
+ * and only once for a burst of changes
+ * - On each listing the index is checked against one directory listing: slots
+ * whose file is gone are dropped, and only saves the index doesn't know (e.g.
+ * copied in by hand, or from before the index) are opened
+ * - A missing or damaged index is simply rebuilt that way
+ *
+ * File layout (big-endian): int magic "SCIX", short version, int slot count,
+ * the slots, then an int CRC32 of everything before it. Each slot is its name
+ * and script (short length + UTF-8, length -1 for none), day, index, time
+ * saved (epoch ms) and file size.
+ *
+ * All methods are thread-safe.
+ */
+public class SaveIndex {
+
+    /** Index file name inside the saves folder */
+    static final String FILE_NAME = "slots.idx";
+
+    /** First bytes of an index ("SCIX") */
+    private static final int MAGIC = 0x53434958;
+
+    /** Index format version */
+    private static final int VERSION = 1;
+
+    /** Summary of one save slot */
+    public static final class Slot {
+        private final String name;
+        private final String script;
+        private final int day;
+        private final int index;
+        private final long savedAt;
+        private final long size;
+
+        Slot(String name, String script, int day, int index, long savedAt, long size) {
+            this.name = name;
+            this.script = script;
+            this.day = day;
+            this.index = index;
+            this.savedAt = savedAt;
+            this.size = size;
+        }
+
+        /**
+         * Summarise a save that was just written or read.
+         *
+         * @param name Slot name (file name without .sav)
+         * @param sd   The snapshot in the file
+         * @param file The save file
+         * @return The slot
+         */
+        static Slot of(String name, SaveData sd, File file) {
+            return new Slot(name, sd.script, sd.day, sd.index, file.lastModified(), file.length());
+        }
+
+        /** @return Slot name (file name without .sav) */
+        public String getName() {
+            return name;
+        }
+
+        /** @return Script of the saved scene, or null if unknown */
+        public String getScript() {
+            return script;
+        }
+
+        /** @return Day of the saved scene */
+        public int getDay() {
+            return day;
+        }
+
+        /** @return Dialogue position in the saved scene */
+        public int getIndex() {
+            return index;
+        }
+
+        /** @return When the save was written (epoch milliseconds) */
+        public long getSavedAt() {
+            return savedAt;
+        }
+
+        /** @return Size of the save file in bytes */
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /** Slots by name (null until the index has been read) */
+    private static Map<String, Slot> slots;
+
+    /** Folder the slots were read from */
+    private static File slotsDir;
+
+    /** Set while a rewrite of the index is queued on the writer thread */
+    private static boolean flushQueued = false;
+
+    /**
+     * List every save slot, newest first.
+     * Checks the index against the saves folder (one directory listing) and
+     * opens only saves the index doesn't know.
+     *
+     * @param dir The saves folder
+     * @return The slots
+     */
+    public static synchronized List<Slot> list(File dir) {
+        load(dir);
+        String[] files = dir.list((d, n) -> n.endsWith(".sav"));
+        Set<String> onDisk = new HashSet<>();
+        if (files != null) {
+            for (String f : files)
+                onDisk.add(f.substring(0, f.length() - ".sav".length()));
+        }
+
+        boolean changed = slots.keySet().retainAll(onDisk);
+        for (String name : onDisk) {
+            if (slots.containsKey(name))
+                continue;
+            File file = new File(dir, name + ".sav");
+            Slot slot;
+            try {
+                slot = Slot.of(name, SaveManager.readSave(file), file);
+            } catch (IOException e) {
+                Log.warn(() -> "Unreadable save " + file.getName() + ": " + e.getMessage());
+                slot = new Slot(name, null, 0, 0, file.lastModified(), file.length());
+            }
+            slots.put(name, slot);
+            changed = true;
+        }
+        if (changed)
+            scheduleFlush();
+
+        List<Slot> list = new ArrayList<>(slots.values());
+        list.sort((a, b) -> Long.compare(b.savedAt, a.savedAt));
+        return list;
+    }
+
+    /**
+     * Record a slot that was written (replacing any slot of the same name).
+     *
+     * @param dir  The saves folder
+     * @param slot The slot
+     */
+    public static synchronized void put(File dir, Slot slot) {
+        load(dir);
+        slots.put(slot.name, slot);
+        scheduleFlush();
+    }
+
+    /**
+     * Forget a slot whose file was deleted.
+     *
+     * @param dir  The saves folder
+     * @param name Slot name
+     */
+    public static synchronized void remove(File dir, String name) {
+        load(dir);
+        if (slots.remove(name) != null)
+            scheduleFlush();
+    }
+
+    /** Read the index file the first time it is needed (or for a new folder). */
+    private static void load(File dir) {
+        File abs = dir.getAbsoluteFile();
+        if (slots != null && abs.equals(slotsDir))
+            return;
+        slotsDir = abs;
+        slots = new LinkedHashMap<>();
+        File file = new File(abs, FILE_NAME);
+        if (!file.exists())
+            return;
+        try {
+            for (Slot s : decode(ByteBuffer.wrap(Files.readAllBytes(file.toPath()))))
+                slots.put(s.name, s);
+        } catch (IOException e) {
+            Log.info(() -> "Rebuilding save index: " + e.getMessage());
+        }
+    }
+
+    /** Rewrite the index on the writer thread, once for a burst of changes. */
+    private static void scheduleFlush() {
+        if (flushQueued)
+            return;
+        flushQueued = true;
+        SaveWriter.execute(SaveIndex::flush);
+    }
+
+    /** Write the index file (runs on the writer thread). */
+    private static void flush() {
+        ByteBuffer buf;
+        File out;
+        synchronized (SaveIndex.class) {
+            flushQueued = false;
+            out = new File(slotsDir, FILE_NAME);
+            buf = encode(new ArrayList<>(slots.values()));
+        }
+        try {
+            if (!slotsDir.exists())
+                slotsDir.mkdirs();
+            SaveWriter.writeFile(buf, out);
+        } catch (IOException e) {
+            Log.warn(() -> "Failed to write save index: " + e.getMessage());
+        }
+    }
+
+    private static ByteBuffer encode(List<Slot> list) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + list.size() * 64);
+            DataOutputStream dos = new DataOutputStream(bytes);
+            dos.writeInt(MAGIC);
+            dos.writeShort(VERSION);
+            dos.writeInt(list.size());
+            for (Slot s : list) {
+                writeString(dos, s.name);
+                writeString(dos, s.script);
+                dos.writeInt(s.day);
+                dos.writeInt(s.index);
+                dos.writeLong(s.savedAt);
+                dos.writeLong(s.size);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            dos.writeInt((int) crc.getValue());
+            return ByteBuffer.wrap(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new java.io.UncheckedIOException(e); // a ByteArrayOutputStream can't fail
+        }
+    }
+
+    private static List<Slot> decode(ByteBuffer in) throws IOException {
+        if (in.remaining() < 14 || in.getInt(0) != MAGIC)
+            throw new IOException("not a save index");
+        CRC32 crc = new CRC32();
+        ByteBuffer covered = in.duplicate();
+        covered.limit(in.limit() - 4);
+        crc.update(covered);
+        if (in.getInt(in.limit() - 4) != (int) crc.getValue())
+            throw new IOException("damaged save index (CRC mismatch)");
+        in.position(4);
+        int version = in.getShort() & 0xFFFF;
+        if (version != VERSION)
+            throw new IOException("unsupported save index version " + version);
+        int count = in.getInt();
+        List<Slot> list = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                String name = readString(in);
+                String script = readString(in);
+                list.add(new Slot(name, script, in.getInt(), in.getInt(), in.getLong(), in.getLong()));
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("damaged save index entry", e);
+        }
+        return list;
+    }
+
+    private static void writeString(DataOutputStream dos, String s) throws IOException {
+        if (s == null) {
+            dos.writeShort(-1);
+            return;
+        }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        dos.writeShort(b.length);
+        dos.write(b);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int len = in.getShort();
+        if (len < 0)
+            return null;
+        byte[] b = new byte[len];
+        in.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -1,6 +1,15 @@
 package silentconvent;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.*;
 
 /**
@@ -9,35 +18,37 @@ import javax.swing.*;
  * later.
  * 
  * Key features:
- * - Save games to disk with automatic file naming
+ * - Save games to disk with automatic file naming, on a background thread
+ * (SaveWriter) with crash-safe writes
  * - Load saved games and restore state
- * - List all available saves
+ * - List all available saves, with a summary of each kept in a small index
+ * file (SaveIndex)
+ * - Autosave: progress is journaled as it is played (AutosaveJournal) and can
+ * be continued after a crash
  * - Detect "broken memory" (narrative story mechanic)
  * 
- * Save files are stored in the "saves/" folder with .sav extension.
+ * Save files are stored in the "saves/" folder with .sav extension, in the
+ * binary format described in SaveCodec. Older saves written with
+ * ObjectOutputStream are migrated when they are loaded.
  */
 public class SaveManager {
 
-    /**
-     * Flag: is the memory "broken"? (narrative mechanic - player forgets the story)
-     */
-    private static boolean broken = false;
-
     /** Directory where save files are stored */
     private static final String SAVE_DIR = "saves";
 
     /**
      * Save the current game snapshot using the requested filename.
-     * If a file with that name already exists, creates a numbered suffix (name(n))
-     * to avoid overwriting.
-     * Returns the final saved filename (without extension) on success or null on
-     * failure.
+     * If a save with that name already exists (or is still being written),
+     * creates a numbered suffix (name(n)) to avoid overwriting.
+     * The snapshot is taken right away; the file is written in the background
+     * (see SaveWriter), so this never waits on the disk.
      * 
      * @param filename The name for the save file (without extension)
-     * @return The actual filename used (with numbering if needed), or null if save
-     *         failed
+     * @return A future completing with the actual filename used (with numbering
+     *         if needed) once the save is on disk; completes exceptionally if
+     *         the save failed
      */
-    public static String saveGame(String filename) {
+    public static CompletableFuture<String> saveGame(String filename) {
         try {
             // Create saves folder if it doesn't exist
             File dir = new File(SAVE_DIR);
@@ -45,35 +56,38 @@ public class SaveManager {
                 dir.mkdirs();
 
             // Create a snapshot of the current game state
-            SaveData sd = snapshotCurrent();
+            SaveData sd = snapshotCurrent(true);
             if (sd == null)
-                return null;
+                throw new IOException("no scene to save");
 
             // Sanitize filename (remove whitespace, check if empty)
             String base = filename.trim();
             if (base.isEmpty())
-                return null;
+                throw new IOException("empty save name");
 
-            // Try to create the save file, numbering if file already exists
+            // Pick a free name, numbering if the name is taken
             // Example: "mysave.sav", "mysave(1).sav", "mysave(2).sav", etc.
-            File out = new File(dir, base + ".sav");
+            // (one directory listing instead of probing the disk for every number;
+            // saves still being written count as taken)
+            Set<File> pending = SaveWriter.pendingFiles();
+            Set<String> taken = new HashSet<>(Arrays.asList(listSaves()));
+            String name = base;
             int attempt = 1;
-            while (out.exists()) {
-                String trial = String.format("%s(%d)", base, attempt);
-                out = new File(dir, trial + ".sav");
+            while (taken.contains(name) || pending.contains(new File(dir, name + ".sav").getAbsoluteFile())) {
+                name = base + "(" + attempt + ")";
                 attempt++;
             }
 
-            // Write the SaveData object to disk
-            try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(out))) {
-                oos.writeObject(sd);
-            }
-            System.out.println("Saved game to " + out.getAbsolutePath());
-            String savedName = out.getName().replaceAll("\\.sav$", ""); // Remove .sav extension
-            return savedName;
+            // Write the SaveData object to disk in the background
+            final String savedName = name;
+            return SaveWriter.write(sd, new File(dir, name + ".sav")).thenApply(out -> {
+                Log.info(() -> "Saved game to " + out.getAbsolutePath());
+                SaveIndex.put(dir, SaveIndex.Slot.of(savedName, sd, out));
+                return savedName;
+            });
         } catch (Exception e) {
-            System.out.println("Failed to save game: " + e.getMessage());
-            return null;
+            Log.error(() -> "Failed to save game: " + e.getMessage());
+            return CompletableFuture.failedFuture(e);
         }
     }
 
@@ -88,10 +102,10 @@ public class SaveManager {
     public static boolean loadGame(String filename) {
         try {
             // If memory is broken (story mechanic), prevent loading
-            if (broken) {
+            if (isBroken()) {
                 // Narrative reaction: loading is forbidden / corrupted
                 // Show glitch effect and warning message
-                GameFrame.triggerRememberGlitch();
+                SceneManager.getPresenter().triggerRememberGlitch();
                 return false;
             }
 
@@ -102,48 +116,148 @@ public class SaveManager {
                 return false;
             }
 
-            // Read the SaveData object from disk
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-                SaveData sd = (SaveData) ois.readObject();
-                // Restore the game state from the SaveData
-                restoreFromSave(sd);
-            }
+            // Read the SaveData object from disk and restore the game state from it
+            restoreFromSave(readSave(file));
             return true;
         } catch (Exception e) {
-            System.out.println("Failed to load game: " + e.getMessage());
+            Log.error(() -> "Failed to load game: " + e.getMessage());
             return false;
         }
     }
 
     /**
-     * Get a list of all available save files.
+     * Write a snapshot to a save file (replacing it if it exists), in the binary
+     * format of SaveCodec, followed by its thumbnail if it has one.
+     * The file is never left half written (see SaveWriter.writeFile).
+     * Called on SaveWriter's thread (and by benchmarks).
+     * 
+     * @param sd  The snapshot to write
+     * @param out The file to write
+     * @throws IOException If the file can't be written
+     */
+    static void writeSave(SaveData sd, File out) throws IOException {
+        SaveWriter.writeFile(SaveCodec.encode(sd), out);
+        if (sd.thumbnail == null)
+            return;
+        try {
+            SaveThumbnails.write(sd.thumbnail, SaveThumbnails.fileFor(out));
+        } catch (IOException e) {
+            // The save itself is on disk; the menu just shows no picture
+            Log.warn(() -> "Failed to write thumbnail for " + out.getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Read a snapshot from a save file.
+     * Saves in the old ObjectOutputStream format are read through
+     * SaveCodec.decodeLegacy, given a script if they predate scene scripts, and
+     * rewritten in the binary format in the background so the next load is a
+     * plain one.
+     * 
+     * @param file The file to read
+     * @return The snapshot
+     * @throws IOException If the file can't be read or is not a valid save
+     */
+    static SaveData readSave(File file) throws IOException {
+        ByteBuffer buf;
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size > SaveCodec.MAX_SIZE)
+                throw new IOException("not a save file (" + size + " bytes)");
+            buf = ByteBuffer.allocate((int) size);
+            while (buf.hasRemaining()) {
+                if (ch.read(buf) < 0)
+                    throw new IOException("save file shrank while reading");
+            }
+            buf.flip();
+        }
+        if (!SaveCodec.isLegacy(buf))
+            return SaveCodec.decode(buf);
+
+        // Migrate a save from before the binary format
+        SaveData sd = SaveCodec.decodeLegacy(buf);
+        if (sd.script == null && sd.sceneClass != null)
+            sd.script = scriptForLegacyClass(sd.sceneClass);
+        SaveWriter.write(sd, file).whenComplete((f, err) -> {
+            if (err != null) {
+                Log.warn(() -> "Failed to migrate legacy save " + file.getName() + ": " + err.getMessage());
+                return;
+            }
+            Log.info(() -> "Migrated legacy save " + file.getName());
+            String name = f.getName().substring(0, f.getName().length() - ".sav".length());
+            SaveIndex.put(f.getParentFile(), SaveIndex.Slot.of(name, sd, f));
+        });
+        return sd;
+    }
+
+    /**
+     * Get a list of all available save files, newest first.
      * Returns the filenames without the .sav extension.
      * 
      * @return Array of save filenames, or empty array if no saves exist
      */
     public static String[] listSaves() {
+        List<SaveIndex.Slot> slots = listSlots();
+        String[] names = new String[slots.size()];
+        for (int i = 0; i < names.length; i++)
+            names[i] = slots.get(i).getName();
+        return names;
+    }
+
+    /**
+     * Get a summary of every save, newest first, from the save index (see
+     * SaveIndex) - no save file is opened unless the index doesn't know it.
+     * 
+     * @return The save slots, or an empty list if no saves exist
+     */
+    public static List<SaveIndex.Slot> listSlots() {
         File dir = new File(SAVE_DIR);
         if (!dir.exists())
-            return new String[0];
-        // List all .sav files in the saves directory
-        String[] list = dir.list((d, name) -> name.endsWith(".sav"));
-        if (list == null)
-            return new String[0];
-        // Remove .sav extension from filenames
-        for (int i = 0; i < list.length; i++) {
-            list[i] = list[i].replaceAll("\\.sav$", "");
-        }
-        return list;
+            return new ArrayList<>();
+        return SaveIndex.list(dir);
+    }
+
+    /**
+     * Get a save's thumbnail for the save menu (call on the EDT). Thumbnails are
+     * decoded in the background the first time they are asked for (see
+     * SaveThumbnails.get).
+     * 
+     * @param slot     The save slot
+     * @param onLoaded Run on the EDT when a thumbnail that wasn't ready has loaded
+     * @return The thumbnail, or null if it is still loading or the save has none
+     */
+    public static ImageIcon getThumbnail(SaveIndex.Slot slot, Runnable onLoaded) {
+        return SaveThumbnails.get(new File(SAVE_DIR), slot, onLoaded);
+    }
+
+    /**
+     * Delete a save (and its thumbnail) and drop it from the save index.
+     * 
+     * @param filename The name of the save file (without .sav extension)
+     * @return True if the save was deleted
+     */
+    public static boolean deleteSave(String filename) {
+        File dir = new File(SAVE_DIR);
+        File f = new File(dir, filename + ".sav");
+        if (!f.exists() || !f.delete())
+            return false;
+        SaveThumbnails.fileFor(f).delete();
+        SaveIndex.remove(dir, filename);
+        return true;
     }
 
     /**
      * Create a snapshot of the current game state.
-     * Captures: current scene, dialogue position, background, music track.
+     * Captures: current scene with its own state (choices made), dialogue
+     * position, background, music track and how far into it, fade overlay and
+     * centered text, the memory flag, and (optionally) a thumbnail of the
+     * screen.
      * 
+     * @param withThumbnail True to capture the thumbnail too
      * @return A SaveData object representing the current state, or null if no scene
      *         is loaded
      */
-    private static SaveData snapshotCurrent() {
+    private static SaveData snapshotCurrent(boolean withThumbnail) {
         try {
             Scene current = SceneManager.getCurrent();
             if (current == null)
@@ -152,30 +266,84 @@ public class SaveManager {
             // Create a SaveData object with current state
             SaveData sd = new SaveData();
             sd.sceneClass = current.getClass().getName(); // Store which scene we're in
+            sd.script = current.getScriptName(); // ...and which script it plays
             sd.index = current.index; // Store dialogue position
             sd.day = current.getDay(); // Store day number
 
-            // Store background image path if one is loaded
-            if (GameFrame.background.getIcon() instanceof ImageIcon) {
-                ImageIcon ic = (ImageIcon) GameFrame.background.getIcon();
-                sd.backgroundPath = ic.getDescription(); // The path is stored in the description
-            }
+            // Store background image path (known even while the image is still loading)
+            sd.backgroundPath = SceneManager.getPresenter().getBackgroundPath();
 
             // Store music information (path, whether it loops, local multiplier)
             sd.musicPath = AudioPlayer.getCurrentTrackPath();
             sd.musicLoop = AudioPlayer.getCurrentLoop();
             sd.musicLocalMultiplier = AudioPlayer.getCurrentLocalMultiplier();
+            sd.musicFrame = AudioPlayer.getCurrentTrackFrame();
+
+            // Store what the scene needs to resume exactly (e.g. choices made)
+            sd.sceneState = current.saveState();
+
+            // Store the fade overlay, centered text and a final reveal waiting for Next
+            Presenter ui = SceneManager.getPresenter();
+            sd.fadeAlpha = ui.getFadeAlpha();
+            sd.centeredText = ui.getCenteredText();
+            Scene pendingFinal = SceneManager.getPendingFinal();
+            sd.finalScript = pendingFinal != null ? pendingFinal.getScriptName() : null;
+            sd.memoryBroken = isBroken();
+
+            // Store a small picture of the screen (rendered small, compressed later on the writer thread)
+            if (withThumbnail)
+                sd.thumbnail = ui.captureThumbnail(SaveThumbnails.WIDTH, SaveThumbnails.HEIGHT);
 
             return sd;
         } catch (Exception e) {
-            System.out.println("Failed to create snapshot: " + e.getMessage());
+            Log.error(() -> "Failed to create snapshot: " + e.getMessage());
             return null;
         }
     }
 
+    /**
+     * Start the autosave journal over from a snapshot of the current game (see
+     * AutosaveJournal). Taking the snapshot is all that happens here; it is
+     * written on the journal thread.
+     * 
+     * @param fadingIn True if the screen is about to fade in from black (the
+     *                 snapshot is then taken as it will look, not black)
+     */
+    static void checkpoint(boolean fadingIn) {
+        SaveData sd = snapshotCurrent(false);
+        if (sd == null)
+            return;
+        if (fadingIn)
+            sd.fadeAlpha = 0f;
+        AutosaveJournal.checkpoint(new File(SAVE_DIR), sd);
+    }
+
+    /**
+     * @return True if there is autosaved progress to continue from
+     */
+    public static boolean hasAutosave() {
+        return AutosaveJournal.recover(new File(SAVE_DIR)) != null;
+    }
+
+    /**
+     * Continue from the autosave: the last checkpoint with every line and choice
+     * journaled after it (see AutosaveJournal.recover).
+     * 
+     * @return True if there was autosaved progress and it was restored
+     */
+    public static boolean continueAutosave() {
+        SaveData sd = AutosaveJournal.recover(new File(SAVE_DIR));
+        if (sd == null)
+            return false;
+        restoreFromSave(sd);
+        return true;
+    }
+
     /**
      * Restore the game state from a SaveData object.
-     * Recreates the scene, restores dialogue position, background, and music.
+     * Resumes the scene at the saved line with its saved state (nothing before
+     * it is replayed), then restores background, music (from where it was),
+     * fade overlay, centered text and a pending final reveal.
      * 
      * @param sd The SaveData object containing the state to restore
      */
@@ -183,29 +351,64 @@ public class SaveManager {
         if (sd == null)
             return;
         try {
-            // Recreate the scene using reflection (Class.forName)
-            // This allows us to save and load any scene without knowing them in advance
-            Class<?> cls = Class.forName(sd.sceneClass);
-            Scene s = (Scene) cls.getDeclaredConstructor().newInstance();
-
-            // Load the scene and restore the dialogue position
-            SceneManager.load(s);
-            s.restoreIndex(sd.index); // Jump to the saved position in the dialogue
-
-            // Restore background image (if one was saved)
-            if (sd.backgroundPath != null) {
-                GameFrame.setBackgroundImage(sd.backgroundPath);
-            }
+            Presenter ui = SceneManager.getPresenter();
+            SceneManager.session().memoryBroken = sd.memoryBroken;
+
+            // Recreate the scene from its script (readSave has already given saves
+            // from before the story was scripted the script of their scene class)
+            // and resume it at the saved line
+            Scene s = new scenes.ScriptedScene(sd.script);
+            SceneManager.resume(s, sd.index, sd.sceneState);
+
+            // Restore background image (if one was saved and the scene shows another)
+            if (sd.backgroundPath != null && !sd.backgroundPath.equals(ui.getBackgroundPath()))
+                ui.setBackgroundImage(sd.backgroundPath);
 
-            // Note: Music is commented out - could be re-enabled for full state restoration
-            // if (sd.musicPath != null) {
-            // AudioPlayer.play(sd.musicPath, sd.musicLoop, sd.musicLocalMultiplier);
-            // } else {
-            // AudioPlayer.stop();
-            // }
+            // Restore the music where it was
+            if (sd.musicPath != null)
+                ui.playAudioFrom(sd.musicPath, sd.musicLoop, sd.musicLocalMultiplier, sd.musicFrame);
+            else
+                ui.stopAudio();
+
+            // Restore the fade overlay and centered text (a fade that was running
+            // resumes at the opacity it had)
+            ui.setFadeAlpha(sd.fadeAlpha);
+            if (sd.centeredText != null)
+                ui.showCenteredText(sd.centeredText);
+            else
+                ui.hideCenteredText();
+
+            // Saved on the final message: wait for Next to reveal the final scene
+            if (sd.finalScript != null)
+                SceneManager.awaitFinal(new scenes.ScriptedScene(sd.finalScript));
+
+            // Start the autosave journal over from the restored game
+            if (SceneManager.isJournaling())
+                checkpoint(false);
         } catch (Exception e) {
-            System.out.println("Failed to restore save: " + e.getMessage());
+            Log.error(() -> "Failed to restore save: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Name of the script that replaced a hardcoded scene class.
+     * "scenes.DayOneScene" → "day_one", "scenes.DinnerScene" → "dinner".
+     * 
+     * @param sceneClass Fully qualified class name from an old save
+     * @return The script name
+     */
+    private static String scriptForLegacyClass(String sceneClass) {
+        String simple = sceneClass.substring(sceneClass.lastIndexOf('.') + 1);
+        if (simple.endsWith("Scene"))
+            simple = simple.substring(0, simple.length() - "Scene".length());
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < simple.length(); i++) {
+            char c = simple.charAt(i);
+            if (Character.isUpperCase(c) && i > 0)
+                sb.append('_');
+            sb.append(Character.toLowerCase(c));
         }
+        return sb.toString();
     }
 
     /**
@@ -213,10 +416,13 @@ public class SaveManager {
      * When broken, players cannot load saved games - attempting to load triggers a
      * glitch effect.
      * This is part of the game's narrative about forgetting/memory loss.
+     * The flag belongs to the story's session (see SceneManager.isolated).
      */
     public static void breakMemory() {
-        broken = true;
-        System.out.println("Memory has been broken (narrative).");
+        SceneManager.session().memoryBroken = true;
+        if (SceneManager.isJournaling())
+            AutosaveJournal.memoryBroken();
+        Log.info(() -> "Memory has been broken (narrative).");
     }
 
     /**
@@ -225,6 +431,6 @@ public class SaveManager {
      * @return True if memory is broken, false otherwise
      */
     public static boolean isBroken() {
-        return broken;
+        return SceneManager.session().memoryBroken;
     }
 }
@@ -11,14 +11,19 @@ public class SaveMenu {
 
     public static void open(JDialog parent) {
         JDialog dialog = new JDialog((Frame) null, "Memory", true);
-        dialog.setSize(500, 360);
+        dialog.setSize(560, 480);
         dialog.setLayout(new BorderLayout());
         dialog.setLocationRelativeTo(null);
 
-        DefaultListModel<String> model = new DefaultListModel<>();
-        for (String s : SaveManager.listSaves())
-            model.addElement(s);
-        JList<String> list = new JList<>(model);
+        // Slot summaries come from the save index, so no save file is opened here
+        DefaultListModel<SaveIndex.Slot> model = new DefaultListModel<>();
+        reload(model);
+        JList<SaveIndex.Slot> list = new JList<>(model);
+        list.setCellRenderer(new SlotRenderer());
+        // Fixed cell sizes: the list then never renders (and so never loads the
+        // thumbnail of) a slot that isn't scrolled into view
+        list.setFixedCellWidth(400);
+        list.setFixedCellHeight(SaveThumbnails.HEIGHT + 8);
         JScrollPane sc = new JScrollPane(list);
         dialog.add(sc, BorderLayout.CENTER);
 
@@ -36,36 +41,40 @@ public class SaveMenu {
         saveBtn.addActionListener(e -> {
             String name = JOptionPane.showInputDialog(dialog, "Save name:");
             if (name != null && !name.trim().isEmpty()) {
-                String saved = SaveManager.saveGame(name.trim());
-                if (saved != null) {
-                    model.addElement(saved);
-                    JOptionPane.showMessageDialog(dialog, "Saved as: " + saved);
-                } else {
-                    JOptionPane.showMessageDialog(dialog, "Save failed.", "Error", JOptionPane.ERROR_MESSAGE);
-                }
+                // The file is written in the background; report back once it is on disk
+                SaveManager.saveGame(name.trim()).whenComplete((saved, err) -> SwingUtilities.invokeLater(() -> {
+                    if (err == null)
+                        reload(model);
+                    if (!dialog.isDisplayable())
+                        return;
+                    if (err == null) {
+                        JOptionPane.showMessageDialog(dialog, "Saved as: " + saved);
+                    } else {
+                        JOptionPane.showMessageDialog(dialog, "Save failed.", "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }));
             }
         });
 
         loadBtn.addActionListener(e -> {
-            String sel = list.getSelectedValue();
+            SaveIndex.Slot sel = list.getSelectedValue();
             if (sel == null) {
                 JOptionPane.showMessageDialog(dialog, "Select a save to load.");
                 return;
             }
             if (SaveManager.isBroken()) {
                 // Narrative: loading is blocked and appears corrupted
-                GameFrame.triggerRememberGlitch();
+                GameFrame.getInstance().triggerRememberGlitch();
                 return;
             }
-            GameFrame.ensureCreated();
-            boolean ok = SaveManager.loadGame(sel);
+            SceneManager.ensureButtonsInitialized();
+            boolean ok = SaveManager.loadGame(sel.getName());
             if (ok) {
                 JOptionPane.showMessageDialog(dialog, "Loaded.");
                 dialog.dispose();
                 if (parent != null) {
                     parent.dispose();
                 }
-                SceneManager.ensureButtonsInitialized();
                 GameFrame.getInstance().setVisible(true);
                 GameFrame.getInstance().setState(java.awt.Frame.NORMAL);
                 GameFrame.getInstance().toFront();
@@ -75,16 +84,15 @@ public class SaveMenu {
         });
 
         deleteBtn.addActionListener(e -> {
-            String sel = list.getSelectedValue();
+            SaveIndex.Slot sel = list.getSelectedValue();
             if (sel == null) {
                 JOptionPane.showMessageDialog(dialog, "Select a save to delete.");
                 return;
             }
-            int conf = JOptionPane.showConfirmDialog(dialog, "Delete save '" + sel + "'?", "Confirm",
+            int conf = JOptionPane.showConfirmDialog(dialog, "Delete save '" + sel.getName() + "'?", "Confirm",
                     JOptionPane.YES_NO_OPTION);
             if (conf == JOptionPane.YES_OPTION) {
-                java.io.File f = new java.io.File("saves", sel + ".sav");
-                if (f.exists() && f.delete()) {
+                if (SaveManager.deleteSave(sel.getName())) {
                     model.removeElement(sel);
                     JOptionPane.showMessageDialog(dialog, "Deleted.");
                 } else {
@@ -97,4 +105,56 @@ public class SaveMenu {
 
         dialog.setVisible(true);
     }
+
+    /** Fill the list with the current save slots (newest first). */
+    private static void reload(DefaultListModel<SaveIndex.Slot> model) {
+        model.clear();
+        for (SaveIndex.Slot slot : SaveManager.listSlots())
+            model.addElement(slot);
+    }
+
+    /**
+     * Shows a slot as its thumbnail next to its name and a line of details:
+     * day, scene and line, when it was saved and its size.
+     * Thumbnails load in the background; a blank frame shows until then.
+     */
+    private static class SlotRenderer extends DefaultListCellRenderer {
+        private static final long serialVersionUID = 1L;
+
+        private final java.text.DateFormat dateFormat = java.text.DateFormat
+                .getDateTimeInstance(java.text.DateFormat.MEDIUM, java.text.DateFormat.SHORT);
+
+        /** Shown while a thumbnail loads, or for saves without one */
+        private final Icon placeholder = blankIcon();
+
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected,
+                boolean cellHasFocus) {
+            super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+            SaveIndex.Slot slot = (SaveIndex.Slot) value;
+            String scene = slot.getScript() != null ? slot.getScript() + ", line " + (slot.getIndex() + 1)
+                    : "unknown scene";
+            setText("<html><b>" + escape(slot.getName()) + "</b><br>Day " + slot.getDay() + " \u00b7 " + escape(scene)
+                    + " \u00b7 " + dateFormat.format(new java.util.Date(slot.getSavedAt())) + " \u00b7 "
+                    + slot.getSize() + " bytes</html>");
+            ImageIcon thumb = SaveManager.getThumbnail(slot, list::repaint);
+            setIcon(thumb != null ? thumb : placeholder);
+            setIconTextGap(10);
+            return this;
+        }
+
+        private static Icon blankIcon() {
+            java.awt.image.BufferedImage img = new java.awt.image.BufferedImage(SaveThumbnails.WIDTH,
+                    SaveThumbnails.HEIGHT, java.awt.image.BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2 = img.createGraphics();
+            g2.setColor(Color.DARK_GRAY);
+            g2.fillRect(0, 0, img.getWidth(), img.getHeight());
+            g2.dispose();
+            return new ImageIcon(img);
+        }
+
+        private static String escape(String s) {
+            return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+        }
+    }
 }
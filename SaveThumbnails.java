@@ -0,0 +1,161 @@
+package silentconvent;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+
+/**
+ * SaveThumbnails stores a small picture of the screen next to each save
+ * ("name.thumb" beside "name.sav") and loads them back for the save menu.
+ *
+ * Key features:
+ * - The picture is rendered small on the EDT when the save is made (see
+ * GameCanvas.captureThumbnail); compressing it to JPEG happens on SaveWriter's
+ * thread, together with the save itself
+ * - Thumbnails are written crash-safe like saves (SaveWriter.writeFile); a
+ * missing or unreadable one only means the menu shows no picture
+ * - The menu asks for thumbnails as it paints slots, so only slots scrolled
+ * into view are ever decoded; decoding runs on a background thread and the
+ * list is repainted when a picture is ready
+ * - Decoded thumbnails are kept in a small LRU cache, keyed by slot name and
+ * save time so a replaced save never shows the old picture
+ */
+public class SaveThumbnails {
+
+    /** Thumbnail size (the scene is 16:9) */
+    public static final int WIDTH = 160;
+    public static final int HEIGHT = 90;
+
+    /** Extension of thumbnail files */
+    static final String EXTENSION = ".thumb";
+
+    /** JPEG quality (0-1); thumbnails come out at a few KB */
+    private static final float QUALITY = 0.8f;
+
+    /** Number of decoded thumbnails kept */
+    private static final int CACHE_SIZE = 64;
+
+    /** Decodes thumbnails for the menu (daemon so it never keeps the JVM alive) */
+    private static final ExecutorService decoder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "thumbnail-decoder");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Decoded thumbnails in access order; null for slots without one (EDT only) */
+    private static final LinkedHashMap<String, ImageIcon> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Keys being decoded right now (EDT only) */
+    private static final Set<String> loading = new HashSet<>();
+
+    /**
+     * @param saveFile A save file ("name.sav")
+     * @return Its thumbnail file ("name.thumb")
+     */
+    static File fileFor(File saveFile) {
+        String name = saveFile.getName();
+        if (name.endsWith(".sav"))
+            name = name.substring(0, name.length() - ".sav".length());
+        return new File(saveFile.getParentFile(), name + EXTENSION);
+    }
+
+    /**
+     * Compress a thumbnail and write it crash-safe (called on SaveWriter's
+     * thread).
+     *
+     * @param thumb The picture
+     * @param out   The thumbnail file
+     * @throws IOException If the file can't be written
+     */
+    static void write(BufferedImage thumb, File out) throws IOException {
+        SaveWriter.writeFile(encode(thumb), out);
+    }
+
+    /**
+     * Compress a thumbnail to JPEG.
+     *
+     * @param thumb The picture (opaque)
+     * @return The file contents, ready to write
+     * @throws IOException If no JPEG writer is available
+     */
+    static ByteBuffer encode(BufferedImage thumb) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext())
+            throw new IOException("no JPEG writer");
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 * 1024);
+        try (MemoryCacheImageOutputStream out = new MemoryCacheImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(QUALITY);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(thumb, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    /**
+     * Get a slot's thumbnail for painting (call on the EDT).
+     * If it isn't decoded yet, it is decoded in the background and onLoaded
+     * runs on the EDT once it is ready.
+     *
+     * @param dir      The saves folder
+     * @param slot     The slot
+     * @param onLoaded Run when a thumbnail that wasn't ready has been loaded
+     *                 (e.g. repaint the list)
+     * @return The thumbnail, or null if it is still loading or the slot has none
+     */
+    public static ImageIcon get(File dir, SaveIndex.Slot slot, Runnable onLoaded) {
+        String key = slot.getName() + "@" + slot.getSavedAt();
+        ImageIcon icon = cache.get(key);
+        if (icon != null || cache.containsKey(key) || !loading.add(key))
+            return icon;
+
+        File file = new File(dir, slot.getName() + EXTENSION);
+        decoder.execute(() -> {
+            BufferedImage img = null;
+            try {
+                if (file.exists())
+                    img = ImageIO.read(file);
+            } catch (IOException e) {
+                Log.warn(() -> "Unreadable thumbnail " + file.getName() + ": " + e.getMessage());
+            }
+            ImageIcon loaded = img != null ? new ImageIcon(img) : null;
+            SwingUtilities.invokeLater(() -> {
+                loading.remove(key);
+                cache.put(key, loaded);
+                trim();
+                if (loaded != null)
+                    onLoaded.run();
+            });
+        });
+        return null;
+    }
+
+    /** Drop least recently used thumbnails past the cache size. */
+    private static void trim() {
+        Iterator<Map.Entry<String, ImageIcon>> it = cache.entrySet().iterator();
+        while (cache.size() > CACHE_SIZE && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package silentconvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SaveWriter writes save files on a background thread so the game never waits
+ * on the disk.
+ *
+ * Key features:
+ * - One daemon writer thread, so writes never overlap and happen in the order
+ * they were asked for
+ * - Each write is crash-safe (see writeFile: temp file, fsync, atomic
+ * rename), so a save file is always either the old one or the new one
+ * - Writes to a file that is still waiting its turn are coalesced: only the
+ * newest snapshot is written and every caller gets the same future
+ * - At exit, writes still queued are given a few seconds to finish
+ *
+ * Futures complete on the writer thread - use SwingUtilities.invokeLater to
+ * touch Swing components from their callbacks.
+ */
+public class SaveWriter {
+
+    /** How long exit waits for queued writes */
+    private static final long EXIT_WAIT_MS = 3000;
+
+    /** The writer thread (daemon so it never keeps the JVM alive) */
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "save-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** A write that has not started yet */
+    private static final class Pending {
+        /** Newest snapshot for the file (replaced by later saves) */
+        SaveData data;
+
+        /** Completed when the file has been written */
+        final CompletableFuture<File> done = new CompletableFuture<>();
+    }
+
+    /** Writes waiting for the writer thread, by file */
+    private static final Map<File, Pending> queued = new HashMap<>();
+
+    /** File the writer thread is writing right now (null when idle) */
+    private static volatile File running;
+
+    /** Writes not finished yet (queued or being written), for the exit hook */
+    private static final Set<CompletableFuture<File>> unfinished = ConcurrentHashMap.newKeySet();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(SaveWriter::awaitAll, "save-writer-exit"));
+    }
+
+    /**
+     * Write a snapshot to a file in the background.
+     * If a write to the same file is still queued, its snapshot is replaced by
+     * this one and its future is returned.
+     *
+     * @param sd     The snapshot (must not be changed afterwards)
+     * @param target The save file
+     * @return A future completing with the file once it is on disk
+     */
+    public static CompletableFuture<File> write(SaveData sd, File target) {
+        File key = target.getAbsoluteFile();
+        synchronized (queued) {
+            Pending p = queued.get(key);
+            if (p != null) {
+                p.data = sd;
+                return p.done;
+            }
+            Pending fresh = new Pending();
+            fresh.data = sd;
+            queued.put(key, fresh);
+            unfinished.add(fresh.done);
+            fresh.done.whenComplete((f, err) -> unfinished.remove(fresh.done));
+            writer.execute(() -> flush(key));
+            return fresh.done;
+        }
+    }
+
+    /**
+     * Run a task on the writer thread, after the writes already queued (used to
+     * keep the save index in step with the saves, see SaveIndex).
+     *
+     * @param task What to run
+     */
+    static void execute(Runnable task) {
+        writer.execute(task);
+    }
+
+    /**
+     * Files with a write queued or running (their names are taken even if they
+     * aren't on disk yet). Take this before listing the folder: a write that
+     * finishes in between is then on disk by the time the folder is listed.
+     *
+     * @return The files, as absolute paths
+     */
+    public static Set<File> pendingFiles() {
+        synchronized (queued) {
+            Set<File> files = new HashSet<>(queued.keySet());
+            File now = running;
+            if (now != null)
+                files.add(now);
+            return files;
+        }
+    }
+
+    /** Write the newest snapshot for a file (runs on the writer thread). */
+    private static void flush(File key) {
+        Pending p;
+        synchronized (queued) {
+            p = queued.remove(key);
+            running = key;
+        }
+        try {
+            SaveManager.writeSave(p.data, key);
+            p.done.complete(key);
+        } catch (Throwable e) {
+            p.done.completeExceptionally(e);
+        } finally {
+            running = null;
+        }
+    }
+
+    /**
+     * Replace a file without ever leaving it half written: the bytes go to a
+     * temporary file in the same folder, are forced to disk, and the temporary
+     * file is then atomically renamed over the target.
+     *
+     * @param buf The new contents (read from its position to its limit)
+     * @param out The file to replace
+     * @throws IOException If the file can't be written
+     */
+    static void writeFile(ByteBuffer buf, File out) throws IOException {
+        Path target = out.toPath().toAbsolutePath();
+        Path tmp = Files.createTempFile(target.getParent(), out.getName(), ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                while (buf.hasRemaining())
+                    ch.write(buf);
+                ch.force(true);
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** Wait (a bounded time) for every unfinished write; used at exit. */
+    private static void awaitAll() {
+        CompletableFuture<?>[] all = unfinished.toArray(new CompletableFuture<?>[0]);
+        if (all.length == 0)
+            return;
+        try {
+            CompletableFuture.allOf(all).get(EXIT_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            Log.warn(() -> "Saves still being written at exit: " + e.getMessage());
+        }
+    }
+}
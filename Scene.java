@@ -6,7 +6,8 @@ package silentconvent;
  * Scenes manage the dialogue flow, character positioning, and progression
  * logic.
  * 
- * Subclasses include: DayOneScene, DayTwoScene, FinalScene, etc.
+ * The story's scenes are ScriptedScenes, played from script files (see
+ * SceneScript).
  */
 public abstract class Scene {
 
@@ -30,7 +31,7 @@ public abstract class Scene {
         // Clear any residual character sprites from the previous scene so they don't
         // persist
         // This prevents characters from appearing in multiple scenes
-        GameFrame.clearCharacters();
+        SceneManager.getPresenter().clearCharacters();
         // Let the specific scene implement its own startup logic
         start();
     }
@@ -66,6 +67,30 @@ public abstract class Scene {
         updateDisplay();
     }
 
+    /**
+     * State this scene needs, beyond its index, to be resumed exactly (e.g. the
+     * choices made so far). Saves store it as an opaque blob that only the
+     * scene reads back (see resume).
+     * 
+     * @return The state, or null if the index is all there is (the default)
+     */
+    public byte[] saveState() {
+        return null;
+    }
+
+    /**
+     * Put the scene back exactly where a save left it. Called instead of
+     * enter() when a saved game is loaded (see SceneManager.resume), so earlier
+     * lines, cues and choices are not played again.
+     * The default just jumps to the index (restoreIndex).
+     * 
+     * @param idx   The saved index position
+     * @param state The blob from saveState(), or null (e.g. older saves)
+     */
+    public void resume(int idx, byte[] state) {
+        restoreIndex(idx);
+    }
+
     /**
      * Update the GameFrame's display to show content at the current index.
      * Subclasses should override this to update dialogue and characters based on
@@ -79,9 +104,49 @@ public abstract class Scene {
         // Default empty implementation - subclasses override if they need this
     }
 
+    /**
+     * Background images this scene shows (paths as passed to
+     * Presenter.setBackgroundImage).
+     * SceneManager prefetches these while transitioning into the scene.
+     * 
+     * @return Background image paths (default is none)
+     */
+    public String[] getBackgrounds() {
+        return new String[0];
+    }
+
+    /**
+     * Characters whose portraits this scene shows (e.g. "Agnes").
+     * Both the left and right sprite of each character are prefetched.
+     * 
+     * @return Character names (default is none)
+     */
+    public String[] getPortraits() {
+        return new String[0];
+    }
+
+    /**
+     * Audio files this scene plays (paths as passed to Presenter.playAudio).
+     * 
+     * @return Audio file paths (default is none)
+     */
+    public String[] getAudioTracks() {
+        return new String[0];
+    }
+
+    /**
+     * Name of the script this scene plays, if it is scripted.
+     * Saves store it so the scene can be recreated on load.
+     * 
+     * @return Script name (default is null, for scenes written in Java)
+     */
+    public String getScriptName() {
+        return null;
+    }
+
     /**
      * Return which day this scene belongs to (used for tracking progress).
-     * Example: DayOneScene returns 1, DayTwoScene returns 2, etc.
+     * Example: the day_one script returns 1, day_two returns 2, etc.
      * 
      * @return The day number (default is 0 for scenes not part of a specific day)
      */
@@ -6,104 +6,224 @@ import scenes.*;
  * SceneManager controls the flow of the game - which scene is currently active,
  * transitions between scenes, and player interactions with buttons.
  * 
+ * Everything is shown through a Presenter (the GameFrame, or a
+ * HeadlessPresenter when the story runs without a window).
+ * 
  * It acts as the "conductor" of the story, managing:
  * - Current active scene
  * - Button listeners (Next, Remember, Main Menu)
  * - Fade transitions between days
- * - Save/load game state
+ * - Save/load game state, and journaling progress for autosave
+ * (AutosaveJournal)
  * - Unlocking the full story
  */
 public class SceneManager {
 
-    /** The scene currently being displayed */
-    private static Scene current;
+    /**
+     * Everything one run of the story keeps track of. The game has a single
+     * session; playthroughs on other threads can each have their own (see
+     * isolated()).
+     */
+    static final class Session {
+        /** The scene currently being displayed */
+        Scene current;
+
+        /** Flag: are we waiting for player to press Next to reveal the final scene? */
+        boolean awaitingFinalAdvance = false;
+
+        /** The final scene waiting to be revealed */
+        Scene finalPending = null;
 
-    /** Flag: are we waiting for player to press Next to reveal the final scene? */
-    private static boolean awaitingFinalAdvance = false;
+        /** Flag: has the game started (Play button pressed) */
+        boolean started = false;
+
+        /** Flag: has the player unlocked the full story view? */
+        boolean storyUnlocked = false;
+
+        /** Flag: have button listeners been initialized? */
+        boolean buttonsInitialized = false;
+
+        /** Flag: is the memory "broken"? (see SaveManager.breakMemory) */
+        boolean memoryBroken = false;
+
+        /** Where scenes are shown (the GameFrame, or a HeadlessPresenter) */
+        Presenter presenter;
+    }
 
-    /** The final scene waiting to be revealed */
-    private static Scene finalPending = null;
+    /** The game's session (used on the Event Dispatch Thread) */
+    private static final Session game = new Session();
 
-    /** Flag: has the game started (Play button pressed) */
-    private static boolean started = false;
+    /** Sessions bound to a thread by isolated(), overriding the game's */
+    private static final ThreadLocal<Session> bound = new ThreadLocal<>();
 
-    /** Flag: has the player unlocked the full story view? */
-    private static boolean storyUnlocked = false;
+    /**
+     * @return True if the calling thread's story is journaled for autosave
+     *         (the game's own session, shown in the GameFrame - never a
+     *         headless or isolated playthrough)
+     */
+    public static boolean isJournaling() {
+        Session s = session();
+        return s == game && s.presenter instanceof GameFrame;
+    }
 
-    /** Flag: have button listeners been initialized? */
-    private static boolean buttonsInitialized = false;
+    /**
+     * Tell the autosave journal a scene's own state changed (e.g. a choice was
+     * answered), if that scene is the one being played.
+     * 
+     * @param scene The scene
+     */
+    public static void sceneStateChanged(Scene scene) {
+        if (isJournaling() && scene == session().current)
+            AutosaveJournal.sceneState(scene.saveState());
+    }
 
     /**
-     * Start the game - create the game frame and load Day One.
+     * @return The session of the calling thread: its own inside isolated(),
+     *         otherwise the game's
+     */
+    static Session session() {
+        Session s = bound.get();
+        return s != null ? s : game;
+    }
+
+    /**
+     * Run a task with a fresh session of its own on this thread, so several
+     * playthroughs can run at once without seeing each other's scenes (see
+     * BranchExplorer). Scenes, scripts and assets are shared read-only;
+     * everything the story changes lives in the session and the presenter.
+     * 
+     * @param task The playthrough to run (typically start(Presenter), then
+     *             advance() until it ends)
+     */
+    public static void isolated(Runnable task) {
+        Session previous = bound.get();
+        bound.set(new Session());
+        try {
+            task.run();
+        } finally {
+            if (previous != null)
+                bound.set(previous);
+            else
+                bound.remove();
+        }
+    }
+
+    /**
+     * Start the game - create the game frame and load Day One (the first script).
      * Called when player clicks "Play" in the main menu.
      * Only runs once (ignored if called multiple times).
      */
     public static void start() {
-        if (started)
+        if (session().started)
             return;
-        started = true;
         // Create & show the GameFrame only when the game actually starts (Play pressed)
         GameFrame.ensureCreated();
         GameFrame.getInstance().setVisible(true);
+        start(GameFrame.getInstance());
+    }
+
+    /**
+     * Start the story on a given presenter and load Day One.
+     * Used directly for headless playthroughs (see HeadlessPlaythrough); each
+     * call starts a fresh run, replacing any earlier presenter.
+     * 
+     * @param p Where the story is shown
+     */
+    public static void start(Presenter p) {
+        Session s = session();
+        s.started = true;
+        // A new presenter needs its controls bound; the old one's stay bound
+        if (p != s.presenter)
+            s.buttonsInitialized = false;
+        s.presenter = p;
+        s.current = null;
+        s.awaitingFinalAdvance = false;
+        s.finalPending = null;
         initializeButtonListeners();
-        load(new DayOneScene());
+        load(new ScriptedScene(ScriptedScene.FIRST_SCRIPT));
     }
 
     /**
      * Ensure button listeners are set up.
-     * Used when loading a saved game from the menu.
+     * Used when loading a saved game from the menu (creates the game frame if
+     * the game was never started).
      */
     public static void ensureButtonsInitialized() {
-        if (!buttonsInitialized) {
-            started = true;
+        Session s = session();
+        if (s.presenter == null) {
+            GameFrame.ensureCreated();
+            s.presenter = GameFrame.getInstance();
+        }
+        if (!s.buttonsInitialized) {
+            s.started = true;
             initializeButtonListeners();
         }
     }
 
     /**
-     * Initialize button click listeners for Next, Remember, and Main Menu buttons.
+     * Initialize button click listeners for the Next and Remember buttons.
      * This sets up what happens when the player clicks these buttons.
      */
     private static void initializeButtonListeners() {
-        if (buttonsInitialized)
+        Session s = session();
+        if (s.buttonsInitialized)
             return;
-        buttonsInitialized = true;
+        s.buttonsInitialized = true;
 
-        // ===== NEXT BUTTON LISTENER =====
-        // Called when player clicks "Next" to advance dialogue/story
-        GameFrame.nextButton.addActionListener(new java.awt.event.ActionListener() {
+        s.presenter.bindControls(new Runnable() {
+            // ===== NEXT BUTTON =====
+            // Called when player clicks "Next" to advance dialogue/story
             @Override
-            public void actionPerformed(java.awt.event.ActionEvent e) {
-                // Disable button for 300ms to prevent rapid spamming
-                // Rapid clicks can confuse game state or trigger multiple actions
-                GameFrame.nextButton.setEnabled(false);
-                new javax.swing.Timer(300, new java.awt.event.ActionListener() {
-                    @Override
-                    public void actionPerformed(java.awt.event.ActionEvent ev) {
-                        ((javax.swing.Timer) ev.getSource()).stop();
-                        GameFrame.nextButton.setEnabled(true);
-                    }
-                }).start();
-
-                // If we're waiting for final advance, reveal the final scene
-                // Otherwise, advance the current scene
-                if (awaitingFinalAdvance) {
-                    revealFinal();
-                } else if (current != null) {
-                    current.next();
-                }
+            public void run() {
+                advance();
+            }
+        }, new Runnable() {
+            // ===== REMEMBER BUTTON =====
+            // Called when player clicks "Remember" to open save/load menu
+            // (Note: broken memory will still allow the menu but loading will be blocked)
+            @Override
+            public void run() {
+                SaveMenu.open();
             }
         });
+    }
 
-        // ===== REMEMBER BUTTON LISTENER =====
-        // Called when player clicks "Remember" to open save/load menu
-        // (Note: broken memory will still allow the menu but loading will be blocked)
-        GameFrame.rememberButton.addActionListener(new java.awt.event.ActionListener() {
+    /**
+     * Advance the story by one step, as if the player pressed Next.
+     * Headless playthroughs call this directly.
+     */
+    public static void advance() {
+        Session s = session();
+        // Disable Next for 300ms to prevent rapid spamming
+        // Rapid clicks can confuse game state or trigger multiple actions
+        s.presenter.setNextEnabled(false);
+        s.presenter.delay(300, new Runnable() {
             @Override
-            public void actionPerformed(java.awt.event.ActionEvent e) {
-                SaveMenu.open();
+            public void run() {
+                s.presenter.setNextEnabled(true);
             }
         });
+
+        // If we're waiting for final advance, reveal the final scene
+        // Otherwise, advance the current scene
+        if (s.awaitingFinalAdvance) {
+            revealFinal();
+        } else if (s.current != null) {
+            s.current.next();
+        }
+
+        // Journal the line we are on, so a crash doesn't lose it
+        if (isJournaling() && s.current != null)
+            AutosaveJournal.line(s.current.index);
+    }
+
+    /**
+     * Get the presenter scenes are shown on.
+     * 
+     * @return The presenter (null until the game starts)
+     */
+    public static Presenter getPresenter() {
+        return session().presenter;
     }
 
     /**
@@ -112,7 +232,7 @@ public class SceneManager {
      * @return The current Scene object
      */
     public static Scene getCurrent() {
-        return current;
+        return session().current;
     }
 
     /**
@@ -120,7 +240,7 @@ public class SceneManager {
      * Called when the game reaches a certain point in the story.
      */
     public static void unlockStory() {
-        storyUnlocked = true;
+        session().storyUnlocked = true;
     }
 
     /**
@@ -129,7 +249,16 @@ public class SceneManager {
      * @return True if story is unlocked, false otherwise
      */
     public static boolean isStoryUnlocked() {
-        return storyUnlocked;
+        return session().storyUnlocked;
+    }
+
+    /**
+     * Check if the game has started (Play pressed or a save loaded).
+     * 
+     * @return True once the game has started
+     */
+    public static boolean isStarted() {
+        return session().started;
     }
 
     /**
@@ -137,56 +266,63 @@ public class SceneManager {
      * Shows "Day X" text in the middle of the screen during transition.
      * 
      * Transition behavior:
-     * - Fade to black
+     * - Start prefetching the next scene's assets
+     * - Fade to black while the music fades out over the same time
      * - Display "Day X" message
      * - Load the new scene
-     * - Fade back in
+     * - Fade back in (a ducked master volume comes back up with the picture)
      * 
      * @param nextScene The scene to transition to
      * @param dayNumber The day number to display
      */
     public static void transitionTo(Scene nextScene, int dayNumber) {
+        Session s = session();
+        Presenter presenter = s.presenter;
+        Scene current = s.current;
         // Choose shorter fades if staying within the same day (for speed)
         // Longer fades between different days (for atmosphere)
         boolean sameDay = (current != null && nextScene != null && current.getDay() == nextScene.getDay());
         int fadeMs = sameDay ? 350 : 700; // milliseconds for fade animation
 
         // Optionally duck (lower) master volume a bit during short intra-day fades
-        float originalVolume = AudioPlayer.getVolume();
+        float originalVolume = presenter.getVolume();
         float ducked = sameDay ? Math.max(0f, originalVolume * 0.8f) : originalVolume;
 
+        // Start decoding the next scene's backgrounds, portraits and music now so
+        // fading back in never waits on disk or decode work
+        presenter.prefetch(nextScene);
+
+        // Fade the music out in step with the picture; duck short transitions
+        presenter.crossfadeAudio(null, fadeMs);
+        if (sameDay)
+            presenter.fadeVolume(ducked, fadeMs);
+
         // Start fade to black
-        GameFrame.fadeToBlack(fadeMs, new Runnable() {
+        presenter.fadeToBlack(fadeMs, new Runnable() {
             @Override
             public void run() {
-                // Lower audio slightly for short transitions
-                if (sameDay)
-                    AudioPlayer.setVolume(ducked);
-                // Stop any currently playing audio
-                AudioPlayer.stop();
                 // Show "Day X" text on black screen
-                GameFrame.showCenteredText("Day " + dayNumber);
+                presenter.showCenteredText("Day " + dayNumber);
 
                 // Wait 900ms while showing "Day X", then load scene and fade in
-                new javax.swing.Timer(900, new java.awt.event.ActionListener() {
+                presenter.delay(900, new Runnable() {
                     @Override
-                    public void actionPerformed(java.awt.event.ActionEvent ev) {
-                        ((javax.swing.Timer) ev.getSource()).stop();
+                    public void run() {
                         // Hide "Day X" and load the new scene
-                        GameFrame.hideCenteredText();
+                        presenter.hideCenteredText();
                         load(nextScene);
+                        // Bring the master volume back up as the picture fades in
+                        if (sameDay)
+                            presenter.fadeVolume(originalVolume, fadeMs);
                         // Fade back in from black
-                        GameFrame.fadeFromBlack(fadeMs, new Runnable() {
+                        presenter.fadeFromBlack(fadeMs, new Runnable() {
                             @Override
                             public void run() {
-                                // Restore master volume
-                                if (sameDay)
-                                    AudioPlayer.setVolume(originalVolume);
-                                GameFrame.showDialogue("");
+                                presenter.showDialogue("");
                             }
                         });
                     }
-                }).start();
+                });
             }
         });
     }
@@ -202,21 +338,24 @@ public class SceneManager {
      * @param finalScene The final scene to eventually show
      */
     public static void transitionToFinal(Scene finalScene) {
-        // Fade to black and display the special final message
-        // Then wait for the player to press Next
-        GameFrame.fadeToBlack(700, new Runnable() {
+        Session s = session();
+        Presenter presenter = s.presenter;
+        // Load the final room while the message is on screen
+        presenter.prefetch(finalScene);
+        // Fade to black (and fade the music out with it), display the special
+        // final message, then wait for the player to press Next
+        presenter.crossfadeAudio(null, 700);
+        presenter.fadeToBlack(700, new Runnable() {
             @Override
             public void run() {
-                // Stop any music
-                AudioPlayer.stop();
                 // Show the emotional message
-                GameFrame.showCenteredText("I don't want to remember this");
-                GameFrame.hideDialogue();
-                GameFrame.rememberButton.setVisible(false);
+                presenter.showCenteredText("I don't want to remember this");
+                presenter.hideDialogue();
+                presenter.setRememberVisible(false);
 
                 // Wait for Next to be pressed to reveal final scene
-                awaitingFinalAdvance = true;
-                finalPending = finalScene;
+                s.awaitingFinalAdvance = true;
+                s.finalPending = finalScene;
             }
         });
     }
@@ -226,13 +365,14 @@ public class SceneManager {
      * Called from the Next button listener when awaitingFinalAdvance is true.
      */
     private static void revealFinal() {
-        awaitingFinalAdvance = false;
-        if (finalPending == null)
+        Session s = session();
+        s.awaitingFinalAdvance = false;
+        if (s.finalPending == null)
             return;
 
         // Load final scene while black, then fade in to reveal it
-        load(finalPending);
-        GameFrame.fadeFromBlack(700, new Runnable() {
+        load(s.finalPending);
+        s.presenter.fadeFromBlack(700, new Runnable() {
             @Override
             public void run() {
                 // Final scene decides to use centered text rendering; nothing more needed here.
@@ -240,6 +380,51 @@ public class SceneManager {
         });
     }
 
+    /**
+     * Final scene waiting to be revealed by the next press of Next (saves store
+     * it so a game saved on the final message resumes there).
+     * 
+     * @return The scene, or null if no final reveal is pending
+     */
+    public static Scene getPendingFinal() {
+        Session s = session();
+        return s.awaitingFinalAdvance ? s.finalPending : null;
+    }
+
+    /**
+     * Wait for Next to reveal a final scene, as at the end of transitionToFinal
+     * (used when a save made on the final message is loaded).
+     * 
+     * @param finalScene The final scene to reveal
+     */
+    public static void awaitFinal(Scene finalScene) {
+        Session s = session();
+        s.presenter.hideDialogue();
+        s.presenter.setRememberVisible(false);
+        s.awaitingFinalAdvance = true;
+        s.finalPending = finalScene;
+    }
+
+    /**
+     * Activate a scene at a saved position (see Scene.resume).
+     * Unlike load(), the scene does not start over: nothing before the saved
+     * line is shown or played again.
+     * 
+     * @param scene The scene to show
+     * @param index The saved index position
+     * @param state The scene's saved state (may be null)
+     */
+    public static void resume(Scene scene, int index, byte[] state) {
+        Session s = session();
+        s.current = scene;
+        s.awaitingFinalAdvance = false;
+        s.finalPending = null;
+        Log.debug(() -> "Resuming scene: " + describe(scene) + " at " + index);
+        s.presenter.clearCharacters();
+        scene.resume(index, state);
+        s.presenter.setNextEnabled(true);
+    }
+
     /**
      * Load and activate a scene.
      * This sets the scene as current, calls enter() to initialize it,
@@ -248,8 +433,9 @@ public class SceneManager {
      * @param scene The Scene to load and display
      */
     public static void load(Scene scene) {
-        current = scene;
-        System.out.println("Loading scene: " + scene.getClass().getSimpleName());
+        Session s = session();
+        s.current = scene;
+        Log.debug(() -> "Loading scene: " + describe(scene));
 
         // Use enter() to reset the scene index and call its start() method
         // This initializes the scene (loads sprites, plays music, displays first line,
@@ -257,6 +443,17 @@ public class SceneManager {
         scene.enter();
 
         // Ensure the Next button is enabled when a new scene loads
-        GameFrame.nextButton.setEnabled(true);
+        s.presenter.setNextEnabled(true);
+
+        // Start the autosave journal over from the new scene (every caller fades
+        // in after loading, so the checkpoint is taken as the scene will look)
+        if (isJournaling())
+            SaveManager.checkpoint(true);
+    }
+
+    /** @return The scene's script name, or its class name if it isn't scripted */
+    private static String describe(Scene scene) {
+        String script = scene.getScriptName();
+        return script != null ? script : scene.getClass().getSimpleName();
     }
 }
@@ -0,0 +1,632 @@
+package silentconvent;
+
+import java.awt.Font;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SceneScript is a scene compiled from a script file (assets/scripts/NAME.scene).
+ * Scripts are plain UTF-8 text, so writers can add or change days without
+ * touching Java code. A script is read and compiled once; showing a line later
+ * does no parsing at all.
+ *
+ * Script format, one entry per line:
+ * - Blank lines and lines starting with '#' are ignored
+ * - Any other line is a line of dialogue (see DialogueLine for the speaker
+ * formats); start it with '\' to begin it with '@' or '#'
+ * - Lines starting with '@' are directives
+ *
+ * Scene directives:
+ * - "@day N" → which day the scene belongs to
+ * - "@style lines|text|centered" → how lines show: parsed for speakers (default),
+ * as plain text in the dialogue box, or as large centered text
+ *
+ * Cue directives (run just before the next line of dialogue shows; the ones
+ * before the first line set the scene up):
+ * - "@background PATH", "@music PATH [VOLUME]", "@music none", "@sfx PATH [VOLUME]"
+ * - "@font FAMILY plain|bold|italic|bolditalic SIZE", "@flash MS"
+ * - "@show left|right NAME", "@clear" (remove the portraits), "@breakmemory"
+ *
+ * Choices ("@choice PROMPT", then "@option LABEL" blocks, then "@endchoice"):
+ * the choice is asked when the player reaches it, and the lines of the chosen
+ * option play before the script carries on. "@dim ALPHA" right after "@choice"
+ * darkens the screen while the choice is open.
+ *
+ * How the scene ends (cues after the last line run first):
+ * - "@goto NAME" → load script NAME straight away
+ * - "@goto NAME day N" → fade through a "Day N" card into script NAME
+ * - "@goto NAME final [via PATH]" → the final transition (optionally showing
+ * background PATH in between)
+ * - "@ending TEXT" → show TEXT, fade out and offer the main menu
+ */
+public final class SceneScript {
+
+    /** Folder the script files live in */
+    public static final String SCRIPT_DIR = "assets/scripts/";
+
+    /** File extension of script files */
+    public static final String EXTENSION = ".scene";
+
+    /** How a scene's lines are shown */
+    public enum Style {
+        /** Lines are parsed for speakers (DialogueLine.parse) */
+        LINES,
+        /** Lines go into the dialogue box exactly as written */
+        TEXT,
+        /** Lines are shown as large centered text */
+        CENTERED
+    }
+
+    /** How a scene hands over to the next one */
+    public enum ExitKind {
+        /** No exit: the scene stays on its last line */
+        NONE,
+        /** Load the next script straight away */
+        LOAD,
+        /** Fade through a "Day N" card */
+        DAY,
+        /** The final transition */
+        FINAL,
+        /** End of the game */
+        ENDING
+    }
+
+    /**
+     * A compiled cue: one thing that happens before a line shows.
+     */
+    public static final class Cue {
+        /** What the cue does */
+        public enum Op {
+            BACKGROUND, MUSIC, STOP_MUSIC, SFX, FONT, FLASH, SHOW_LEFT, SHOW_RIGHT, CLEAR, BREAK_MEMORY
+        }
+
+        private final Op op;
+        private final String name;
+        private final float amount;
+        private final Font font;
+
+        private Cue(Op op, String name, float amount, Font font) {
+            this.op = op;
+            this.name = name;
+            this.amount = amount;
+            this.font = font;
+        }
+
+        /** @return What the cue does */
+        public Op getOp() {
+            return op;
+        }
+
+        /** @return Asset path or character name (null if the cue has none) */
+        public String getName() {
+            return name;
+        }
+
+        /** @return Volume (MUSIC, SFX) or duration in ms (FLASH) */
+        public float getAmount() {
+            return amount;
+        }
+
+        /** @return The font (FONT only) */
+        public Font getFont() {
+            return font;
+        }
+    }
+
+    /**
+     * One step of a scene: some cues, then either a line or a choice.
+     */
+    public static final class Step {
+        private final List<Cue> cues;
+        private final DialogueLine line;
+        private final Choice choice;
+
+        private Step(List<Cue> cues, DialogueLine line, Choice choice) {
+            this.cues = Collections.unmodifiableList(new ArrayList<>(cues));
+            this.line = line;
+            this.choice = choice;
+        }
+
+        /** @return Cues to run before the line or choice */
+        public List<Cue> getCues() {
+            return cues;
+        }
+
+        /** @return The line to show, or null if this step is a choice */
+        public DialogueLine getLine() {
+            return line;
+        }
+
+        /** @return The choice to ask, or null if this step is a line */
+        public Choice getChoice() {
+            return choice;
+        }
+    }
+
+    /**
+     * A choice between options, each with its own lines.
+     */
+    public static final class Choice {
+        private final String prompt;
+        private final float dim;
+        private final List<Option> options;
+
+        private Choice(String prompt, float dim, List<Option> options) {
+            this.prompt = prompt;
+            this.dim = dim;
+            this.options = Collections.unmodifiableList(new ArrayList<>(options));
+        }
+
+        /** @return The question shown to the player */
+        public String getPrompt() {
+            return prompt;
+        }
+
+        /** @return Overlay alpha while the choice is open (0 = no dimming) */
+        public float getDim() {
+            return dim;
+        }
+
+        /** @return The options, in the order shown */
+        public List<Option> getOptions() {
+            return options;
+        }
+
+        /** @return The option labels, in the order shown */
+        public String[] getLabels() {
+            String[] labels = new String[options.size()];
+            for (int i = 0; i < labels.length; i++)
+                labels[i] = options.get(i).label;
+            return labels;
+        }
+    }
+
+    /**
+     * One option of a choice.
+     */
+    public static final class Option {
+        private final String label;
+        private final List<Step> steps;
+        private final List<Cue> cues;
+
+        private Option(String label, List<Step> steps, List<Cue> cues) {
+            this.label = label;
+            this.steps = Collections.unmodifiableList(new ArrayList<>(steps));
+            this.cues = Collections.unmodifiableList(new ArrayList<>(cues));
+        }
+
+        /** @return The label shown in the choice list */
+        public String getLabel() {
+            return label;
+        }
+
+        /** @return Lines played when this option is chosen */
+        public List<Step> getSteps() {
+            return steps;
+        }
+
+        /** @return Cues after the option's last line (run when it is chosen) */
+        public List<Cue> getCues() {
+            return cues;
+        }
+    }
+
+    /** Compiled scripts by name (cleared when the asset folders change) */
+    private static final Map<String, SceneScript> cache = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final int day;
+    private final Style style;
+    private final List<Step> steps;
+    private final List<Cue> endCues;
+    private final ExitKind exitKind;
+    private final String exitTarget;
+    private final int exitDay;
+    private final String exitVia;
+    private final String endingText;
+    private final String[] backgrounds;
+    private final String[] portraits;
+    private final String[] audioTracks;
+
+    private SceneScript(Parser p) {
+        this.name = p.name;
+        this.day = p.day;
+        this.style = p.style;
+        this.steps = Collections.unmodifiableList(p.steps);
+        this.endCues = Collections.unmodifiableList(p.pending);
+        this.exitKind = p.exitKind;
+        this.exitTarget = p.exitTarget;
+        this.exitDay = p.exitDay;
+        this.exitVia = p.exitVia;
+        this.endingText = p.endingText;
+        this.backgrounds = p.backgrounds.toArray(new String[0]);
+        this.portraits = p.portraits.toArray(new String[0]);
+        this.audioTracks = p.audioTracks.toArray(new String[0]);
+    }
+
+    /**
+     * Get a compiled script, reading and compiling it on first use.
+     *
+     * @param name Script name (the file name without extension, e.g. "day_one")
+     * @return The compiled script
+     * @throws IOException If the script is missing or has an error (the message
+     *                     names the file and line)
+     */
+    public static SceneScript get(String name) throws IOException {
+        SceneScript script = cache.get(name);
+        if (script == null) {
+            script = load(name);
+            cache.put(name, script);
+        }
+        return script;
+    }
+
+    /**
+     * Forget every compiled script so edited files are read again.
+     */
+    public static void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Read and compile a script file.
+     *
+     * @param name Script name
+     * @return The compiled script
+     * @throws IOException If the script is missing or has an error
+     */
+    private static SceneScript load(String name) throws IOException {
+        String asset = AssetIndex.find(SCRIPT_DIR + name + EXTENSION);
+        if (asset == null)
+            throw new IOException("no script named " + name + " (" + SCRIPT_DIR + name + EXTENSION + ")");
+        Parser p = new Parser(name, asset);
+        try (BufferedReader r = new BufferedReader(
+                new InputStreamReader(AssetStore.openStream(asset), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                p.lineNo++;
+                p.accept(line);
+            }
+        }
+        p.finish();
+        Log.debug(() -> "SceneScript: compiled " + name + " (" + p.steps.size() + " steps)");
+        return new SceneScript(p);
+    }
+
+    /**
+     * Turns script lines into steps, one line at a time.
+     */
+    private static final class Parser {
+        final String name;
+        final String file;
+        int lineNo = 0;
+
+        int day = 0;
+        Style style = Style.LINES;
+        final List<Step> steps = new ArrayList<>();
+        /** Cues waiting for the next line (at the end: the scene's end cues) */
+        List<Cue> pending = new ArrayList<>();
+
+        ExitKind exitKind = ExitKind.NONE;
+        String exitTarget;
+        int exitDay;
+        String exitVia;
+        String endingText;
+
+        // Choice being read (null outside @choice ... @endchoice)
+        String choicePrompt;
+        float choiceDim;
+        List<Cue> choiceCues;
+        List<Option> options;
+        String optionLabel;
+        List<Step> optionSteps;
+
+        final Set<String> backgrounds = new LinkedHashSet<>();
+        final Set<String> portraits = new LinkedHashSet<>();
+        final Set<String> audioTracks = new LinkedHashSet<>();
+
+        Parser(String name, String file) {
+            this.name = name;
+            this.file = file;
+        }
+
+        IOException error(String msg) {
+            return new IOException(file + ":" + lineNo + ": " + msg);
+        }
+
+        void accept(String raw) throws IOException {
+            String s = raw.trim();
+            if (s.isEmpty() || s.startsWith("#"))
+                return;
+            if (exitKind != ExitKind.NONE)
+                throw error("nothing may follow @goto or @ending");
+            if (s.startsWith("@")) {
+                directive(s);
+                return;
+            }
+            if (s.startsWith("\\"))
+                s = s.substring(1);
+            if (choicePrompt != null && optionLabel == null)
+                throw error("line before the first @option");
+            DialogueLine line = compile(s);
+            if (line.getLeftCharacter() != null)
+                portraits.add(line.getLeftCharacter());
+            if (line.getRightCharacter() != null)
+                portraits.add(line.getRightCharacter());
+            Step step = new Step(pending, line, null);
+            pending = new ArrayList<>();
+            (optionSteps != null ? optionSteps : steps).add(step);
+        }
+
+        DialogueLine compile(String s) {
+            switch (style) {
+                case TEXT:
+                    return DialogueLine.text(s);
+                case CENTERED:
+                    return DialogueLine.centered(s);
+                default:
+                    return DialogueLine.parse(s);
+            }
+        }
+
+        void directive(String s) throws IOException {
+            int space = s.indexOf(' ');
+            String word = (space < 0 ? s.substring(1) : s.substring(1, space)).toLowerCase(Locale.ROOT);
+            String rest = space < 0 ? "" : s.substring(space + 1).trim();
+            String[] args = rest.isEmpty() ? new String[0] : rest.split("\\s+");
+            switch (word) {
+                case "day":
+                    day = parseInt(one(args));
+                    break;
+                case "style":
+                    try {
+                        style = Style.valueOf(one(args).toUpperCase(Locale.ROOT));
+                    } catch (IllegalArgumentException e) {
+                        throw error("unknown style " + rest);
+                    }
+                    break;
+                case "background":
+                    backgrounds.add(need(rest));
+                    pending.add(new Cue(Cue.Op.BACKGROUND, rest, 0f, null));
+                    break;
+                case "music":
+                    if (rest.equalsIgnoreCase("none")) {
+                        pending.add(new Cue(Cue.Op.STOP_MUSIC, null, 0f, null));
+                    } else {
+                        audioTracks.add(need(args.length > 0 ? args[0] : null));
+                        pending.add(new Cue(Cue.Op.MUSIC, args[0], args.length > 1 ? parseFloat(args[1]) : 1f, null));
+                    }
+                    break;
+                case "sfx":
+                    audioTracks.add(need(args.length > 0 ? args[0] : null));
+                    pending.add(new Cue(Cue.Op.SFX, args[0], args.length > 1 ? parseFloat(args[1]) : 1f, null));
+                    break;
+                case "font":
+                    pending.add(new Cue(Cue.Op.FONT, null, 0f, parseFont(args)));
+                    break;
+                case "flash":
+                    pending.add(new Cue(Cue.Op.FLASH, null, parseInt(one(args)), null));
+                    break;
+                case "show":
+                    if (args.length != 2 || !(args[0].equalsIgnoreCase("left") || args[0].equalsIgnoreCase("right")))
+                        throw error("expected @show left|right NAME");
+                    portraits.add(args[1]);
+                    pending.add(new Cue(args[0].equalsIgnoreCase("left") ? Cue.Op.SHOW_LEFT : Cue.Op.SHOW_RIGHT,
+                            args[1], 0f, null));
+                    break;
+                case "clear":
+                    pending.add(new Cue(Cue.Op.CLEAR, null, 0f, null));
+                    break;
+                case "breakmemory":
+                    pending.add(new Cue(Cue.Op.BREAK_MEMORY, null, 0f, null));
+                    break;
+                case "choice":
+                    if (choicePrompt != null)
+                        throw error("@choice inside a choice");
+                    choicePrompt = need(rest);
+                    choiceDim = 0f;
+                    choiceCues = pending;
+                    pending = new ArrayList<>();
+                    options = new ArrayList<>();
+                    break;
+                case "dim":
+                    if (choicePrompt == null || optionLabel != null)
+                        throw error("@dim must come right after @choice");
+                    choiceDim = parseFloat(one(args));
+                    break;
+                case "option":
+                    if (choicePrompt == null)
+                        throw error("@option outside a choice");
+                    closeOption();
+                    optionLabel = need(rest);
+                    optionSteps = new ArrayList<>();
+                    break;
+                case "endchoice":
+                    if (choicePrompt == null)
+                        throw error("@endchoice without @choice");
+                    closeOption();
+                    if (options.isEmpty())
+                        throw error("choice has no options");
+                    steps.add(new Step(choiceCues, null, new Choice(choicePrompt, choiceDim, options)));
+                    choicePrompt = null;
+                    options = null;
+                    break;
+                case "goto":
+                    exit(args);
+                    break;
+                case "ending":
+                    exitKind = ExitKind.ENDING;
+                    endingText = need(rest);
+                    break;
+                default:
+                    throw error("unknown directive @" + word);
+            }
+        }
+
+        /** Finish the option being read (its trailing cues run when it is chosen). */
+        void closeOption() {
+            if (optionLabel != null)
+                options.add(new Option(optionLabel, optionSteps, pending));
+            else if (!pending.isEmpty())
+                choiceCues.addAll(pending);
+            pending = new ArrayList<>();
+            optionLabel = null;
+            optionSteps = null;
+        }
+
+        void exit(String[] args) throws IOException {
+            if (args.length == 0)
+                throw error("@goto needs a script name");
+            exitTarget = args[0];
+            if (args.length == 1) {
+                exitKind = ExitKind.LOAD;
+            } else if (args[1].equalsIgnoreCase("day") && args.length == 3) {
+                exitKind = ExitKind.DAY;
+                exitDay = parseInt(args[2]);
+            } else if (args[1].equalsIgnoreCase("final")) {
+                exitKind = ExitKind.FINAL;
+                if (args.length == 4 && args[2].equalsIgnoreCase("via")) {
+                    exitVia = args[3];
+                    backgrounds.add(exitVia);
+                } else if (args.length != 2) {
+                    throw error("expected @goto NAME final [via PATH]");
+                }
+            } else {
+                throw error("expected @goto NAME [day N | final [via PATH]]");
+            }
+        }
+
+        void finish() throws IOException {
+            if (choicePrompt != null)
+                throw error("missing @endchoice");
+            if (steps.isEmpty())
+                throw error("script has no lines");
+        }
+
+        String need(String s) throws IOException {
+            if (s == null || s.isEmpty())
+                throw error("missing argument");
+            return s;
+        }
+
+        String one(String[] args) throws IOException {
+            if (args.length != 1)
+                throw error("expected one argument");
+            return args[0];
+        }
+
+        int parseInt(String s) throws IOException {
+            try {
+                return Integer.parseInt(s);
+            } catch (NumberFormatException e) {
+                throw error("not a number: " + s);
+            }
+        }
+
+        float parseFloat(String s) throws IOException {
+            try {
+                return Float.parseFloat(s);
+            } catch (NumberFormatException e) {
+                throw error("not a number: " + s);
+            }
+        }
+
+        Font parseFont(String[] args) throws IOException {
+            if (args.length != 3)
+                throw error("expected @font FAMILY plain|bold|italic|bolditalic SIZE");
+            int styleBits;
+            switch (args[1].toLowerCase(Locale.ROOT)) {
+                case "plain":
+                    styleBits = Font.PLAIN;
+                    break;
+                case "bold":
+                    styleBits = Font.BOLD;
+                    break;
+                case "italic":
+                    styleBits = Font.ITALIC;
+                    break;
+                case "bolditalic":
+                    styleBits = Font.BOLD | Font.ITALIC;
+                    break;
+                default:
+                    throw error("unknown font style " + args[1]);
+            }
+            return new Font(args[0], styleBits, parseInt(args[2]));
+        }
+    }
+
+    /** @return Script name (e.g. "day_one") */
+    public String getName() {
+        return name;
+    }
+
+    /** @return Day the scene belongs to (0 if none) */
+    public int getDay() {
+        return day;
+    }
+
+    /** @return How lines are shown */
+    public Style getStyle() {
+        return style;
+    }
+
+    /** @return The scene's steps, in order */
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    /** @return Cues run after the last line, before the exit */
+    public List<Cue> getEndCues() {
+        return endCues;
+    }
+
+    /** @return How the scene hands over to the next one */
+    public ExitKind getExitKind() {
+        return exitKind;
+    }
+
+    /** @return Name of the next script (LOAD, DAY and FINAL exits) */
+    public String getExitTarget() {
+        return exitTarget;
+    }
+
+    /** @return Day shown on the card (DAY exits) */
+    public int getExitDay() {
+        return exitDay;
+    }
+
+    /** @return Background shown before the final transition, or null */
+    public String getExitVia() {
+        return exitVia;
+    }
+
+    /** @return Closing text (ENDING exits) */
+    public String getEndingText() {
+        return endingText;
+    }
+
+    /** @return Every background the script shows */
+    public String[] getBackgrounds() {
+        return backgrounds.clone();
+    }
+
+    /** @return Every character whose portrait the script shows */
+    public String[] getPortraits() {
+        return portraits.clone();
+    }
+
+    /** @return Every music track and sound effect the script plays */
+    public String[] getAudioTracks() {
+        return audioTracks.clone();
+    }
+}
@@ -0,0 +1,387 @@
+package scenes;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import silentconvent.*;
+
+/**
+ * A scene played from a compiled script (see SceneScript for the format).
+ * Every day of the story is one of these; the script names the scene that
+ * follows, so the whole story is data.
+ */
+public class ScriptedScene extends Scene {
+
+    /** Script the game starts with */
+    public static final String FIRST_SCRIPT = "day_one";
+
+    /** The compiled script */
+    private final SceneScript script;
+
+    /** The script's steps, as a timeline (shared by every run of the scene) */
+    private final DialogueTimeline<SceneScript.Step> scriptSteps;
+
+    /**
+     * Steps still to play. Starts as the script's steps; a choice is replaced by
+     * the lines of the option picked (each answer is a new snapshot, see
+     * DialogueTimeline).
+     */
+    private DialogueTimeline<SceneScript.Step> steps;
+
+    /**
+     * Option picked at each choice so far, in order (-1 for a cancelled
+     * choice). Together with the index this is everything a save needs: the
+     * steps can be rebuilt from it.
+     */
+    private final List<Integer> picks = new ArrayList<>();
+
+    /** Format of the state blob written by saveState() */
+    private static final byte STATE_VERSION = 1;
+
+    /**
+     * Create a scene from a script.
+     *
+     * @param name Script name (e.g. "day_one")
+     * @throws IllegalArgumentException If the script is missing or has an error
+     */
+    public ScriptedScene(String name) {
+        try {
+            this.script = SceneScript.get(name);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Can't load scene script " + name + ": " + e.getMessage(), e);
+        }
+        this.scriptSteps = DialogueTimeline.of(script.getSteps());
+        this.steps = scriptSteps;
+    }
+
+    @Override
+    public void start() {
+        Presenter ui = SceneManager.getPresenter();
+        if (script.getStyle() == SceneScript.Style.CENTERED)
+            ui.hideDialogue();
+        else
+            ui.showDialogue("");
+        steps = scriptSteps;
+        picks.clear();
+        index = 0;
+        play();
+    }
+
+    @Override
+    public void next() {
+        index++;
+        play();
+    }
+
+    /**
+     * Show the step at index: run its cues, then show its line. A choice is
+     * asked and replaced by the chosen option's lines, which then play.
+     * Past the last step, run the end cues and leave the scene.
+     */
+    private void play() {
+        while (index < steps.size()) {
+            SceneScript.Step step = steps.get(index);
+            runCues(step.getCues());
+            SceneScript.Choice choice = step.getChoice();
+            if (choice == null) {
+                updateDisplay();
+                return;
+            }
+            steps = steps.replace(index, ask(choice));
+        }
+        runCues(script.getEndCues());
+        exit();
+    }
+
+    /**
+     * Ask the player to choose.
+     *
+     * @return The steps of the chosen option (empty if the choice was cancelled)
+     */
+    private List<SceneScript.Step> ask(SceneScript.Choice choice) {
+        Presenter ui = SceneManager.getPresenter();
+        if (choice.getDim() > 0f)
+            ui.setFadeAlpha(choice.getDim());
+        int sel = ui.choose(choice.getPrompt(), choice.getLabels());
+        if (choice.getDim() > 0f)
+            ui.setFadeAlpha(0f);
+        if (sel < 0 || sel >= choice.getOptions().size())
+            sel = -1;
+        picks.add(sel);
+        SceneManager.sceneStateChanged(this);
+        if (sel < 0)
+            return new ArrayList<>();
+        SceneScript.Option option = choice.getOptions().get(sel);
+        runCues(option.getCues());
+        return option.getSteps();
+    }
+
+    /**
+     * The choices made so far: a version byte, then the option picked at each
+     * choice as an int (-1 if it was cancelled).
+     */
+    @Override
+    public byte[] saveState() {
+        ByteBuffer buf = ByteBuffer.allocate(1 + 4 * picks.size());
+        buf.put(STATE_VERSION);
+        for (int pick : picks)
+            buf.putInt(pick);
+        return buf.array();
+    }
+
+    /**
+     * Rebuild the steps from the choices in the saved state and show the saved
+     * line. Cues before it are not run again, except the ones that leave
+     * something on screen (background, font, portraits), so the scene looks as
+     * it did; the music is restored by the save itself.
+     * Without a state (saves from before it was kept), choices are left
+     * unanswered.
+     */
+    @Override
+    public void resume(int idx, byte[] state) {
+        Presenter ui = SceneManager.getPresenter();
+        if (script.getStyle() == SceneScript.Style.CENTERED)
+            ui.hideDialogue();
+        else
+            ui.showDialogue("");
+
+        int[] saved = decodePicks(state);
+        steps = scriptSteps;
+        picks.clear();
+        List<SceneScript.Cue> shown = new ArrayList<>();
+        int i = 0;
+        while (i < steps.size() && i <= idx) {
+            SceneScript.Step step = steps.get(i);
+            shown.addAll(step.getCues());
+            SceneScript.Choice choice = step.getChoice();
+            if (choice == null) {
+                i++;
+                continue;
+            }
+            if (picks.size() >= saved.length)
+                break; // saved before this choice was answered
+            int sel = saved[picks.size()];
+            if (sel < 0 || sel >= choice.getOptions().size())
+                sel = -1;
+            picks.add(sel);
+            if (sel >= 0) {
+                SceneScript.Option option = choice.getOptions().get(sel);
+                shown.addAll(option.getCues());
+                steps = steps.replace(i, option.getSteps());
+            } else {
+                steps = steps.remove(i);
+            }
+        }
+        restoreCues(shown);
+
+        index = Math.max(0, Math.min(idx, steps.size() - 1));
+        updateDisplay();
+    }
+
+    /** @return The picks in a state blob (none if there is no valid state) */
+    private static int[] decodePicks(byte[] state) {
+        if (state == null || state.length == 0 || state[0] != STATE_VERSION)
+            return new int[0];
+        try {
+            ByteBuffer buf = ByteBuffer.wrap(state, 1, state.length - 1);
+            int[] out = new int[buf.remaining() / 4];
+            for (int k = 0; k < out.length; k++)
+                out[k] = buf.getInt();
+            return out;
+        } catch (BufferUnderflowException e) {
+            return new int[0];
+        }
+    }
+
+    /**
+     * Put back what earlier cues left on screen: the last background and font,
+     * and the portraits as the cues left them. Sounds, flashes and story flags
+     * are not repeated.
+     */
+    private void restoreCues(List<SceneScript.Cue> cues) {
+        Presenter ui = SceneManager.getPresenter();
+        String background = null;
+        SceneScript.Cue font = null;
+        String left = null;
+        String right = null;
+        for (SceneScript.Cue cue : cues) {
+            switch (cue.getOp()) {
+                case BACKGROUND:
+                    background = cue.getName();
+                    break;
+                case FONT:
+                    font = cue;
+                    break;
+                case SHOW_LEFT:
+                    left = cue.getName();
+                    break;
+                case SHOW_RIGHT:
+                    right = cue.getName();
+                    break;
+                case CLEAR:
+                    left = null;
+                    right = null;
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (background != null)
+            ui.setBackgroundImage(background);
+        if (font != null)
+            ui.setDialogueFont(font.getFont());
+        if (left != null)
+            ui.showLeftCharacter(left);
+        if (right != null)
+            ui.showRightCharacter(right);
+    }
+
+    /** Carry out cues in order. */
+    private void runCues(List<SceneScript.Cue> cues) {
+        Presenter ui = SceneManager.getPresenter();
+        for (SceneScript.Cue cue : cues) {
+            switch (cue.getOp()) {
+                case BACKGROUND:
+                    ui.setBackgroundImage(cue.getName());
+                    break;
+                case MUSIC:
+                    ui.playAudio(cue.getName(), true, cue.getAmount());
+                    break;
+                case STOP_MUSIC:
+                    ui.stopAudio();
+                    break;
+                case SFX:
+                    ui.playAudio(cue.getName(), false, cue.getAmount());
+                    break;
+                case FONT:
+                    ui.setDialogueFont(cue.getFont());
+                    break;
+                case FLASH:
+                    ui.flashOnce((int) cue.getAmount());
+                    break;
+                case SHOW_LEFT:
+                    ui.showLeftCharacter(cue.getName());
+                    break;
+                case SHOW_RIGHT:
+                    ui.showRightCharacter(cue.getName());
+                    break;
+                case CLEAR:
+                    ui.clearCharacters();
+                    break;
+                case BREAK_MEMORY:
+                    SaveManager.breakMemory();
+                    break;
+            }
+        }
+    }
+
+    /** Hand over to the next scene as the script says. */
+    private void exit() {
+        index = steps.size() - 1; // stay on the last line until the next scene takes over
+        switch (script.getExitKind()) {
+            case LOAD:
+                SceneManager.load(new ScriptedScene(script.getExitTarget()));
+                break;
+            case DAY:
+                SceneManager.transitionTo(new ScriptedScene(script.getExitTarget()), script.getExitDay());
+                break;
+            case FINAL:
+                finalTransition();
+                break;
+            case ENDING:
+                ending();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * The final transition, optionally showing another room first (fade to
+     * black, swap the background, fade back in).
+     */
+    private void finalTransition() {
+        Scene finalScene = new ScriptedScene(script.getExitTarget());
+        String via = script.getExitVia();
+        if (via == null) {
+            SceneManager.transitionToFinal(finalScene);
+            return;
+        }
+        Presenter ui = SceneManager.getPresenter();
+        ui.fadeToBlack(500, () -> {
+            ui.setBackgroundImage(via);
+            ui.fadeFromBlack(500, () -> SceneManager.transitionToFinal(finalScene));
+        });
+    }
+
+    /**
+     * End of the game: show the closing text, fade to black and offer the main
+     * menu (which unlocks the story view).
+     */
+    private void ending() {
+        Presenter ui = SceneManager.getPresenter();
+        ui.showCenteredText(script.getEndingText());
+        ui.setNextEnabled(false);
+        ui.fadeToBlack(700, () -> {
+            ui.hideCenteredText();
+            // After black is full, show a Main Menu button after a short pause
+            ui.showCenteredButtonAfterDelay("Main Menu", 3000, () -> {
+                SceneManager.unlockStory();
+                ui.showMainMenu();
+                updateDisplay();
+            });
+        });
+    }
+
+    /**
+     * Show the line at index (or the nearest line before it, if index is on a
+     * choice or past the end).
+     */
+    @Override
+    public void updateDisplay() {
+        for (int i = Math.min(index, steps.size() - 1); i >= 0; i--) {
+            DialogueLine line = steps.get(i).getLine();
+            if (line != null) {
+                SceneManager.getPresenter().showLine(line);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return The steps as they stand (the script's, with the choices answered
+     *         so far replaced by their lines): an immutable snapshot, so it can
+     *         be kept while the scene plays on
+     */
+    public DialogueTimeline<SceneScript.Step> getTimeline() {
+        return steps;
+    }
+
+    /** @return Name of the script this scene plays */
+    @Override
+    public String getScriptName() {
+        return script.getName();
+    }
+
+    @Override
+    public int getDay() {
+        return script.getDay();
+    }
+
+    @Override
+    public String[] getBackgrounds() {
+        return script.getBackgrounds();
+    }
+
+    @Override
+    public String[] getPortraits() {
+        return script.getPortraits();
+    }
+
+    @Override
+    public String[] getAudioTracks() {
+        return script.getAudioTracks();
+    }
+}
@@ -0,0 +1,251 @@
+package silentconvent;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+
+/**
+ * SpriteCache keeps ready-to-draw character sprites in memory.
+ * Each entry is a sprite that has already been decoded, scaled to fit its label
+ * and centered on a transparent canvas (optionally with the 50% dim overlay).
+ *
+ * Key features:
+ * - Entries are keyed by (asset name, target width, target height, dim state)
+ * - The lit and dimmed version of a nun are each built only once per session
+ * - The dimmed version is derived from the cached lit version (no second decode)
+ * - Least recently used entries are evicted once the memory budget is exceeded
+ *
+ * All methods are thread-safe. Decoding happens outside the lock so a slow
+ * decode never blocks other lookups.
+ */
+public class SpriteCache {
+
+    /** Default memory budget for cached sprites (32 MB of ARGB pixels) */
+    private static final long DEFAULT_BUDGET_BYTES = 32L * 1024 * 1024;
+
+    /** Maximum number of bytes the cached images may use */
+    private static long budgetBytes = DEFAULT_BUDGET_BYTES;
+
+    /** Number of bytes currently used by cached images */
+    private static long usedBytes = 0;
+
+    /** Cached images in access order (least recently used first) */
+    private static final LinkedHashMap<Key, BufferedImage> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Lookup statistics (useful for checking the cache is doing its job) */
+    private static long hits = 0;
+    private static long misses = 0;
+
+    /**
+     * Get the ready-to-draw sprite for an asset at the given target size.
+     * If the target size is not known yet (0 or less), the image's own size is
+     * used.
+     *
+     * @param asset   Asset name of the image (see AssetStore)
+     * @param targetW Width of the label the sprite is shown in
+     * @param targetH Height of the label the sprite is shown in
+     * @param dim     True to get the dimmed (non-speaking) version
+     * @return The sprite image, centered on a transparent targetW x targetH canvas
+     * @throws IOException If the image can't be read
+     */
+    public static BufferedImage get(String asset, int targetW, int targetH, boolean dim) throws IOException {
+        return lookup(asset, targetW, targetH, dim, true);
+    }
+
+    /**
+     * Build a sprite into the cache ahead of time (see AssetPrefetcher).
+     * Does not count as a lookup, so prefetching doesn't skew the hit rate.
+     *
+     * @param asset   Asset name of the image (see AssetStore)
+     * @param targetW Width of the label the sprite will be shown in
+     * @param targetH Height of the label the sprite will be shown in
+     * @param dim     True to build the dimmed (non-speaking) version
+     * @return The sprite image, centered on a transparent targetW x targetH canvas
+     * @throws IOException If the image can't be read
+     */
+    public static BufferedImage load(String asset, int targetW, int targetH, boolean dim) throws IOException {
+        return lookup(asset, targetW, targetH, dim, false);
+    }
+
+    /**
+     * Return the cached sprite or build and cache it.
+     *
+     * @param count True to count the lookup as a hit or miss
+     */
+    private static BufferedImage lookup(String asset, int targetW, int targetH, boolean dim, boolean count)
+            throws IOException {
+        Key key = new Key(asset, Math.max(0, targetW), Math.max(0, targetH), dim);
+        synchronized (SpriteCache.class) {
+            BufferedImage cached = entries.get(key);
+            if (cached != null) {
+                if (count)
+                    hits++;
+                return cached;
+            }
+            if (count)
+                misses++;
+        }
+
+        BufferedImage img;
+        if (dim) {
+            // Build the dimmed version on top of the (cached) lit version; the
+            // request was counted above, so the lit lookup doesn't count again
+            img = buildDimmed(lookup(asset, targetW, targetH, false, false));
+        } else {
+            img = buildLit(asset, targetW, targetH);
+        }
+        put(key, img);
+        return img;
+    }
+
+    /**
+     * Decode an image asset and center it (aspect ratio preserved) on a
+     * transparent canvas of the target size.
+     */
+    private static BufferedImage buildLit(String asset, int targetW, int targetH) throws IOException {
+        long start = System.nanoTime();
+        BufferedImage img;
+        try (java.io.InputStream in = AssetStore.openStream(asset)) {
+            img = ImageIO.read(in);
+        }
+        if (img == null)
+            throw new IOException("Unsupported image format: " + asset);
+
+        int w = targetW > 0 ? targetW : img.getWidth();
+        int h = targetH > 0 ? targetH : img.getHeight();
+        // Preserve aspect ratio while fitting into w x h
+        double ratio = (double) img.getWidth() / img.getHeight();
+        int scaledW = w;
+        int scaledH = (int) Math.round(w / ratio);
+        if (scaledH > h) {
+            scaledH = h;
+            scaledW = (int) Math.round(h * ratio);
+        }
+
+        Image scaled = img.getScaledInstance(scaledW, scaledH, Image.SCALE_SMOOTH);
+        // Draw centered so the sprite doesn't stretch or shift
+        BufferedImage canvas = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = canvas.createGraphics();
+        g2.setComposite(AlphaComposite.SrcOver);
+        g2.drawImage(scaled, (w - scaledW) / 2, (h - scaledH) / 2, scaledW, scaledH, null);
+        g2.dispose();
+        Metrics.ASSET_LOAD.set(asset, System.nanoTime() - start);
+        return canvas;
+    }
+
+    /**
+     * Copy a lit sprite and apply the 50% black overlay used for non-speaking
+     * characters.
+     */
+    private static BufferedImage buildDimmed(BufferedImage lit) {
+        BufferedImage canvas = new BufferedImage(lit.getWidth(), lit.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = canvas.createGraphics();
+        g2.setComposite(AlphaComposite.SrcOver);
+        g2.drawImage(lit, 0, 0, null);
+        g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f));
+        g2.setColor(Color.BLACK);
+        g2.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        g2.dispose();
+        return canvas;
+    }
+
+    /**
+     * Store an image and evict least recently used entries until the cache fits
+     * in its budget again.
+     */
+    private static synchronized void put(Key key, BufferedImage img) {
+        BufferedImage old = entries.put(key, img);
+        if (old != null)
+            usedBytes -= sizeOf(old);
+        usedBytes += sizeOf(img);
+        trimToBudget();
+    }
+
+    /** Evict least recently used entries until usedBytes fits the budget. */
+    private static void trimToBudget() {
+        Iterator<Map.Entry<Key, BufferedImage>> it = entries.entrySet().iterator();
+        // Always keep at least the most recent entry, even if it's over budget alone
+        while (usedBytes > budgetBytes && entries.size() > 1 && it.hasNext()) {
+            BufferedImage evicted = it.next().getValue();
+            it.remove();
+            usedBytes -= sizeOf(evicted);
+        }
+    }
+
+    /** Approximate memory used by an ARGB image (4 bytes per pixel). */
+    private static long sizeOf(BufferedImage img) {
+        return (long) img.getWidth() * img.getHeight() * 4L;
+    }
+
+    /**
+     * Change the memory budget. Shrinking the budget evicts entries immediately.
+     *
+     * @param bytes Maximum number of bytes cached sprites may use
+     */
+    public static synchronized void setBudgetBytes(long bytes) {
+        budgetBytes = Math.max(0L, bytes);
+        trimToBudget();
+    }
+
+    /**
+     * Remove every cached sprite (e.g. after assets changed on disk).
+     */
+    public static synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    /** @return Number of bytes currently used by cached sprites */
+    public static synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /** @return Number of lookups served from the cache */
+    public static synchronized long getHits() {
+        return hits;
+    }
+
+    /** @return Number of lookups that had to build a sprite */
+    public static synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Cache key: asset name, target size and dim state.
+     */
+    private static final class Key {
+        private final String path;
+        private final int width;
+        private final int height;
+        private final boolean dim;
+
+        Key(String path, int width, int height, boolean dim) {
+            this.path = path;
+            this.width = width;
+            this.height = height;
+            this.dim = dim;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+            Key k = (Key) o;
+            return width == k.width && height == k.height && dim == k.dim && path.equals(k.path);
+        }
+
+        @Override
+        public int hashCode() {
+            int h = path.hashCode();
+            h = 31 * h + width;
+            h = 31 * h + height;
+            return 31 * h + (dim ? 1 : 0);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package silentconvent;
+
+import java.util.concurrent.Callable;
+
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+/**
+ * StreamingTrack plays an audio file by reading it a few milliseconds at a time
+ * instead of loading the whole file into memory.
+ *
+ * It is a mixer voice: the AudioMixer thread pulls audio from it once per
+ * period, and the file is read (and converted to the mixer's format) only as
+ * fast as it is played. When a looping track reaches the end of the file the
+ * stream is reopened and reading continues within the same period, so the loop
+ * point has no gap.
+ *
+ * Used by AudioPlayer for music, ambience and one-shot effects.
+ */
+public class StreamingTrack extends MixerVoice {
+
+    /** Opens a fresh stream positioned at the start of the file */
+    private final Callable<AudioInputStream> opener;
+
+    /** Whether to restart the file when it ends */
+    private final boolean loop;
+
+    /** Current input stream, already converted to the mixer format */
+    private AudioInputStream in;
+
+    /** Raw 16-bit samples read from the stream (reused every period) */
+    private byte[] bytes = new byte[0];
+
+    /** Bytes read since the file was (re)opened, i.e. the position in the file */
+    private volatile long bytesIntoFile = 0;
+
+    /**
+     * Open a track for streaming playback. Pass it to AudioMixer.play() to start
+     * it.
+     *
+     * @param opener Opens the audio file from the beginning; called again for
+     *               every loop
+     * @param loop   True to loop continuously, false to play once
+     * @throws Exception If the file can't be opened or converted
+     */
+    public StreamingTrack(Callable<AudioInputStream> opener, boolean loop) throws Exception {
+        this(opener, loop, 0);
+    }
+
+    /**
+     * Open a track for streaming playback, starting part way into the file
+     * (used to resume a saved game's music where it was).
+     *
+     * @param opener     Opens the audio file from the beginning; called again
+     *                   for every loop
+     * @param loop       True to loop continuously, false to play once
+     * @param startFrame Frame (in the mixer's format) to start at; past the end
+     *                   of the file a looping track starts from the beginning
+     * @throws Exception If the file can't be opened or converted
+     */
+    public StreamingTrack(Callable<AudioInputStream> opener, boolean loop, long startFrame) throws Exception {
+        this.opener = opener;
+        this.loop = loop;
+        this.in = open();
+        long skip = Math.max(0, startFrame) * AudioMixer.FORMAT.getFrameSize();
+        long skipped = 0;
+        while (skipped < skip) {
+            long n = in.skip(skip - skipped);
+            if (n <= 0)
+                break;
+            skipped += n;
+        }
+        if (skipped < skip && loop) {
+            in.close();
+            in = open();
+            skipped = 0;
+        }
+        bytesIntoFile = skipped;
+    }
+
+    /**
+     * @return Frames (in the mixer's format) read from the file since it was
+     *         last started (a period or so ahead of what is heard)
+     */
+    public long getFramePosition() {
+        return bytesIntoFile / AudioMixer.FORMAT.getFrameSize();
+    }
+
+    /** Open the source and convert it to the mixer's output format. */
+    private AudioInputStream open() throws Exception {
+        AudioInputStream src = opener.call();
+        if (src.getFormat().matches(AudioMixer.FORMAT))
+            return src;
+        return AudioSystem.getAudioInputStream(AudioMixer.FORMAT, src);
+    }
+
+    @Override
+    protected int read(float[] out, int frames) throws Exception {
+        int frameSize = AudioMixer.FORMAT.getFrameSize();
+        int wanted = frames * frameSize;
+        if (bytes.length < wanted)
+            bytes = new byte[wanted];
+
+        int filled = 0;
+        boolean reopened = false;
+        long position = bytesIntoFile;
+        while (filled < wanted) {
+            int n = in.read(bytes, filled, wanted - filled);
+            if (n > 0) {
+                filled += n;
+                position += n;
+                reopened = false;
+            } else if (loop && !reopened) {
+                // Reopen and keep filling this period: no gap at the loop point
+                in.close();
+                in = open();
+                position = 0;
+                reopened = true; // guards against an empty file looping forever
+            } else {
+                break;
+            }
+        }
+
+        bytesIntoFile = position;
+        int produced = filled / frameSize;
+        AudioMixer.toFloats(bytes, out, produced * AudioMixer.FORMAT.getChannels());
+        return produced;
+    }
+
+    @Override
+    protected void close() {
+        try {
+            in.close();
+        } catch (Exception ignored) {
+        }
+    }
+}
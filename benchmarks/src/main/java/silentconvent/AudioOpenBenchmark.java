@@ -0,0 +1,55 @@
+package silentconvent;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * AudioPlayer.play latency: the time from the call until the voice is handed
+ * to the mixer.
+ * - effects, decoded (cold) or straight from PcmCache (cached)
+ * - tracks, opened as streams (two tracks alternate so each call opens one)
+ *
+ * On machines without an audio device the mixer refuses the voice right away,
+ * so only the open is measured; that is the part this benchmark is for.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class AudioOpenBenchmark {
+
+    private static final String EFFECT = "assets/audio/ui_remember_click.wav";
+    private static final String[] TRACKS = { "assets/audio/bgm_day_unease.wav", "assets/audio/highpitch.wav" };
+
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void openAssets() {
+        AssetStore.open(AssetStore.DEFAULT_ARCHIVE);
+        AssetIndex.build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopAudio() {
+        AudioPlayer.stop();
+    }
+
+    @Benchmark
+    public void effectCold() {
+        PcmCache.clear();
+        AudioPlayer.play(EFFECT, false);
+    }
+
+    @Benchmark
+    public void effectCached() {
+        AudioPlayer.play(EFFECT, false);
+    }
+
+    @Benchmark
+    public void trackOpen() {
+        AudioPlayer.play(TRACKS[next], true);
+        next = (next + 1) % TRACKS.length;
+    }
+}
@@ -0,0 +1,41 @@
+package silentconvent;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * The background load behind GameFrame.setBackgroundImage, run headless: name
+ * candidates through AssetIndex, then decode and scale on the BackgroundLoader
+ * workers. Handing the image to the canvas needs a window and is left out.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class BackgroundBenchmark {
+
+    @Param({ "bg_chapel", "assets/images/bg_garden_day_calm.PNG" })
+    public String background;
+
+    @Setup(Level.Trial)
+    public void openAssets() {
+        AssetStore.open(AssetStore.DEFAULT_ARCHIVE);
+        AssetIndex.build();
+    }
+
+    @Benchmark
+    public BufferedImage backgroundCold() {
+        BackgroundLoader.clear();
+        String asset = GameFrame.findBackgroundAsset(background);
+        return BackgroundLoader.load(asset, GameCanvas.SCENE_WIDTH, GameCanvas.SCENE_HEIGHT, null).join();
+    }
+
+    @Benchmark
+    public BufferedImage backgroundReady() {
+        String asset = GameFrame.findBackgroundAsset(background);
+        return BackgroundLoader.load(asset, GameCanvas.SCENE_WIDTH, GameCanvas.SCENE_HEIGHT, null).join();
+    }
+}
@@ -0,0 +1,78 @@
+package silentconvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import scenes.DialogueTimeline;
+
+/**
+ * Answering choices in a long script: a choice step is replaced by the three
+ * lines of the option picked, 100 times at positions spread over the script.
+ * Compares the old scenes' copy-the-array injection, the ArrayList
+ * remove/addAll ScriptedScene used, and DialogueTimeline. Scores are per 100
+ * answers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class DialogueTimelineBenchmark {
+
+    /** Answers per benchmark call */
+    private static final int ANSWERS = 100;
+
+    @Param({ "100", "10000", "1000000" })
+    public int steps;
+
+    private String[] script;
+    private DialogueTimeline<String> timeline;
+    private List<String> option;
+    private int[] positions;
+
+    @Setup(Level.Trial)
+    public void buildScript() {
+        script = new String[steps];
+        for (int i = 0; i < steps; i++)
+            script[i] = "line " + i;
+        timeline = DialogueTimeline.of(java.util.Arrays.asList(script));
+        option = List.of("option line 1", "option line 2", "option line 3");
+        positions = new int[ANSWERS];
+        for (int i = 0; i < ANSWERS; i++)
+            positions[i] = (int) ((long) steps * i / ANSWERS);
+    }
+
+    @Benchmark
+    public String[] arrayCopyInjection() {
+        String[] text = script;
+        for (int p : positions) {
+            String[] grown = new String[text.length + option.size() - 1];
+            System.arraycopy(text, 0, grown, 0, p);
+            for (int k = 0; k < option.size(); k++)
+                grown[p + k] = option.get(k);
+            System.arraycopy(text, p + 1, grown, p + option.size(), text.length - p - 1);
+            text = grown;
+        }
+        return text;
+    }
+
+    @Benchmark
+    public List<String> arrayListReplace() {
+        List<String> list = new ArrayList<>(java.util.Arrays.asList(script));
+        for (int p : positions) {
+            list.remove(p);
+            list.addAll(p, option);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public DialogueTimeline<String> timelineReplace() {
+        DialogueTimeline<String> t = timeline;
+        for (int p : positions)
+            t = t.replace(p, option);
+        return t;
+    }
+}
@@ -0,0 +1,115 @@
+package silentconvent;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * showLine parsing over every line of the shipped scene scripts: the old
+ * regex/split path against DialogueLineParser. Scores are per script pass.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class LineParseBenchmark {
+
+    /** Script the walk through the story starts at */
+    private static final String FIRST_SCRIPT = "day_one";
+
+    private String[] lines;
+
+    @Setup(Level.Trial)
+    public void loadScripts() throws Exception {
+        AssetStore.open(AssetStore.DEFAULT_ARCHIVE);
+        AssetIndex.build();
+        lines = scriptLines();
+    }
+
+    @Benchmark
+    public void legacyShowLineParse(Blackhole bh) {
+        for (String line : lines)
+            bh.consume(legacyParse(line));
+    }
+
+    @Benchmark
+    public void dialogueLineParser(Blackhole bh) {
+        for (String line : lines)
+            bh.consume(DialogueLineParser.parse(line));
+    }
+
+    /** Every dialogue line of every script reachable from the first one. */
+    static String[] scriptLines() throws IOException {
+        List<String> lines = new ArrayList<>();
+        Set<String> seen = new LinkedHashSet<>();
+        String name = FIRST_SCRIPT;
+        while (name != null && seen.add(name)) {
+            String asset = AssetIndex.find(SceneScript.SCRIPT_DIR + name + SceneScript.EXTENSION);
+            if (asset == null)
+                throw new IOException("no script named " + name);
+            try (BufferedReader r = new BufferedReader(
+                    new InputStreamReader(AssetStore.openStream(asset), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = r.readLine()) != null) {
+                    String s = line.trim();
+                    if (s.isEmpty() || s.startsWith("#") || s.startsWith("@"))
+                        continue;
+                    lines.add(s.startsWith("\\") ? s.substring(1) : s);
+                }
+            }
+            SceneScript script = SceneScript.get(name);
+            name = script.getExitKind() == SceneScript.ExitKind.ENDING ? null : script.getExitTarget();
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    /**
+     * The parsing showLine and showSpeaker used to do on every click, kept here
+     * as the baseline.
+     */
+    static DialogueLine legacyParse(String s) {
+        s = s.trim();
+        if (s.startsWith("[") && s.contains("]")) {
+            int end = s.indexOf(']');
+            String name = s.substring(1, end).trim();
+            String msg = s.substring(end + 1).trim();
+            return legacySpeech(name, msg);
+        }
+        int colon = s.indexOf(':');
+        if (colon > 0) {
+            String maybeName = s.substring(0, colon).trim();
+            if (maybeName.matches("^[A-Za-zÀ-ÖØ-öø-ÿ]+$")) {
+                String msg = s.substring(colon + 1).trim();
+                return legacySpeech(maybeName, msg);
+            }
+        }
+        if (s.contains("\"") || (s.startsWith("\"") && s.length() > 1)) {
+            String msg = s.replace("\"", "").trim();
+            return legacySpeech("Agnes", msg);
+        }
+        return new DialogueLine(DialogueLine.Kind.NARRATION, null, s, null, null, false, false);
+    }
+
+    private static DialogueLine legacySpeech(String name, String msg) {
+        if (name.contains(",")) {
+            String[] parts = name.split(",");
+            return new DialogueLine(DialogueLine.Kind.SPEECH, name, msg, parts[0].trim(), parts[1].trim(), false,
+                    true);
+        } else if (name.contains("|")) {
+            String[] parts = name.split("\\|");
+            return new DialogueLine(DialogueLine.Kind.SPEECH, name, msg, parts[0].trim(), parts[1].trim(), false,
+                    true);
+        }
+        return new DialogueLine(DialogueLine.Kind.SPEECH, name, msg, null, name.trim(), true, false);
+    }
+}
@@ -0,0 +1,63 @@
+package silentconvent;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Save file round trips through SaveManager's writer and reader: the disk part
+ * of saveGame and loadGame (snapshotting and restoring a scene need the game
+ * window and are left out). save includes the temp file, fsync and rename
+ * that make writes crash-safe; in the game it runs on SaveWriter's thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class SaveLoadBenchmark {
+
+    private File dir;
+    private File file;
+    private SaveData sample;
+
+    @Setup(Level.Trial)
+    public void prepare() throws Exception {
+        dir = Files.createTempDirectory("silentconvent-bench").toFile();
+        file = new File(dir, "bench.sav");
+        sample = new SaveData();
+        sample.sceneClass = "scenes.ScriptedScene";
+        sample.script = "day_three";
+        sample.index = 4;
+        sample.day = 3;
+        sample.backgroundPath = "assets/images/bg_dining_tense.PNG";
+        sample.musicPath = "assets/audio/bgm_day_unease.wav";
+        sample.musicLoop = true;
+        sample.musicLocalMultiplier = 0.5f;
+        SaveManager.writeSave(sample, file);
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() {
+        file.delete();
+        dir.delete();
+    }
+
+    @Benchmark
+    public void save() throws Exception {
+        SaveManager.writeSave(sample, file);
+    }
+
+    @Benchmark
+    public SaveData load() throws Exception {
+        return SaveManager.readSave(file);
+    }
+
+    @Benchmark
+    public SaveData roundTrip() throws Exception {
+        SaveManager.writeSave(sample, file);
+        return SaveManager.readSave(file);
+    }
+}
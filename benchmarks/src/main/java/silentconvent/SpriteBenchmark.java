@@ -0,0 +1,63 @@
+package silentconvent;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Sprite paths behind GameFrame, run headless:
+ * - the sprite load behind setSpriteForSlot (name lookup, decode, scale),
+ * cold and from SpriteCache
+ * - the dimmed sprite behind applyDimToSlot (built from the cached lit sprite)
+ *
+ * The GameFrame methods themselves need a window; these measure everything
+ * they do except handing the image to the canvas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class SpriteBenchmark {
+
+    @Param({ "Agnes_Left.png", "Lucille.png" })
+    public String sprite;
+
+    private int spriteW;
+    private int spriteH;
+
+    @Setup(Level.Trial)
+    public void openAssets() {
+        AssetStore.open(AssetStore.DEFAULT_ARCHIVE);
+        AssetIndex.build();
+        spriteW = GameCanvas.Slot.LEFT.bounds.width;
+        spriteH = GameCanvas.Slot.LEFT.bounds.height;
+    }
+
+    @State(Scope.Thread)
+    public static class LitCached {
+        /** Before each call: only the lit sprite is cached, so the dimmed one is built */
+        @Setup(Level.Invocation)
+        public void cacheLitOnly(SpriteBenchmark b) throws Exception {
+            SpriteCache.clear();
+            SpriteCache.get(GameFrame.findSpriteAsset(b.sprite), b.spriteW, b.spriteH, false);
+        }
+    }
+
+    @Benchmark
+    public BufferedImage spriteCold() throws Exception {
+        SpriteCache.clear();
+        return SpriteCache.get(GameFrame.findSpriteAsset(sprite), spriteW, spriteH, false);
+    }
+
+    @Benchmark
+    public BufferedImage spriteCached() throws Exception {
+        return SpriteCache.get(GameFrame.findSpriteAsset(sprite), spriteW, spriteH, false);
+    }
+
+    @Benchmark
+    public BufferedImage spriteDim(LitCached lit) throws Exception {
+        return SpriteCache.get(GameFrame.findSpriteAsset(sprite), spriteW, spriteH, true);
+    }
+}
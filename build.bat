@@ -13,5 +13,12 @@ if %errorlevel% neq 0 (
     pause
     exit /b %errorlevel%
 )
+rem Pack every image and sound into one archive (mapped by AssetStore at startup)
+java -cp classes silentconvent.AssetPacker assets assets.pak
+if %errorlevel% neq 0 (
+    echo Asset packing failed.
+    pause
+    exit /b %errorlevel%
+)
 echo Build succeeded.
 pause